@@ -0,0 +1,165 @@
+package org.fiware.iam.benchmark;
+
+import io.micronaut.data.model.Pageable;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.MutableHttpRequest;
+import io.micronaut.http.context.ServerRequestContext;
+import org.fiware.iam.TILMapper;
+import org.fiware.iam.TILMapperImpl;
+import org.fiware.iam.TIRMapper;
+import org.fiware.iam.TIRMapperImpl;
+import org.fiware.iam.cache.AuthorizationIndex;
+import org.fiware.iam.cache.CachedRegistryVersion;
+import org.fiware.iam.cache.DidFilter;
+import org.fiware.iam.cache.IssuerCache;
+import org.fiware.iam.cache.IssuerCount;
+import org.fiware.iam.configuration.AuthorizationIndexConfig;
+import org.fiware.iam.configuration.CredentialValidityConfig;
+import org.fiware.iam.configuration.DidFilterConfig;
+import org.fiware.iam.configuration.IssuerCacheConfig;
+import org.fiware.iam.configuration.IssuerCountConfig;
+import org.fiware.iam.configuration.RegistryMetricsConfig;
+import org.fiware.iam.configuration.RegistryVersionConfig;
+import org.fiware.iam.configuration.SnapshotConfig;
+import org.fiware.iam.filter.ForwardedForFilter;
+import org.fiware.iam.metrics.RegistryMetrics;
+import org.fiware.iam.repository.JoinIssuerGraphLoader;
+import org.fiware.iam.repository.RegistryVersionRepository;
+import org.fiware.iam.repository.TrustedIssuer;
+import org.fiware.iam.repository.TrustedIssuerRepository;
+import org.fiware.iam.rest.TrustedIssuerRegistryController;
+import org.fiware.iam.snapshot.RegistrySnapshot;
+import org.fiware.iam.tir.model.IssuerVO;
+import org.fiware.iam.tir.model.IssuersResponseVO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Benchmarks the registry controller without the database. The repositories return fixed results, thus the mapping,
+ * caching and building of the uris is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ControllerBenchmark {
+
+	private static final String DID = "did:elsi:benchmark";
+
+	@Param({"10", "100"})
+	public int pageSize;
+
+	@Param({"1", "10", "100"})
+	public int numberOfCredentials;
+
+	// without the cache, every read of the issuer maps it from the repository
+	@Param({"true", "false"})
+	public boolean issuerCache;
+
+	private TrustedIssuerRegistryController controller;
+	private HttpRequest<Object> listRequest;
+	private HttpRequest<Object> issuerRequest;
+
+	@Setup
+	public void setUp() {
+		TILMapper tilMapper = new TILMapperImpl();
+		TIRMapper tirMapper = new TIRMapperImpl();
+		TrustedIssuer trustedIssuer = tilMapper.map(IssuerFixtures.issuer(DID, numberOfCredentials, 10));
+		trustedIssuer.getCredentials().forEach(tirMapper::withAttribute);
+
+		TrustedIssuerRepository trustedIssuerRepository = trustedIssuerRepository(trustedIssuer);
+		// without a meter registry, nothing is measured
+		RegistryMetrics registryMetrics = new RegistryMetrics(new RegistryMetricsConfig(), null);
+		IssuerCacheConfig issuerCacheConfig = new IssuerCacheConfig();
+		issuerCacheConfig.setEnabled(issuerCache);
+		controller = new TrustedIssuerRegistryController(
+				tirMapper,
+				trustedIssuerRepository,
+				// the benchmarked lists are not filtered by credentials type
+				null,
+				new JoinIssuerGraphLoader(trustedIssuerRepository, null, registryMetrics),
+				new IssuerCache(issuerCacheConfig, null),
+				new IssuerCount(trustedIssuerRepository, new IssuerCountConfig()),
+				new CachedRegistryVersion(registryVersionRepository(), new RegistryVersionConfig()),
+				// disabled, thus never synced through the change log
+				new RegistrySnapshot(new SnapshotConfig(), null),
+				// disabled, thus never synced through the change log
+				new DidFilter(trustedIssuerRepository, registryVersionRepository(), null, new DidFilterConfig(), null),
+				new AuthorizationIndex(trustedIssuerRepository, null, registryVersionRepository(), null,
+						new AuthorizationIndexConfig(), null),
+				registryMetrics,
+				new CredentialValidityConfig());
+
+		listRequest = request("/v4/issuers");
+		issuerRequest = request("/v4/issuers/" + DID);
+	}
+
+	@Benchmark
+	public HttpResponse<IssuersResponseVO> getIssuers() {
+		Supplier<HttpResponse<IssuersResponseVO>> getIssuers =
+				() -> controller.getIssuersV4(pageSize, null, true, null, null);
+		return ServerRequestContext.with(listRequest, getIssuers);
+	}
+
+	@Benchmark
+	public HttpResponse<IssuerVO> getIssuer() {
+		Supplier<HttpResponse<IssuerVO>> getIssuer = () -> controller.getIssuerV4(DID, null, null);
+		return ServerRequestContext.with(issuerRequest, getIssuer);
+	}
+
+	// the request as it looks like after passing the forwarded-for filter
+	private static HttpRequest<Object> request(String path) {
+		MutableHttpRequest<Object> request = HttpRequest.GET(path);
+		request.setAttribute(ForwardedForFilter.REQ_ATTR, URI.create("https://tir.example.org/registry"));
+		return request;
+	}
+
+	private static TrustedIssuerRepository trustedIssuerRepository(TrustedIssuer trustedIssuer) {
+		return (TrustedIssuerRepository) Proxy.newProxyInstance(
+				ControllerBenchmark.class.getClassLoader(),
+				new Class[]{TrustedIssuerRepository.class},
+				(proxy, method, args) -> switch (method.getName()) {
+					case "findDidByDidGreaterThan", "findDidByDidLessThan" -> dids(((Pageable) args[1]).getSize());
+					case "findDidByDidIsNotNull" -> dids(((Pageable) args[0]).getSize());
+					case "getByDid" -> Optional.of(trustedIssuer);
+					case "count" -> 10_000L;
+					default -> throw new UnsupportedOperationException(method.getName());
+				});
+	}
+
+	private static RegistryVersionRepository registryVersionRepository() {
+		return (RegistryVersionRepository) Proxy.newProxyInstance(
+				ControllerBenchmark.class.getClassLoader(),
+				new Class[]{RegistryVersionRepository.class},
+				(proxy, method, args) -> switch (method.getName()) {
+					case "findVersionById" -> Optional.of(1L);
+					default -> throw new UnsupportedOperationException(method.getName());
+				});
+	}
+
+	private static List<String> dids(int size) {
+		return IntStream.range(0, size)
+				.mapToObj(i -> String.format(IssuerFixtures.DID_TEMPLATE, i))
+				.toList();
+	}
+}
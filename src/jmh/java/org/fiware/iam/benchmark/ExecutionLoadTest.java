@@ -0,0 +1,150 @@
+package org.fiware.iam.benchmark;
+
+import io.micronaut.context.ApplicationContext;
+import io.micronaut.runtime.server.EmbeddedServer;
+import org.fiware.iam.TILMapper;
+import org.fiware.iam.TIRMapper;
+import org.fiware.iam.configuration.ExecutionConfig;
+import org.fiware.iam.repository.TrustedIssuer;
+import org.fiware.iam.repository.TrustedIssuerRepository;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Load test of the controller execution modes. For every mode, the application is started against an in-memory H2
+ * and single issuers are requested through the given number of concurrent connections, each sending its requests one
+ * after another. The issuer cache is disabled, thus every request reaches the database. The latency percentiles are
+ * printed per mode.
+ * <p>
+ * Not a JMH benchmark, the main class of the jmh profile has to be replaced to run it. The arguments are the number of
+ * connections and the number of requests per connection:
+ * <pre>
+ * mvn -Pjmh -DskipTests verify -Djmh.main=org.fiware.iam.benchmark.ExecutionLoadTest -Djmh.args="2000 20"
+ * </pre>
+ */
+public final class ExecutionLoadTest {
+
+	private static final int NUMBER_OF_ISSUERS = 100;
+	private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+
+	private ExecutionLoadTest() {
+		// main class
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		int connections = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		int requestsPerConnection = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+		for (ExecutionConfig.Mode mode : ExecutionConfig.Mode.values()) {
+			System.out.printf("%s: %s%n", mode, run(mode, connections, requestsPerConnection));
+		}
+	}
+
+	private static Result run(ExecutionConfig.Mode mode, int connections, int requestsPerConnection)
+			throws InterruptedException {
+		try (EmbeddedServer server = ApplicationContext.run(EmbeddedServer.class, Map.of(
+				"datasources.default.url", String.format("jdbc:h2:mem:load-%s;DB_CLOSE_ON_EXIT=FALSE", mode),
+				"datasources.default.driverClassName", "org.h2.Driver",
+				"datasources.default.username", "sa",
+				"datasources.default.password", "",
+				"datasources.default.dialect", "H2",
+				"flyway.datasources.default.enabled", true,
+				"flyway.datasources.default.locations", "classpath:db/migration/common,classpath:db/migration/h2",
+				"backfill.attributes.enabled", false,
+				"cache.issuers.enabled", false,
+				"execution.mode", mode));
+				HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build()) {
+			storeIssuers(server.getApplicationContext());
+			URI baseUri = server.getURI();
+			// warm up the server and open the connections, the results are discarded
+			load(httpClient, baseUri, connections, 2);
+			return load(httpClient, baseUri, connections, requestsPerConnection);
+		}
+	}
+
+	private static void storeIssuers(ApplicationContext applicationContext) {
+		TILMapper tilMapper = applicationContext.getBean(TILMapper.class);
+		TIRMapper tirMapper = applicationContext.getBean(TIRMapper.class);
+		List<TrustedIssuer> trustedIssuers = IntStream.range(0, NUMBER_OF_ISSUERS)
+				.mapToObj(i -> IssuerFixtures.issuer(String.format(IssuerFixtures.DID_TEMPLATE, i), 5, 5))
+				.map(tilMapper::map)
+				.map(tirMapper::withAttributes)
+				.toList();
+		applicationContext.getBean(TrustedIssuerRepository.class).saveAll(trustedIssuers);
+	}
+
+	private static Result load(HttpClient httpClient, URI baseUri, int connections, int requestsPerConnection)
+			throws InterruptedException {
+		long[] latencies = new long[connections * requestsPerConnection];
+		AtomicInteger failures = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		long startTime;
+		try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int connection = 0; connection < connections; connection++) {
+				int offset = connection * requestsPerConnection;
+				clients.execute(() -> {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						return;
+					}
+					for (int i = 0; i < requestsPerConnection; i++) {
+						latencies[offset + i] = request(httpClient, baseUri, failures);
+					}
+				});
+			}
+			startTime = System.nanoTime();
+			start.countDown();
+		}
+		Duration duration = Duration.ofNanos(System.nanoTime() - startTime);
+		Arrays.sort(latencies);
+		return new Result(latencies.length, failures.get(), duration,
+				percentile(latencies, 0.5), percentile(latencies, 0.99), latencies[latencies.length - 1]);
+	}
+
+	// returns the latency in nanoseconds, failed requests are counted with the time until they failed
+	private static long request(HttpClient httpClient, URI baseUri, AtomicInteger failures) {
+		String did = String.format(IssuerFixtures.DID_TEMPLATE, ThreadLocalRandom.current().nextInt(NUMBER_OF_ISSUERS));
+		HttpRequest request = HttpRequest.newBuilder(baseUri.resolve("/v4/issuers/" + did))
+				.timeout(REQUEST_TIMEOUT)
+				.GET()
+				.build();
+		long requestStart = System.nanoTime();
+		try {
+			HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+			if (response.statusCode() != 200) {
+				failures.incrementAndGet();
+			}
+		} catch (Exception e) {
+			failures.incrementAndGet();
+		}
+		return System.nanoTime() - requestStart;
+	}
+
+	private static long percentile(long[] sortedLatencies, double percentile) {
+		return sortedLatencies[(int) Math.ceil(percentile * sortedLatencies.length) - 1];
+	}
+
+	private record Result(int requests, int failures, Duration duration, long p50, long p99, long max) {
+
+		@Override
+		public String toString() {
+			return String.format("%s requests (%s failed) in %sms, %.0f requests/s, p50=%.1fms, p99=%.1fms, max=%.1fms",
+					requests, failures, duration.toMillis(), requests / (duration.toNanos() / 1e9),
+					p50 / 1e6, p99 / 1e6, max / 1e6);
+		}
+	}
+}
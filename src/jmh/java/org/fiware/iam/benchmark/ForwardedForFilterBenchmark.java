@@ -0,0 +1,73 @@
+package org.fiware.iam.benchmark;
+
+import io.micronaut.http.HttpMethod;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.MutableHttpRequest;
+import io.micronaut.http.MutableHttpResponse;
+import io.micronaut.http.filter.ServerFilterChain;
+import io.micronaut.http.server.HttpServerConfiguration;
+import io.micronaut.http.ssl.ServerSslConfiguration;
+import org.fiware.iam.configuration.ForwardedForConfig;
+import org.fiware.iam.configuration.RegistryMetricsConfig;
+import org.fiware.iam.metrics.RegistryMetrics;
+import org.fiware.iam.filter.ForwardedForFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the {@link ForwardedForFilter}, that is applied to every request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ForwardedForFilterBenchmark {
+
+	@Param({"true", "false"})
+	public boolean forwarded;
+
+	private ForwardedForFilter filter;
+	private MutableHttpRequest<?> request;
+
+	// the filter only passes the request on, the rest of the pipeline is not measured
+	private final ServerFilterChain chain = filteredRequest -> Mono.empty();
+
+	@Setup
+	public void setUp() {
+		ForwardedForConfig config = new ForwardedForConfig();
+		config.setHostHeader("X-Forwarded-Host");
+		config.setPortHeader("X-Forwarded-Port");
+		config.setProtocolHeader("X-Forwarded-Proto");
+		config.setPrefixHeader("X-Forwarded-Prefix");
+		filter = new ForwardedForFilter(config, new HttpServerConfiguration(), new ServerSslConfiguration(),
+				new RegistryMetrics(new RegistryMetricsConfig(), null));
+
+		request = HttpRequest.create(HttpMethod.GET, "http://localhost:8080/v4/issuers");
+		if (forwarded) {
+			request.header("X-Forwarded-Host", "tir.example.org")
+					.header("X-Forwarded-Port", "443")
+					.header("X-Forwarded-Proto", "https")
+					.header("X-Forwarded-Prefix", "/registry");
+		}
+	}
+
+	@Benchmark
+	public Publisher<MutableHttpResponse<?>> doFilter() {
+		return filter.doFilter(request, chain);
+	}
+}
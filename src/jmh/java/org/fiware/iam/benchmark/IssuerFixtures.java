@@ -0,0 +1,94 @@
+package org.fiware.iam.benchmark;
+
+import org.fiware.iam.til.model.ClaimVO;
+import org.fiware.iam.til.model.CredentialsVO;
+import org.fiware.iam.til.model.TimeRangeVO;
+import org.fiware.iam.til.model.TrustedIssuerVO;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Fixtures shared by the benchmarks.
+ */
+final class IssuerFixtures {
+
+	static final String DID_TEMPLATE = "did:elsi:%05d";
+
+	// the credentials are valid for a year around the start of the benchmark, thus never filtered as expired
+	private static final Instant VALID_FROM = Instant.now().truncatedTo(ChronoUnit.DAYS).minus(180, ChronoUnit.DAYS);
+
+	private IssuerFixtures() {
+		// utility class
+	}
+
+	/**
+	 * Build an issuer with the given number of credentials. Each credential has two claims, each with the given number
+	 * of allowed values of mixed types.
+	 *
+	 * @param did                 of the issuer
+	 * @param numberOfCredentials credentials of the issuer
+	 * @param numberOfValues      allowed values per claim
+	 * @return the issuer
+	 */
+	static TrustedIssuerVO issuer(String did, int numberOfCredentials, int numberOfValues) {
+		return new TrustedIssuerVO()
+				.did(did)
+				.credentials(IntStream.range(0, numberOfCredentials)
+						.mapToObj(i -> credential(i, numberOfValues))
+						.toList());
+	}
+
+	/**
+	 * Build an issuer with the given number of credentials, each with the given number of claims and allowed values
+	 * per claim.
+	 *
+	 * @param did                 of the issuer
+	 * @param numberOfCredentials credentials of the issuer
+	 * @param numberOfClaims      claims per credential
+	 * @param numberOfValues      allowed values per claim
+	 * @return the issuer
+	 */
+	static TrustedIssuerVO issuer(String did, int numberOfCredentials, int numberOfClaims, int numberOfValues) {
+		TrustedIssuerVO trustedIssuerVO = issuer(did, numberOfCredentials, numberOfValues);
+		trustedIssuerVO.getCredentials().forEach(credential -> credential.claims(IntStream.range(0, numberOfClaims)
+				.mapToObj(i -> claim(String.format("claim-%s", i), null, numberOfValues))
+				.toList()));
+		return trustedIssuerVO;
+	}
+
+	private static CredentialsVO credential(int index, int numberOfValues) {
+		return new CredentialsVO()
+				.credentialsType(String.format("BenchmarkCredential%s", index))
+				.validFor(new TimeRangeVO()
+						.from(VALID_FROM)
+						.to(VALID_FROM.plus(365, ChronoUnit.DAYS)))
+				.claims(List.of(
+						claim("roles", "$.roles", numberOfValues),
+						claim("subject", null, numberOfValues)));
+	}
+
+	private static ClaimVO claim(String name, String path, int numberOfValues) {
+		return new ClaimVO()
+				.name(name)
+				.path(path)
+				.allowedValues(IntStream.range(0, numberOfValues)
+						.mapToObj(IssuerFixtures::value)
+						.toList());
+	}
+
+	// cycle through all json types, the mappers handle each of them differently
+	private static Object value(int index) {
+		return switch (index % 6) {
+			case 0 -> String.format("value-%s", index);
+			case 1 -> index;
+			case 2 -> index + 0.5;
+			case 3 -> index % 2 == 0;
+			case 4 -> Map.of("name", String.format("value-%s", index), "index", index);
+			default -> List.of(String.format("value-%s", index), index);
+		};
+	}
+}
@@ -0,0 +1,145 @@
+package org.fiware.iam.benchmark;
+
+import io.micronaut.context.ApplicationContext;
+import org.fiware.iam.TILMapper;
+import org.fiware.iam.TIRMapper;
+import org.fiware.iam.metrics.RegistryMetrics;
+import org.fiware.iam.repository.BatchedIssuerGraphLoader;
+import org.fiware.iam.repository.ClaimRepository;
+import org.fiware.iam.repository.ClaimValueRepository;
+import org.fiware.iam.repository.CredentialRepository;
+import org.fiware.iam.repository.IssuerGraphLoader;
+import org.fiware.iam.repository.JoinIssuerGraphLoader;
+import org.fiware.iam.repository.TrustedIssuer;
+import org.fiware.iam.repository.TrustedIssuerRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks loading a complete issuer from an in-memory H2, through the join and the batched strategy. The rows and
+ * characters each strategy transfers from the database are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IssuerLoadingBenchmark {
+
+	private static final String DID = "did:elsi:benchmark";
+
+	// rows and characters returned by the single query of the join strategy, every row repeats the parent columns
+	private static final String JOIN_TRANSFER_QUERY = "SELECT COUNT(*), SUM(LENGTH(ti.did) "
+			+ "+ COALESCE(LENGTH(c.trusted_issuer_id), 0) + COALESCE(LENGTH(c.credentials_type), 0) "
+			+ "+ COALESCE(LENGTH(c.attribute_body), 0) + COALESCE(LENGTH(c.attribute_hash), 0) "
+			+ "+ COALESCE(LENGTH(cl.name), 0) + COALESCE(LENGTH(cl.path), 0) "
+			+ "+ COALESCE(LENGTH(cv.`value`), 0) + COALESCE(LENGTH(cv.value_type), 0)) "
+			+ "FROM trusted_issuer ti "
+			+ "LEFT JOIN credential c ON c.trusted_issuer_id = ti.did "
+			+ "LEFT JOIN claim cl ON cl.credential_id = c.id "
+			+ "LEFT JOIN claim_value cv ON cv.claim_id = cl.id "
+			+ "WHERE ti.did = ?";
+	// rows and characters returned by the queries of the batched strategy, one per level
+	private static final String BATCHED_TRANSFER_QUERY = "SELECT COUNT(*), SUM(characters) FROM ("
+			+ "SELECT LENGTH(ti.did) AS characters FROM trusted_issuer ti WHERE ti.did = ? "
+			+ "UNION ALL SELECT LENGTH(c.trusted_issuer_id) + LENGTH(c.credentials_type) "
+			+ "+ COALESCE(LENGTH(c.attribute_body), 0) + COALESCE(LENGTH(c.attribute_hash), 0) "
+			+ "FROM credential c WHERE c.trusted_issuer_id = ? "
+			+ "UNION ALL SELECT LENGTH(cl.name) + COALESCE(LENGTH(cl.path), 0) "
+			+ "FROM claim cl JOIN credential c ON cl.credential_id = c.id WHERE c.trusted_issuer_id = ? "
+			+ "UNION ALL SELECT LENGTH(cv.`value`) + COALESCE(LENGTH(cv.value_type), 0) "
+			+ "FROM claim_value cv JOIN claim cl ON cv.claim_id = cl.id "
+			+ "JOIN credential c ON cl.credential_id = c.id WHERE c.trusted_issuer_id = ?) batched";
+
+	@Param({"1", "20"})
+	public int numberOfCredentials;
+
+	@Param({"1", "10"})
+	public int numberOfClaims;
+
+	@Param({"1", "20"})
+	public int numberOfValues;
+
+	private ApplicationContext applicationContext;
+	private IssuerGraphLoader joinLoader;
+	private IssuerGraphLoader batchedLoader;
+
+	@Setup
+	public void setUp() throws SQLException {
+		applicationContext = ApplicationContext.run(Map.of(
+				"datasources.default.url", "jdbc:h2:mem:benchmark;DB_CLOSE_ON_EXIT=FALSE",
+				"datasources.default.driverClassName", "org.h2.Driver",
+				"datasources.default.username", "sa",
+				"datasources.default.password", "",
+				"datasources.default.dialect", "H2",
+				"flyway.datasources.default.enabled", true,
+				"flyway.datasources.default.locations", "classpath:db/migration/common,classpath:db/migration/h2",
+				"backfill.attributes.enabled", false));
+		TrustedIssuerRepository trustedIssuerRepository = applicationContext.getBean(TrustedIssuerRepository.class);
+		trustedIssuerRepository.deleteAll();
+		// stored with the precomputed attributes, as done by the api
+		trustedIssuerRepository.save(applicationContext.getBean(TIRMapper.class).withAttributes(
+				applicationContext.getBean(TILMapper.class)
+						.map(IssuerFixtures.issuer(DID, numberOfCredentials, numberOfClaims, numberOfValues))));
+
+		RegistryMetrics registryMetrics = applicationContext.getBean(RegistryMetrics.class);
+		CredentialRepository credentialRepository = applicationContext.getBean(CredentialRepository.class);
+		joinLoader = new JoinIssuerGraphLoader(trustedIssuerRepository, credentialRepository, registryMetrics);
+		batchedLoader = new BatchedIssuerGraphLoader(
+				trustedIssuerRepository,
+				credentialRepository,
+				applicationContext.getBean(ClaimRepository.class),
+				applicationContext.getBean(ClaimValueRepository.class),
+				registryMetrics);
+
+		System.out.printf("%nTransferred per load: join=%s, batched=%s%n",
+				getTransfer(JOIN_TRANSFER_QUERY, 1), getTransfer(BATCHED_TRANSFER_QUERY, 4));
+	}
+
+	@TearDown
+	public void tearDown() {
+		applicationContext.close();
+	}
+
+	@Benchmark
+	public TrustedIssuer loadWithJoin() {
+		return joinLoader.load(DID).orElseThrow();
+	}
+
+	@Benchmark
+	public TrustedIssuer loadBatched() {
+		return batchedLoader.load(DID).orElseThrow();
+	}
+
+	private String getTransfer(String query, int didParameters) throws SQLException {
+		try (Connection connection = applicationContext.getBean(DataSource.class).getConnection();
+				PreparedStatement statement = connection.prepareStatement(query)) {
+			for (int i = 1; i <= didParameters; i++) {
+				statement.setString(i, DID);
+			}
+			try (ResultSet resultSet = statement.executeQuery()) {
+				resultSet.next();
+				return String.format("%s rows/%s characters", resultSet.getLong(1), resultSet.getLong(2));
+			}
+		}
+	}
+}
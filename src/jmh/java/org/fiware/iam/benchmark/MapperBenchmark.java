@@ -0,0 +1,76 @@
+package org.fiware.iam.benchmark;
+
+import org.fiware.iam.TILMapper;
+import org.fiware.iam.TILMapperImpl;
+import org.fiware.iam.TIRMapper;
+import org.fiware.iam.TIRMapperImpl;
+import org.fiware.iam.repository.TrustedIssuer;
+import org.fiware.iam.til.model.TrustedIssuerVO;
+import org.fiware.iam.tir.model.IssuerVO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the mapping between the api models and the entities, as done on every read and write of an issuer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+	@Param({"1", "10", "100"})
+	public int numberOfCredentials;
+
+	@Param({"1", "50"})
+	public int numberOfValues;
+
+	private final TILMapper tilMapper = new TILMapperImpl();
+	private final TIRMapper tirMapper = new TIRMapperImpl();
+
+	private TrustedIssuerVO trustedIssuerVO;
+	private TrustedIssuer trustedIssuer;
+	private TrustedIssuer trustedIssuerWithAttributes;
+
+	@Setup
+	public void setUp() {
+		trustedIssuerVO = IssuerFixtures.issuer("did:elsi:benchmark", numberOfCredentials, numberOfValues);
+		trustedIssuer = tilMapper.map(trustedIssuerVO);
+		trustedIssuerWithAttributes = tilMapper.map(trustedIssuerVO);
+		trustedIssuerWithAttributes.getCredentials().forEach(tirMapper::withAttribute);
+	}
+
+	@Benchmark
+	public TrustedIssuer tilToEntity() {
+		return tilMapper.map(trustedIssuerVO);
+	}
+
+	@Benchmark
+	public TrustedIssuerVO tilFromEntity() {
+		return tilMapper.map(trustedIssuer);
+	}
+
+	// credentials without precomputed attributes are encoded and hashed on every read
+	@Benchmark
+	public IssuerVO tirFromEntity() {
+		return tirMapper.map(trustedIssuer);
+	}
+
+	@Benchmark
+	public IssuerVO tirFromEntityWithAttributes() {
+		return tirMapper.map(trustedIssuerWithAttributes);
+	}
+}
@@ -7,6 +7,8 @@ import com.fasterxml.jackson.databind.ObjectWriter;
 import org.fiware.iam.repository.Credential;
 import org.fiware.iam.repository.Claim;
 import org.fiware.iam.repository.ClaimValue;
+import org.fiware.iam.repository.ClaimValueType;
+import org.fiware.iam.repository.IssuerChange;
 import org.fiware.iam.repository.TrustedIssuer;
 import org.fiware.iam.til.model.*;
 import org.mapstruct.Mapper;
@@ -40,6 +42,8 @@ public interface TILMapper {
 	@Mapping(target = "validFor.to", source = "validTo")
 	CredentialsVO map(Credential credential);
 
+	IssuerChangeVO map(IssuerChange issuerChange);
+
 	default ClaimVO map(Claim claim) {
 		return new ClaimVO()
 				.name(claim.getName())
@@ -58,40 +62,24 @@ public interface TILMapper {
 				.setClaimValues(
 						claimVO.getAllowedValues().stream().map(value -> {
 									try {
-										return OBJECT_WRITER.writeValueAsString(value);
+										return new ClaimValue()
+												.setValue(OBJECT_WRITER.writeValueAsString(value))
+												.setValueType(ClaimValueType.of(value));
 									} catch (JsonProcessingException e) {
 										LOGGER.warn("Was not able to serialize the claim value {}. Will skip it.", value, e);
 										return null;
 									}
 								})
 								.filter(Objects::nonNull)
-								.map(valueString -> new ClaimValue().setValue(valueString))
 								.toList());
 	}
 
-	// in order to also properly read primitives(string,number,boolean) we try to read the value as such first and
-	// ignore potential exceptions and read it as an object just as a last step.
+	// the type is stored together with the value, thus it can be read with a single parse
 	static Object readToObject(ClaimValue claimValue) {
-		LOGGER.debug("Try to read the claimValue {} to its proper object representation.", claimValue);
-		try {
-			return OBJECT_READER.readValue(claimValue.getValue(), Number.class);
-		} catch (IOException ignored) {
-			LOGGER.debug("Given value is not a number, try next type.");
-		}
-		try {
-			return OBJECT_READER.readValue(claimValue.getValue(), String.class);
-		} catch (IOException ignored) {
-			LOGGER.debug("Given value is not a string, try next type.");
-		}
-		try {
-			return OBJECT_READER.readValue(claimValue.getValue(), Boolean.class);
-		} catch (IOException ignored) {
-			LOGGER.debug("Given value is not a boolean, try next type.");
-		}
 		try {
-			return OBJECT_READER.readValue(claimValue.getValue(), Object.class);
+			return OBJECT_READER.readValue(claimValue.getValue(), claimValue.getValueType().getJavaType());
 		} catch (IOException e) {
-			LOGGER.warn("Was not able to read the claimValue {} to an object. Will return null.", claimValue, e);
+			LOGGER.warn("Was not able to read the claimValue {} to its type. Will return null.", claimValue, e);
 			return null;
 		}
 	}
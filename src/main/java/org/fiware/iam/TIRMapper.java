@@ -14,6 +14,7 @@ import org.fiware.iam.tir.model.IssuerAttributeVO;
 import org.fiware.iam.tir.model.IssuerVO;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import org.mapstruct.Named;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -21,6 +22,7 @@ import java.security.MessageDigest;
 import java.util.Base64;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.logging.LogManager;
 
 /**
@@ -54,13 +56,49 @@ public interface TIRMapper {
 		List<IssuerAttributeVO> issuerAttributeVOS = trustedIssuer
 				.getCredentials()
 				.stream()
-				.map(this::map)
-				.map(this::map)
+				.map(this::toAttribute)
 				.toList();
 		issuerVO.attributes(issuerAttributeVOS);
 		return issuerVO;
 	}
 
+	/**
+	 * Returns the attribute for the given credential. The precomputed body and hash are used if available, only
+	 * credentials without them are encoded on the fly.
+	 */
+	default IssuerAttributeVO toAttribute(Credential credential) {
+		if (credential.getAttributeBody() != null && credential.getAttributeHash() != null) {
+			return new IssuerAttributeVO()
+					.issuerType(IssuerAttributeVO.IssuerType.UNDEFINED)
+					.body(credential.getAttributeBody())
+					.hash(credential.getAttributeHash());
+		}
+		return map(map(credential));
+	}
+
+	/**
+	 * Computes the attribute body and hash of the given credential and stores them at the credential. Has to be
+	 * called whenever a credential is written, so that reads can return the stored values.
+	 */
+	// named, so that mapstruct does not pick it, or withAttributes, as a mapping for properties of the same type
+	@Named("withAttribute")
+	default Credential withAttribute(Credential credential) {
+		IssuerAttributeVO issuerAttributeVO = map(map(credential));
+		return credential
+				.setAttributeBody(issuerAttributeVO.getBody())
+				.setAttributeHash(issuerAttributeVO.getHash());
+	}
+
+	/**
+	 * Computes the attributes of all credentials of the given issuer, see {@link #withAttribute(Credential)}.
+	 */
+	@Named("withAttributes")
+	default TrustedIssuer withAttributes(TrustedIssuer trustedIssuer) {
+		Optional.ofNullable(trustedIssuer.getCredentials())
+				.ifPresent(credentials -> credentials.forEach(this::withAttribute));
+		return trustedIssuer;
+	}
+
 	default IssuerAttributeVO map(CredentialsVO credentialsVO) {
 		IssuerAttributeVO issuerAttributeVO = new IssuerAttributeVO();
 		issuerAttributeVO.issuerType(IssuerAttributeVO.IssuerType.UNDEFINED);
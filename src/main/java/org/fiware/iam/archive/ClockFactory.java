@@ -0,0 +1,18 @@
+package org.fiware.iam.archive;
+
+import io.micronaut.context.annotation.Factory;
+import jakarta.inject.Singleton;
+
+import java.time.Clock;
+
+/**
+ * Provides the clock the expiry of credentials is checked against, so that it can be replaced in tests.
+ */
+@Factory
+public class ClockFactory {
+
+	@Singleton
+	public Clock clock() {
+		return Clock.systemUTC();
+	}
+}
@@ -0,0 +1,162 @@
+package org.fiware.iam.archive;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micronaut.context.event.ApplicationEventPublisher;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.data.model.Pageable;
+import io.micronaut.data.model.Sort;
+import io.micronaut.transaction.TransactionOperations;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import org.fiware.iam.changes.IssuerChangeLog;
+import org.fiware.iam.configuration.CredentialArchiveConfig;
+import org.fiware.iam.event.IssuerChangedEvent;
+import org.fiware.iam.repository.CredentialRepository;
+
+import java.sql.Connection;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves credentials that expired longer than the grace period ago, together with their claims and values, into the
+ * archive tables. Credentials are archived in batches of their own transactions with a pause in between, so that the
+ * archiving does not hold locks or connections for long. Every issuer that lost credentials is recorded as updated,
+ * thus the caches of this and all other instances drop the archived credentials.
+ */
+@Slf4j
+@Singleton
+public class CredentialArchiver {
+
+	public static final String ARCHIVED_COUNTER = "credential.archive.credentials";
+	public static final String BATCH_TIMER = "credential.archive.batch";
+	public static final String LAG_GAUGE = "credential.archive.lag";
+
+	private static final Sort VALID_TO_ASCENDING = Sort.of(Sort.Order.asc("validTo"));
+
+	private final CredentialRepository credentialRepository;
+	private final IssuerChangeLog issuerChangeLog;
+	private final ApplicationEventPublisher<IssuerChangedEvent> eventPublisher;
+	private final TransactionOperations<Connection> transactionOperations;
+	private final CredentialArchiveConfig archiveConfig;
+	private final Clock clock;
+	@Nullable
+	private final Counter archivedCounter;
+	@Nullable
+	private final Timer batchTimer;
+
+	// seconds the oldest credential that is due is overdue, not known before the first run
+	private volatile double lag = Double.NaN;
+
+	public CredentialArchiver(CredentialRepository credentialRepository, IssuerChangeLog issuerChangeLog,
+			ApplicationEventPublisher<IssuerChangedEvent> eventPublisher,
+			TransactionOperations<Connection> transactionOperations, CredentialArchiveConfig archiveConfig, Clock clock,
+			@Nullable MeterRegistry meterRegistry) {
+		this.credentialRepository = credentialRepository;
+		this.issuerChangeLog = issuerChangeLog;
+		this.eventPublisher = eventPublisher;
+		this.transactionOperations = transactionOperations;
+		this.archiveConfig = archiveConfig;
+		this.clock = clock;
+		if (meterRegistry == null || !archiveConfig.isEnabled()) {
+			this.archivedCounter = null;
+			this.batchTimer = null;
+			return;
+		}
+		this.archivedCounter = Counter.builder(ARCHIVED_COUNTER)
+				.description("Expired credentials moved into the archive.")
+				.register(meterRegistry);
+		this.batchTimer = Timer.builder(BATCH_TIMER)
+				.description("Time to archive a batch of expired credentials.")
+				.register(meterRegistry);
+		Gauge.builder(LAG_GAUGE, this, archiver -> archiver.lag)
+				.description("Time the oldest credential that is due for the archive is overdue.")
+				.baseUnit("seconds")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Archive the credentials that expired before the grace period, in at most the configured number of batches.
+	 *
+	 * @return number of archived credentials
+	 */
+	public int archiveExpired() {
+		if (!archiveConfig.isEnabled()) {
+			return 0;
+		}
+		Instant expiredBefore = clock.instant().minus(archiveConfig.getGracePeriod());
+		int batchSize = archiveConfig.getBatchSize();
+		int archived = 0;
+		for (int batch = 0; batch < archiveConfig.getMaxBatches(); batch++) {
+			if (batch > 0 && !pause()) {
+				break;
+			}
+			long start = System.nanoTime();
+			ArchivedBatch archivedBatch = transactionOperations.executeWrite(
+					status -> archiveBatch(expiredBefore, batchSize));
+			// events are published after the commit, so that readers will not find the archived credentials anymore
+			archivedBatch.dids().forEach(did ->
+					eventPublisher.publishEvent(new IssuerChangedEvent(did, IssuerChangedEvent.ChangeType.UPDATED)));
+			archived += archivedBatch.archived();
+			if (batchTimer != null) {
+				batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+				archivedCounter.increment(archivedBatch.archived());
+			}
+			if (archivedBatch.candidates() < batchSize) {
+				break;
+			}
+		}
+		updateLag(expiredBefore);
+		if (archived > 0) {
+			log.info("Archived {} credentials that expired before {}.", archived, expiredBefore);
+		}
+		return archived;
+	}
+
+	// the changes are recorded before the credentials are read again, which serializes the batch with all writers
+	private ArchivedBatch archiveBatch(Instant expiredBefore, int batchSize) {
+		List<Integer> candidates = credentialRepository.findIdByValidToLessThan(expiredBefore,
+				Pageable.from(0, batchSize, VALID_TO_ASCENDING));
+		if (candidates.isEmpty()) {
+			return new ArchivedBatch(0, 0, List.of());
+		}
+		List<String> dids = credentialRepository.findTrustedIssuerDidByIdIn(candidates);
+		issuerChangeLog.record(dids.stream()
+				.map(did -> new IssuerChangedEvent(did, IssuerChangedEvent.ChangeType.UPDATED))
+				.toList());
+		// credentials might have been extended or deleted while they were read
+		List<Integer> ids = credentialRepository.findIdByIdInAndValidToLessThan(candidates, expiredBefore);
+		if (!ids.isEmpty()) {
+			credentialRepository.archiveClaimValues(ids);
+			credentialRepository.archiveClaims(ids);
+			credentialRepository.archiveCredentials(ids);
+			credentialRepository.deleteByIdIn(ids);
+		}
+		return new ArchivedBatch(candidates.size(), ids.size(), dids);
+	}
+
+	private boolean pause() {
+		try {
+			Thread.sleep(archiveConfig.getBatchPause());
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	private void updateLag(Instant expiredBefore) {
+		Instant oldestValidTo = credentialRepository.findMinValidTo();
+		lag = oldestValidTo == null || !oldestValidTo.isBefore(expiredBefore)
+				? 0
+				: Duration.between(oldestValidTo, expiredBefore).toSeconds();
+	}
+
+	private record ArchivedBatch(int candidates, int archived, List<String> dids) {
+	}
+}
@@ -0,0 +1,33 @@
+package org.fiware.iam.cache;
+
+import io.micronaut.core.annotation.Nullable;
+import org.fiware.iam.repository.Credential;
+
+import java.time.Instant;
+
+/**
+ * Validity of the credential an issuer attribute was built from. Both bounds are inclusive, open bounds are null.
+ *
+ * @param validFrom start of the validity
+ * @param validTo   end of the validity
+ */
+public record AttributeValidity(@Nullable Instant validFrom, @Nullable Instant validTo) {
+
+	/**
+	 * @param credential the attribute is built from
+	 * @return validity of the credential
+	 */
+	public static AttributeValidity of(Credential credential) {
+		return new AttributeValidity(credential.getValidFrom(), credential.getValidTo());
+	}
+
+	/**
+	 * Check if the attribute is valid at the given time, the same way as the database filters the credentials.
+	 *
+	 * @param validAt time to check
+	 * @return true if valid
+	 */
+	public boolean isValidAt(Instant validAt) {
+		return (validFrom == null || !validAt.isBefore(validFrom)) && (validTo == null || !validAt.isAfter(validTo));
+	}
+}
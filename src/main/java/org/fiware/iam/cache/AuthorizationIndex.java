@@ -0,0 +1,210 @@
+package org.fiware.iam.cache;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.data.model.Pageable;
+import io.micronaut.data.model.Sort;
+import io.micronaut.runtime.event.annotation.EventListener;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import org.fiware.iam.changes.IssuerChangeLog;
+import org.fiware.iam.configuration.AuthorizationIndexConfig;
+import org.fiware.iam.event.IssuerChangedEvent;
+import org.fiware.iam.repository.Credential;
+import org.fiware.iam.repository.CredentialRepository;
+import org.fiware.iam.repository.IssuerChange;
+import org.fiware.iam.repository.RegistryVersionRepository;
+import org.fiware.iam.repository.TrustedIssuerRepository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Index of the credential types and validities of all issuers, to check if an issuer may issue a credential type at a
+ * given time without querying the database. The index is built from all credentials and the issuers changed through
+ * this instance are read again as soon as their change is published, which happens after the change was committed,
+ * thus changes that are rolled back never reach the index. Changes through other instances are read from the change
+ * log whenever the index is synced. Until the index is built, no answer is available and the authorization has to be
+ * checked against the database.
+ */
+@Slf4j
+@Singleton
+public class AuthorizationIndex {
+
+	private static final Sort DID_ASCENDING = Sort.of(Sort.Order.asc("did"));
+
+	private final TrustedIssuerRepository trustedIssuerRepository;
+	private final CredentialRepository credentialRepository;
+	private final RegistryVersionRepository registryVersionRepository;
+	private final IssuerChangeLog issuerChangeLog;
+	private final AuthorizationIndexConfig indexConfig;
+
+	// issuers without credentials are not indexed
+	@Nullable
+	private volatile Map<String, IssuerGrants> index;
+	// receives the issuers changed while a new index is built, so that they are not lost when it replaces the current
+	// one
+	@Nullable
+	private volatile Map<String, IssuerGrants> building;
+	// sequence number of the last change contained in the index
+	private volatile long syncedVersion;
+	private volatile long builtAt;
+
+	public AuthorizationIndex(TrustedIssuerRepository trustedIssuerRepository,
+			CredentialRepository credentialRepository, RegistryVersionRepository registryVersionRepository,
+			IssuerChangeLog issuerChangeLog, AuthorizationIndexConfig indexConfig,
+			@Nullable MeterRegistry meterRegistry) {
+		this.trustedIssuerRepository = trustedIssuerRepository;
+		this.credentialRepository = credentialRepository;
+		this.registryVersionRepository = registryVersionRepository;
+		this.issuerChangeLog = issuerChangeLog;
+		this.indexConfig = indexConfig;
+		if (meterRegistry != null && indexConfig.isEnabled()) {
+			Gauge.builder("authorization.index.issuers", this, authorizationIndex -> {
+						Map<String, IssuerGrants> currentIndex = authorizationIndex.index;
+						return currentIndex == null ? Double.NaN : currentIndex.size();
+					})
+					.description("Issuers with credentials held by the authorization index.")
+					.register(meterRegistry);
+		}
+	}
+
+	/**
+	 * Check if the issuer holds a credential of the given type that is valid at the given time.
+	 *
+	 * @param did             of the issuer
+	 * @param credentialsType type of the credential
+	 * @param validAt         time to check
+	 * @return the answer of the index, empty if the index is not available
+	 */
+	public Optional<Boolean> isAuthorized(String did, String credentialsType, Instant validAt) {
+		Map<String, IssuerGrants> currentIndex = index;
+		if (currentIndex == null) {
+			return Optional.empty();
+		}
+		IssuerGrants issuerGrants = currentIndex.get(did);
+		return Optional.of(issuerGrants != null && issuerGrants.allows(credentialsType, validAt));
+	}
+
+	/**
+	 * Check the authorization against the credentials of the issuer, as done by the index.
+	 *
+	 * @param credentials     of the issuer, without their claims
+	 * @param credentialsType type of the credential
+	 * @param validAt         time to check
+	 * @return true if one of the credentials is of the type and valid at the time
+	 */
+	public static boolean isAuthorized(Collection<Credential> credentials, String credentialsType, Instant validAt) {
+		return IssuerGrants.of(credentials).allows(credentialsType, validAt);
+	}
+
+	/**
+	 * Bring the index up-to-date with the change log. The index is built from all issuers if it does not exist yet or
+	 * is due for a rebuild.
+	 */
+	public synchronized void sync() {
+		if (!indexConfig.isEnabled()) {
+			return;
+		}
+		Map<String, IssuerGrants> currentIndex = index;
+		if (currentIndex == null || System.nanoTime() - builtAt > indexConfig.getRebuildInterval().toNanos()) {
+			build();
+		} else {
+			catchUp(currentIndex);
+		}
+	}
+
+	@EventListener
+	public void onIssuerChanged(IssuerChangedEvent issuerChangedEvent) {
+		Map<String, IssuerGrants> currentIndex = index;
+		Map<String, IssuerGrants> buildingIndex = building;
+		if (currentIndex == null && buildingIndex == null) {
+			return;
+		}
+		List<String> changedDids = List.of(issuerChangedEvent.did());
+		Map<String, IssuerGrants> changedGrants = issuerChangedEvent.changeType() == IssuerChangedEvent.ChangeType.DELETED
+				? Map.of()
+				: readGrants(changedDids);
+		if (currentIndex != null) {
+			apply(currentIndex, changedDids, changedGrants);
+		}
+		if (buildingIndex != null) {
+			apply(buildingIndex, changedDids, changedGrants);
+		}
+	}
+
+	// the version is read before the credentials, thus all changes that are not contained are read by the catch-up
+	private void build() {
+		long start = System.nanoTime();
+		long version = registryVersionRepository.findVersionById(RegistryVersionRepository.REGISTRY_VERSION_ID)
+				.orElse(0L);
+		Map<String, IssuerGrants> newIndex = new ConcurrentHashMap<>();
+		building = newIndex;
+		try {
+			int batchSize = indexConfig.getBatchSize();
+			String anchor = "";
+			List<String> dids;
+			do {
+				dids = trustedIssuerRepository.findDidByDidGreaterThan(anchor,
+						Pageable.from(0, batchSize, DID_ASCENDING));
+				// issuers changed in the meantime were already read by the event listener
+				readGrants(dids).forEach(newIndex::putIfAbsent);
+				if (!dids.isEmpty()) {
+					anchor = dids.getLast();
+				}
+			} while (dids.size() == batchSize);
+			syncedVersion = version;
+			catchUp(newIndex);
+			index = newIndex;
+		} finally {
+			building = null;
+		}
+		builtAt = System.nanoTime();
+		log.info("Built the authorization index of {} issuers in {} ms.", newIndex.size(),
+				(System.nanoTime() - start) / 1_000_000);
+	}
+
+	private void catchUp(Map<String, IssuerGrants> authorizationIndex) {
+		int batchSize = indexConfig.getBatchSize();
+		List<IssuerChange> changes;
+		do {
+			changes = issuerChangeLog.getChangesSince(syncedVersion, batchSize);
+			List<String> changedDids = changes.stream().map(IssuerChange::getDid).distinct().toList();
+			if (!changedDids.isEmpty()) {
+				apply(authorizationIndex, changedDids, readGrants(changedDids));
+				syncedVersion = changes.getLast().getSequenceNumber();
+			}
+		} while (changes.size() == batchSize);
+	}
+
+	// issuers that are missing in the grants are removed from the index
+	private static void apply(Map<String, IssuerGrants> authorizationIndex, Collection<String> dids,
+			Map<String, IssuerGrants> grants) {
+		dids.forEach(did -> {
+			IssuerGrants issuerGrants = grants.get(did);
+			if (issuerGrants == null) {
+				authorizationIndex.remove(did);
+			} else {
+				authorizationIndex.put(did, issuerGrants);
+			}
+		});
+	}
+
+	private Map<String, IssuerGrants> readGrants(List<String> dids) {
+		if (dids.isEmpty()) {
+			return Map.of();
+		}
+		return credentialRepository.findByTrustedIssuerDidInOrderById(dids)
+				.stream()
+				.collect(Collectors.groupingBy(credential -> credential.getTrustedIssuer().getDid()))
+				.entrySet()
+				.stream()
+				.collect(Collectors.toMap(Map.Entry::getKey, entry -> IssuerGrants.of(entry.getValue())));
+	}
+}
@@ -0,0 +1,16 @@
+package org.fiware.iam.cache;
+
+import org.fiware.iam.tir.model.IssuerVO;
+
+import java.util.List;
+
+/**
+ * A mapped issuer, together with the entity tag of its representation. The validities of the attributes are kept, so
+ * that the attributes valid at the time of a request can be selected without reading the credentials again.
+ *
+ * @param issuer     the mapped issuer
+ * @param entityTag  strong entity tag of the issuer
+ * @param validities validity of every attribute, in the order of the attributes
+ */
+public record CachedIssuer(IssuerVO issuer, String entityTag, List<AttributeValidity> validities) {
+}
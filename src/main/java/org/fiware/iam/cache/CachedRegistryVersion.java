@@ -0,0 +1,99 @@
+package org.fiware.iam.cache;
+
+import io.micronaut.runtime.event.annotation.EventListener;
+import jakarta.inject.Singleton;
+import lombok.RequiredArgsConstructor;
+import org.fiware.iam.configuration.RegistryVersionConfig;
+import org.fiware.iam.event.IssuerChangedEvent;
+import org.fiware.iam.repository.RegistryVersionRepository;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cached version of the registry. The version is incremented in the database with every change to the issuers, the
+ * cached value is dropped on changes through this instance and read again once it's older than the configured
+ * staleness bound.
+ */
+@Singleton
+@RequiredArgsConstructor
+public class CachedRegistryVersion {
+
+	private static final long NOT_READ = -1;
+
+	private final RegistryVersionRepository registryVersionRepository;
+	private final RegistryVersionConfig versionConfig;
+
+	private final AtomicLong version = new AtomicLong(NOT_READ);
+	private final Lock readLock = new ReentrantLock();
+	private volatile long readAt;
+
+	/**
+	 * Return the version of the registry, reading it from the database in case the cached value is outdated.
+	 *
+	 * @return the current version
+	 */
+	public long get() {
+		long currentVersion = version.get();
+		if (currentVersion != NOT_READ && !isStale()) {
+			return currentVersion;
+		}
+		return read();
+	}
+
+	/**
+	 * Reactive variant of {@link #get()}, reading the version through the given publisher in case the cached value is
+	 * outdated. Concurrent requests with an outdated value do not wait for each other, thus each of them reads.
+	 *
+	 * @param reading publisher of the current value
+	 * @return the cached or the current value
+	 */
+	public Mono<Long> get(Mono<Long> reading) {
+		long currentVersion = version.get();
+		if (currentVersion != NOT_READ && !isStale()) {
+			return Mono.just(currentVersion);
+		}
+		return reading.doOnNext(value -> {
+			readAt = System.nanoTime();
+			version.set(value);
+		});
+	}
+
+	/**
+	 * Drop the cached value, the next request will read the version again.
+	 */
+	public void invalidate() {
+		version.set(NOT_READ);
+	}
+
+	@EventListener
+	public void onIssuerChanged(IssuerChangedEvent issuerChangedEvent) {
+		invalidate();
+	}
+
+	private boolean isStale() {
+		return System.nanoTime() - readAt > versionConfig.getMaxStaleness().toNanos();
+	}
+
+	// only one request at a time should read, the others will get the fresh value afterward, virtual threads waiting
+	// for the lock are unmounted from their carrier
+	private long read() {
+		readLock.lock();
+		try {
+			long currentVersion = version.get();
+			if (currentVersion != NOT_READ && !isStale()) {
+				return currentVersion;
+			}
+			long readVersion = registryVersionRepository
+					.findVersionById(RegistryVersionRepository.REGISTRY_VERSION_ID)
+					.orElse(0L);
+			readAt = System.nanoTime();
+			version.set(readVersion);
+			return readVersion;
+		} finally {
+			readLock.unlock();
+		}
+	}
+}
@@ -0,0 +1,152 @@
+package org.fiware.iam.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter of dids, backed by a fixed array of bits. Dids can be added concurrently to reads, but not removed.
+ * The bit positions are derived from two 64-bit hashes of the did through enhanced double hashing.
+ */
+final class DidBloomFilter {
+
+	private static final double LN2 = Math.log(2);
+	private static final int MAX_HASH_FUNCTIONS = 16;
+	private static final long MAX_WORDS = Integer.MAX_VALUE - 8;
+
+	private final AtomicLongArray words;
+	private final long bitCount;
+	private final int hashFunctions;
+	private final AtomicLong setBits = new AtomicLong();
+
+	private DidBloomFilter(int wordCount, int hashFunctions) {
+		this.words = new AtomicLongArray(wordCount);
+		this.bitCount = (long) wordCount * Long.SIZE;
+		this.hashFunctions = hashFunctions;
+	}
+
+	/**
+	 * Create a filter with the optimal number of bits and hash functions for the given number of dids and false
+	 * positive rate. If the filter would exceed the given memory, it is created with less bits and thus a higher false
+	 * positive rate.
+	 *
+	 * @param expectedDids      number of dids to be added
+	 * @param falsePositiveRate targeted probability of an absent did to be reported as contained
+	 * @param maxMemory         maximum size of the bit array, in bytes
+	 * @return the empty filter
+	 */
+	static DidBloomFilter create(long expectedDids, double falsePositiveRate, long maxMemory) {
+		if (expectedDids < 1) {
+			throw new IllegalArgumentException("The filter has to expect at least one did.");
+		}
+		if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+			throw new IllegalArgumentException("The false positive rate has to be between 0 and 1.");
+		}
+		if (maxMemory < Long.BYTES) {
+			throw new IllegalArgumentException("The filter requires at least one word of memory.");
+		}
+		double optimalBits = -expectedDids * Math.log(falsePositiveRate) / (LN2 * LN2);
+		long wordCount = Math.min((long) Math.ceil(optimalBits / Long.SIZE), maxMemory / Long.BYTES);
+		wordCount = Math.clamp(wordCount, 1, MAX_WORDS);
+		// the optimal number of hash functions depends on the actual size, which might have been reduced
+		long hashFunctions = Math.round((double) wordCount * Long.SIZE / expectedDids * LN2);
+		return new DidBloomFilter((int) wordCount, (int) Math.clamp(hashFunctions, 1, MAX_HASH_FUNCTIONS));
+	}
+
+	/**
+	 * Add the did to the filter.
+	 *
+	 * @param did to add
+	 */
+	void put(String did) {
+		long hash1 = hash(did);
+		long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L);
+		for (int i = 0; i < hashFunctions; i++) {
+			long bit = Math.floorMod(hash1, bitCount);
+			int wordIndex = (int) (bit >>> 6);
+			long mask = 1L << bit;
+			long word = words.get(wordIndex);
+			while ((word & mask) == 0) {
+				long witness = words.compareAndExchange(wordIndex, word, word | mask);
+				if (witness == word) {
+					setBits.incrementAndGet();
+					break;
+				}
+				word = witness;
+			}
+			hash1 += hash2;
+			hash2 += i;
+		}
+	}
+
+	/**
+	 * Check if the did might have been added. Dids that were added are always reported, dids that were not added are
+	 * reported with the false positive rate.
+	 *
+	 * @param did to check
+	 * @return false if the did was certainly not added
+	 */
+	boolean mightContain(String did) {
+		long hash1 = hash(did);
+		long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L);
+		for (int i = 0; i < hashFunctions; i++) {
+			long bit = Math.floorMod(hash1, bitCount);
+			if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+				return false;
+			}
+			hash1 += hash2;
+			hash2 += i;
+		}
+		return true;
+	}
+
+	/**
+	 * Estimate the current false positive rate from the share of set bits.
+	 *
+	 * @return the probability of an absent did to be reported as contained
+	 */
+	double getFalsePositiveRate() {
+		return Math.pow((double) setBits.get() / bitCount, hashFunctions);
+	}
+
+	/**
+	 * Estimate the number of added dids from the share of set bits.
+	 *
+	 * @return the approximate number of dids
+	 */
+	long getApproximateSize() {
+		double unsetShare = 1 - (double) setBits.get() / bitCount;
+		if (unsetShare <= 0) {
+			return Long.MAX_VALUE;
+		}
+		return Math.round(-(double) bitCount / hashFunctions * Math.log(unsetShare));
+	}
+
+	/**
+	 * @return size of the bit array, in bytes
+	 */
+	long getMemory() {
+		return bitCount / Byte.SIZE;
+	}
+
+	// 64-bit FNV-1a over the utf-8 bytes, finalized to spread the bits
+	private static long hash(String did) {
+		long hash = 0xCBF29CE484222325L;
+		for (byte b : did.getBytes(StandardCharsets.UTF_8)) {
+			hash ^= b;
+			hash *= 0x100000001B3L;
+		}
+		return mix(hash);
+	}
+
+	// finalizer of murmur3
+	private static long mix(long value) {
+		long mixed = value;
+		mixed ^= mixed >>> 33;
+		mixed *= 0xFF51AFD7ED558CCDL;
+		mixed ^= mixed >>> 33;
+		mixed *= 0xC4CEB93FE1A85B53L;
+		mixed ^= mixed >>> 33;
+		return mixed;
+	}
+}
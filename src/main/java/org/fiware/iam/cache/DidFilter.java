@@ -0,0 +1,179 @@
+package org.fiware.iam.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.data.model.Pageable;
+import io.micronaut.data.model.Sort;
+import io.micronaut.runtime.event.annotation.EventListener;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import org.fiware.iam.changes.IssuerChangeLog;
+import org.fiware.iam.configuration.DidFilterConfig;
+import org.fiware.iam.event.IssuerChangedEvent;
+import org.fiware.iam.repository.IssuerChange;
+import org.fiware.iam.repository.RegistryVersionRepository;
+import org.fiware.iam.repository.TrustedIssuerRepository;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Filter of all registered dids, to answer requests for unknown issuers without querying the database. The filter is
+ * built from all issuers and kept up-to-date with the changes published by this instance. Changes through other
+ * instances are read from the change log whenever the filter is synced. Deleted dids stay in the filter until it is
+ * built again. Until the filter is built, all dids pass.
+ */
+@Slf4j
+@Singleton
+public class DidFilter {
+
+	private static final Sort DID_ASCENDING = Sort.of(Sort.Order.asc("did"));
+
+	private final TrustedIssuerRepository trustedIssuerRepository;
+	private final RegistryVersionRepository registryVersionRepository;
+	private final IssuerChangeLog issuerChangeLog;
+	private final DidFilterConfig filterConfig;
+	@Nullable
+	private final Counter rejections;
+
+	@Nullable
+	private volatile DidBloomFilter filter;
+	// receives the dids changed while a new filter is built, so that they are not lost when it replaces the current one
+	@Nullable
+	private volatile DidBloomFilter building;
+	// sequence number of the last change contained in the filter
+	private volatile long syncedVersion;
+	private volatile long builtAt;
+	private volatile long capacity;
+
+	public DidFilter(TrustedIssuerRepository trustedIssuerRepository,
+			RegistryVersionRepository registryVersionRepository, IssuerChangeLog issuerChangeLog,
+			DidFilterConfig filterConfig, @Nullable MeterRegistry meterRegistry) {
+		this.trustedIssuerRepository = trustedIssuerRepository;
+		this.registryVersionRepository = registryVersionRepository;
+		this.issuerChangeLog = issuerChangeLog;
+		this.filterConfig = filterConfig;
+		if (meterRegistry == null || !filterConfig.isEnabled()) {
+			this.rejections = null;
+			return;
+		}
+		this.rejections = Counter.builder("did.filter.rejections")
+				.description("Requests for unknown dids answered without querying the database.")
+				.register(meterRegistry);
+		registerGauge(meterRegistry, "did.filter.memory", "bytes", DidBloomFilter::getMemory);
+		registerGauge(meterRegistry, "did.filter.dids", null, DidBloomFilter::getApproximateSize);
+		registerGauge(meterRegistry, "did.filter.false.positive.rate", null, DidBloomFilter::getFalsePositiveRate);
+		Gauge.builder("did.filter.false.positive.rate.target", filterConfig, DidFilterConfig::getFalsePositiveRate)
+				.register(meterRegistry);
+	}
+
+	private void registerGauge(MeterRegistry meterRegistry, String name, @Nullable String baseUnit,
+			ToDoubleFunction<DidBloomFilter> value) {
+		Gauge.builder(name, this, didFilter -> {
+					DidBloomFilter currentFilter = didFilter.filter;
+					return currentFilter == null ? Double.NaN : value.applyAsDouble(currentFilter);
+				})
+				.baseUnit(baseUnit)
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Check if an issuer with the given did might exist.
+	 *
+	 * @param did of the issuer
+	 * @return false if the issuer certainly does not exist
+	 */
+	public boolean mightContain(String did) {
+		DidBloomFilter currentFilter = filter;
+		if (currentFilter == null || currentFilter.mightContain(did)) {
+			return true;
+		}
+		if (rejections != null) {
+			rejections.increment();
+		}
+		return false;
+	}
+
+	/**
+	 * Bring the filter up-to-date with the change log. The filter is built from all issuers if it does not exist yet,
+	 * is due for a rebuild or holds more dids than it was sized for.
+	 */
+	public synchronized void sync() {
+		if (!filterConfig.isEnabled()) {
+			return;
+		}
+		DidBloomFilter currentFilter = filter;
+		if (currentFilter == null
+				|| System.nanoTime() - builtAt > filterConfig.getRebuildInterval().toNanos()
+				|| currentFilter.getApproximateSize() > capacity) {
+			build();
+		} else {
+			catchUp(currentFilter);
+		}
+	}
+
+	@EventListener
+	public void onIssuerChanged(IssuerChangedEvent issuerChangedEvent) {
+		if (issuerChangedEvent.changeType() == IssuerChangedEvent.ChangeType.DELETED) {
+			return;
+		}
+		DidBloomFilter currentFilter = filter;
+		if (currentFilter != null) {
+			currentFilter.put(issuerChangedEvent.did());
+		}
+		DidBloomFilter buildingFilter = building;
+		if (buildingFilter != null) {
+			buildingFilter.put(issuerChangedEvent.did());
+		}
+	}
+
+	// the version is read before the dids, thus all changes that are not contained are read by the catch-up
+	private void build() {
+		long start = System.nanoTime();
+		long version = registryVersionRepository.findVersionById(RegistryVersionRepository.REGISTRY_VERSION_ID)
+				.orElse(0L);
+		long expectedDids = Math.max(filterConfig.getExpectedDids(), 2 * trustedIssuerRepository.count());
+		DidBloomFilter newFilter = DidBloomFilter.create(expectedDids, filterConfig.getFalsePositiveRate(),
+				filterConfig.getMaxMemory());
+		building = newFilter;
+		try {
+			int batchSize = filterConfig.getBatchSize();
+			String anchor = "";
+			List<String> dids;
+			do {
+				dids = trustedIssuerRepository.findDidByDidGreaterThan(anchor,
+						Pageable.from(0, batchSize, DID_ASCENDING));
+				dids.forEach(newFilter::put);
+				if (!dids.isEmpty()) {
+					anchor = dids.getLast();
+				}
+			} while (dids.size() == batchSize);
+			syncedVersion = version;
+			catchUp(newFilter);
+			filter = newFilter;
+		} finally {
+			building = null;
+		}
+		builtAt = System.nanoTime();
+		capacity = expectedDids;
+		log.info("Built the did filter of {} bytes in {} ms.", newFilter.getMemory(),
+				(System.nanoTime() - start) / 1_000_000);
+	}
+
+	// deletions are not applied, the did might be created again before the filter is rebuilt
+	private void catchUp(DidBloomFilter didBloomFilter) {
+		int batchSize = filterConfig.getBatchSize();
+		List<IssuerChange> changes;
+		do {
+			changes = issuerChangeLog.getChangesSince(syncedVersion, batchSize);
+			changes.stream()
+					.filter(change -> change.getChangeType() != IssuerChangedEvent.ChangeType.DELETED)
+					.forEach(change -> didBloomFilter.put(change.getDid()));
+			if (!changes.isEmpty()) {
+				syncedVersion = changes.getLast().getSequenceNumber();
+			}
+		} while (changes.size() == batchSize);
+	}
+}
@@ -0,0 +1,206 @@
+package org.fiware.iam.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.runtime.event.annotation.EventListener;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import org.fiware.iam.configuration.IssuerCacheConfig;
+import org.fiware.iam.event.IssuerChangedEvent;
+import org.fiware.iam.tir.model.IssuerVO;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded read-through cache for the fully mapped {@link IssuerVO}s and their entity tags, keyed by their DID. Entries
+ * are evicted by size and age and are invalidated by every change to the issuer. Concurrent misses for the same issuer
+ * share a single load, also if the cache is disabled or the issuer does not exist.
+ */
+@Slf4j
+@Singleton
+public class IssuerCache {
+
+	public static final String CACHE_NAME = "issuers";
+
+	@Nullable
+	private final Cache<String, CachedIssuer> cache;
+	// counts the invalidations, so that issuers loaded reactively are not cached if they changed while being loaded
+	private final AtomicLong invalidations = new AtomicLong();
+	private final SingleFlight<String, Optional<CachedIssuer>> loads = new SingleFlight<>();
+	private final SingleFlight<String, CachedIssuer> reactiveLoads = new SingleFlight<>();
+
+	public IssuerCache(IssuerCacheConfig cacheConfig, @Nullable MeterRegistry meterRegistry) {
+		if (!cacheConfig.isEnabled()) {
+			log.info("The issuer cache is disabled.");
+			this.cache = null;
+			return;
+		}
+		Cache<String, CachedIssuer> issuerCache = Caffeine.newBuilder()
+				.maximumSize(cacheConfig.getMaximumSize())
+				.expireAfterWrite(cacheConfig.getExpireAfterWrite())
+				.recordStats()
+				.build();
+		if (meterRegistry != null) {
+			CaffeineCacheMetrics.monitor(meterRegistry, issuerCache, CACHE_NAME);
+		}
+		this.cache = issuerCache;
+	}
+
+	/**
+	 * Return the issuer from the cache or load it with the given function. Issuers that could not be found are not
+	 * cached. Concurrent misses for the same issuer wait for the load in flight instead of loading again.
+	 *
+	 * @param did    of the issuer
+	 * @param loader function to load the issuer in case of a cache miss
+	 * @return the issuer, if it exists
+	 */
+	public Optional<CachedIssuer> get(String did, Function<String, Optional<CachedIssuer>> loader) {
+		if (cache == null) {
+			return loads.load(did, loader);
+		}
+		CachedIssuer cachedIssuer = cache.getIfPresent(did);
+		if (cachedIssuer != null) {
+			return Optional.of(cachedIssuer);
+		}
+		// not loaded through the cache itself, since it would neither share the load of absent issuers nor release
+		// the lock of the key while loading
+		return loads.load(did, key -> {
+			long invalidationsBefore = invalidations.get();
+			Optional<CachedIssuer> loadedIssuer = loader.apply(key);
+			loadedIssuer.ifPresent(issuer -> {
+				if (invalidations.get() == invalidationsBefore) {
+					cache.put(key, issuer);
+				}
+			});
+			return loadedIssuer;
+		});
+	}
+
+	/**
+	 * Return multiple issuers from the cache, loading all missing issuers at once with the given function. Issuers that
+	 * could not be found are not cached, loaded issuers are only cached if no issuer was invalidated in the meantime.
+	 *
+	 * @param dids   of the issuers
+	 * @param loader function to load the missing issuers, returns only the existing ones
+	 * @return the existing issuers, by their did
+	 */
+	public Map<String, CachedIssuer> getAll(Collection<String> dids,
+			Function<Set<String>, Map<String, CachedIssuer>> loader) {
+		if (cache == null) {
+			return loader.apply(Set.copyOf(dids));
+		}
+		Map<String, CachedIssuer> cachedIssuers = new HashMap<>(cache.getAllPresent(dids));
+		Set<String> missingDids = getMissingDids(dids, cachedIssuers);
+		if (missingDids.isEmpty()) {
+			return cachedIssuers;
+		}
+		long invalidationsBefore = invalidations.get();
+		Map<String, CachedIssuer> loadedIssuers = loader.apply(missingDids);
+		if (invalidations.get() == invalidationsBefore) {
+			cache.putAll(loadedIssuers);
+		}
+		cachedIssuers.putAll(loadedIssuers);
+		return cachedIssuers;
+	}
+
+	/**
+	 * Reactive variant of {@link #getAll(Collection, Function)}, caching like
+	 * {@link #getReactive(String, Function)}.
+	 *
+	 * @param dids   of the issuers
+	 * @param loader function to load the missing issuers, emits only the existing ones
+	 * @return the existing issuers, by their did
+	 */
+	public Mono<Map<String, CachedIssuer>> getAllReactive(Collection<String> dids,
+			Function<Set<String>, Mono<Map<String, CachedIssuer>>> loader) {
+		if (cache == null) {
+			return loader.apply(Set.copyOf(dids));
+		}
+		Map<String, CachedIssuer> cachedIssuers = new HashMap<>(cache.getAllPresent(dids));
+		Set<String> missingDids = getMissingDids(dids, cachedIssuers);
+		if (missingDids.isEmpty()) {
+			return Mono.just(cachedIssuers);
+		}
+		long invalidationsBefore = invalidations.get();
+		return loader.apply(missingDids).map(loadedIssuers -> {
+			if (invalidations.get() == invalidationsBefore) {
+				cache.putAll(loadedIssuers);
+			}
+			cachedIssuers.putAll(loadedIssuers);
+			return cachedIssuers;
+		});
+	}
+
+	private static Set<String> getMissingDids(Collection<String> dids, Map<String, CachedIssuer> cachedIssuers) {
+		return dids.stream()
+				.filter(did -> !cachedIssuers.containsKey(did))
+				.collect(Collectors.toSet());
+	}
+
+	/**
+	 * Reactive variant of {@link #get(String, Function)}. Concurrent misses for the same issuer share a single
+	 * subscription to the loader, a loaded issuer is only cached if no issuer was invalidated in the meantime.
+	 *
+	 * @param did    of the issuer
+	 * @param loader function to load the issuer in case of a cache miss, empty if the issuer does not exist
+	 * @return the issuer, empty if it does not exist
+	 */
+	public Mono<CachedIssuer> getReactive(String did, Function<String, Mono<CachedIssuer>> loader) {
+		if (cache == null) {
+			return reactiveLoads.loadReactive(did, loader);
+		}
+		CachedIssuer cachedIssuer = cache.getIfPresent(did);
+		if (cachedIssuer != null) {
+			return Mono.just(cachedIssuer);
+		}
+		return reactiveLoads.loadReactive(did, key -> {
+			long invalidationsBefore = invalidations.get();
+			return loader.apply(key).doOnNext(loadedIssuer -> {
+				if (invalidations.get() == invalidationsBefore) {
+					cache.put(key, loadedIssuer);
+				}
+			});
+		});
+	}
+
+	/**
+	 * Remove the issuer from the cache, so that the next read reflects the current state. Reads arriving during a load
+	 * that was started before do not wait for it.
+	 *
+	 * @param did of the issuer
+	 */
+	public void invalidate(String did) {
+		loads.forget(did);
+		reactiveLoads.forget(did);
+		if (cache != null) {
+			invalidations.incrementAndGet();
+			cache.invalidate(did);
+		}
+	}
+
+	@EventListener
+	public void onIssuerChanged(IssuerChangedEvent issuerChangedEvent) {
+		invalidate(issuerChangedEvent.did());
+	}
+
+	/**
+	 * Remove all issuers from the cache.
+	 */
+	public void invalidateAll() {
+		if (cache != null) {
+			invalidations.incrementAndGet();
+			cache.invalidateAll();
+		}
+	}
+}
@@ -0,0 +1,102 @@
+package org.fiware.iam.cache;
+
+import io.micronaut.runtime.event.annotation.EventListener;
+import jakarta.inject.Singleton;
+import lombok.RequiredArgsConstructor;
+import org.fiware.iam.configuration.IssuerCountConfig;
+import org.fiware.iam.event.IssuerChangedEvent;
+import org.fiware.iam.repository.TrustedIssuerRepository;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cached total number of issuers. The total is kept up-to-date with the changes published by this instance and
+ * counted again in the database once it's older than the configured staleness bound.
+ */
+@Singleton
+@RequiredArgsConstructor
+public class IssuerCount {
+
+	private static final long NOT_COUNTED = -1;
+
+	private final TrustedIssuerRepository trustedIssuerRepository;
+	private final IssuerCountConfig countConfig;
+
+	private final AtomicLong total = new AtomicLong(NOT_COUNTED);
+	private final Lock countLock = new ReentrantLock();
+	private volatile long countedAt;
+
+	/**
+	 * Return the total number of issuers, counting them in case the cached value is outdated.
+	 *
+	 * @return the total number of issuers
+	 */
+	public long get() {
+		long currentTotal = total.get();
+		if (currentTotal != NOT_COUNTED && !isStale()) {
+			return currentTotal;
+		}
+		return count();
+	}
+
+	/**
+	 * Reactive variant of {@link #get()}, counting the issuers through the given publisher in case the cached value is
+	 * outdated. Concurrent requests with an outdated value do not wait for each other, thus each of them counts.
+	 *
+	 * @param counting publisher of the current value
+	 * @return the cached or the current value
+	 */
+	public Mono<Long> get(Mono<Long> counting) {
+		long currentTotal = total.get();
+		if (currentTotal != NOT_COUNTED && !isStale()) {
+			return Mono.just(currentTotal);
+		}
+		return counting.doOnNext(value -> {
+			countedAt = System.nanoTime();
+			total.set(value);
+		});
+	}
+
+	/**
+	 * Drop the cached value, the next request will count the issuers again.
+	 */
+	public void invalidate() {
+		total.set(NOT_COUNTED);
+	}
+
+	@EventListener
+	public void onIssuerChanged(IssuerChangedEvent issuerChangedEvent) {
+		switch (issuerChangedEvent.changeType()) {
+			case CREATED -> total.getAndUpdate(current -> current == NOT_COUNTED ? NOT_COUNTED : current + 1);
+			case DELETED -> total.getAndUpdate(current -> current == NOT_COUNTED ? NOT_COUNTED : current - 1);
+			default -> {
+				// updates do not change the total
+			}
+		}
+	}
+
+	private boolean isStale() {
+		return System.nanoTime() - countedAt > countConfig.getMaxStaleness().toNanos();
+	}
+
+	// only one request at a time should count, the others will get the fresh value afterward. Unlike a monitor, the
+	// lock does not pin the carrier of a virtual thread while the count is running
+	private long count() {
+		countLock.lock();
+		try {
+			long currentTotal = total.get();
+			if (currentTotal != NOT_COUNTED && !isStale()) {
+				return currentTotal;
+			}
+			long counted = trustedIssuerRepository.count();
+			countedAt = System.nanoTime();
+			total.set(counted);
+			return counted;
+		} finally {
+			countLock.unlock();
+		}
+	}
+}
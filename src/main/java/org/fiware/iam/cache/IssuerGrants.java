@@ -0,0 +1,67 @@
+package org.fiware.iam.cache;
+
+import org.fiware.iam.repository.Credential;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Validities of the credentials of a single issuer, by credentials type. Instances are immutable, thus they can be
+ * read concurrently to the index replacing them.
+ */
+final class IssuerGrants {
+
+	// pairs of the start and the end of each validity, open bounds are stored as the minimum respectively maximum
+	private final Map<String, Instant[]> validities;
+
+	private IssuerGrants(Map<String, Instant[]> validities) {
+		this.validities = validities;
+	}
+
+	/**
+	 * Collect the validities of the given credentials.
+	 *
+	 * @param credentials of the issuer, without their claims
+	 * @return the grants of the issuer
+	 */
+	static IssuerGrants of(Collection<Credential> credentials) {
+		Map<String, Instant[]> validities = new HashMap<>();
+		for (Credential credential : credentials) {
+			Instant[] validity = {
+					Optional.ofNullable(credential.getValidFrom()).orElse(Instant.MIN),
+					Optional.ofNullable(credential.getValidTo()).orElse(Instant.MAX)};
+			validities.merge(credential.getCredentialsType(), validity, IssuerGrants::concat);
+		}
+		return new IssuerGrants(Map.copyOf(validities));
+	}
+
+	private static Instant[] concat(Instant[] first, Instant[] second) {
+		Instant[] both = Arrays.copyOf(first, first.length + second.length);
+		System.arraycopy(second, 0, both, first.length, second.length);
+		return both;
+	}
+
+	/**
+	 * Check if a credential of the given type is valid at the given time. Both bounds of a validity are inclusive.
+	 *
+	 * @param credentialsType type of the credential
+	 * @param validAt         time to check
+	 * @return true if such a credential exists
+	 */
+	boolean allows(String credentialsType, Instant validAt) {
+		Instant[] typeValidities = validities.get(credentialsType);
+		if (typeValidities == null) {
+			return false;
+		}
+		for (int i = 0; i < typeValidities.length; i += 2) {
+			if (!validAt.isBefore(typeValidities[i]) && !validAt.isAfter(typeValidities[i + 1])) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
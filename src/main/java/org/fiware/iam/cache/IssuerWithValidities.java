@@ -0,0 +1,14 @@
+package org.fiware.iam.cache;
+
+import org.fiware.iam.tir.model.IssuerVO;
+
+import java.util.List;
+
+/**
+ * A mapped issuer, together with the validity of each of its attributes.
+ *
+ * @param issuer     the mapped issuer
+ * @param validities validity of every attribute, in the order of the attributes
+ */
+public record IssuerWithValidities(IssuerVO issuer, List<AttributeValidity> validities) {
+}
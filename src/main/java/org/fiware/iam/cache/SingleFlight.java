@@ -0,0 +1,94 @@
+package org.fiware.iam.cache;
+
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Coalesces concurrent loads of the same key. The first caller loads, all callers that arrive while the load is in
+ * flight wait for it and share its result, respectively its failure. Once the load completed, the next caller loads
+ * again, thus results are never kept.
+ *
+ * @param <K> type of the key
+ * @param <V> type of the loaded value
+ */
+public class SingleFlight<K, V> {
+
+	private final Map<K, CompletableFuture<V>> loads = new ConcurrentHashMap<>();
+	private final Map<K, Mono<V>> reactiveLoads = new ConcurrentHashMap<>();
+
+	/**
+	 * Load the value for the given key, or wait for the load that is already in flight.
+	 *
+	 * @param key    to load
+	 * @param loader executed by the first caller only
+	 * @return the loaded value
+	 */
+	public V load(K key, Function<K, V> loader) {
+		CompletableFuture<V> load = new CompletableFuture<>();
+		CompletableFuture<V> inFlight = loads.putIfAbsent(key, load);
+		if (inFlight != null) {
+			return join(inFlight);
+		}
+		try {
+			V value = loader.apply(key);
+			load.complete(value);
+			return value;
+		} catch (RuntimeException | Error e) {
+			load.completeExceptionally(e);
+			throw e;
+		} finally {
+			loads.remove(key, load);
+		}
+	}
+
+	/**
+	 * Reactive variant of {@link #load(Object, Function)}. All subscribers that arrive while the load is in flight
+	 * share a single subscription to the publisher returned by the loader.
+	 *
+	 * @param key    to load
+	 * @param loader to create the publisher of the value, empty if there is none
+	 * @return the shared load
+	 */
+	public Mono<V> loadReactive(K key, Function<K, Mono<V>> loader) {
+		return Mono.defer(() -> reactiveLoads.computeIfAbsent(key, k -> {
+			// only the own load is removed, a forgotten load must not remove its successor
+			AtomicReference<Mono<V>> load = new AtomicReference<>();
+			load.set(loader.apply(k)
+					.doFinally(signal -> reactiveLoads.remove(k, load.get()))
+					.cache());
+			return load.get();
+		}));
+	}
+
+	/**
+	 * Detach the loads in flight for the given key. Callers arriving afterward load again, e.g. because the value
+	 * changed while it was loaded.
+	 *
+	 * @param key to forget
+	 */
+	public void forget(K key) {
+		loads.remove(key);
+		reactiveLoads.remove(key);
+	}
+
+	// rethrows the failure of the shared load as it was thrown to the loading caller
+	private static <V> V join(CompletableFuture<V> load) {
+		try {
+			return load.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			if (e.getCause() instanceof Error error) {
+				throw error;
+			}
+			throw e;
+		}
+	}
+}
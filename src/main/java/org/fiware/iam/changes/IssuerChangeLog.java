@@ -0,0 +1,75 @@
+package org.fiware.iam.changes;
+
+import io.micronaut.data.model.Pageable;
+import io.micronaut.data.model.Sort;
+import jakarta.inject.Singleton;
+import lombok.RequiredArgsConstructor;
+import org.fiware.iam.event.IssuerChangedEvent;
+import org.fiware.iam.repository.IssuerChange;
+import org.fiware.iam.repository.IssuerChangeRepository;
+import org.fiware.iam.repository.RegistryVersionRepository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Monotonically increasing log of all changes to the issuers. The registry version is incremented by the number of
+ * changes and every change gets one of the new versions as its sequence number. Since writers are serialized on the
+ * registry version, changes become visible in the order of their sequence numbers and readers can continue after the
+ * last change they have seen.
+ */
+@Singleton
+@RequiredArgsConstructor
+public class IssuerChangeLog {
+
+	private static final Sort SEQUENCE_ASCENDING = Sort.of(Sort.Order.asc("sequenceNumber"));
+
+	private final RegistryVersionRepository registryVersionRepository;
+	private final IssuerChangeRepository issuerChangeRepository;
+
+	/**
+	 * Record the given change. Has to be called in the same transaction as the change.
+	 *
+	 * @param change to record
+	 */
+	public void record(IssuerChangedEvent change) {
+		record(List.of(change));
+	}
+
+	/**
+	 * Record the given changes, in the order of the list. Has to be called in the same transaction as the changes.
+	 *
+	 * @param changes to record
+	 */
+	public void record(List<IssuerChangedEvent> changes) {
+		if (changes.isEmpty()) {
+			return;
+		}
+		registryVersionRepository.increment(changes.size());
+		long lastSequenceNumber = registryVersionRepository
+				.findVersionById(RegistryVersionRepository.REGISTRY_VERSION_ID)
+				.orElseThrow(() -> new IllegalStateException("The registry version is not initialized."));
+		long firstSequenceNumber = lastSequenceNumber - changes.size() + 1;
+		Instant changedAt = Instant.now();
+		issuerChangeRepository.saveAll(IntStream.range(0, changes.size())
+				.mapToObj(i -> new IssuerChange()
+						.setSequenceNumber(firstSequenceNumber + i)
+						.setDid(changes.get(i).did())
+						.setChangeType(changes.get(i).changeType())
+						.setChangedAt(changedAt))
+				.toList());
+	}
+
+	/**
+	 * Return the changes after the given sequence number, in the order they were made.
+	 *
+	 * @param sequenceNumber of the last known change, 0 to start from the beginning
+	 * @param limit          maximum number of changes to return
+	 * @return the changes
+	 */
+	public List<IssuerChange> getChangesSince(long sequenceNumber, int limit) {
+		return issuerChangeRepository.findBySequenceNumberGreaterThan(sequenceNumber,
+				Pageable.from(0, limit, SEQUENCE_ASCENDING));
+	}
+}
@@ -0,0 +1,58 @@
+package org.fiware.iam.changes;
+
+import io.micronaut.context.event.ApplicationEventPublisher;
+import io.micronaut.transaction.TransactionOperations;
+import io.micronaut.transaction.TransactionStatus;
+import io.micronaut.transaction.support.TransactionSynchronization;
+import jakarta.inject.Singleton;
+import lombok.RequiredArgsConstructor;
+import org.fiware.iam.event.IssuerChangedEvent;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Records changes to the issuers in the change log and publishes them to the listeners of this instance. The change is
+ * recorded in the transaction of the change, while the event is only published once the transaction committed, so that
+ * listeners neither read the state before the change nor uncommitted state that might be rolled back.
+ */
+@Singleton
+@RequiredArgsConstructor
+public class IssuerChangePublisher {
+
+	private final IssuerChangeLog issuerChangeLog;
+	private final ApplicationEventPublisher<IssuerChangedEvent> eventPublisher;
+	private final TransactionOperations<Connection> transactionOperations;
+
+	/**
+	 * Record the given change and publish it after the commit of the current transaction. Without a transaction, the
+	 * change is published immediately.
+	 *
+	 * @param change to publish
+	 */
+	public void publish(IssuerChangedEvent change) {
+		publish(List.of(change));
+	}
+
+	/**
+	 * Record the given changes, in the order of the list, and publish them after the commit of the current
+	 * transaction. Without a transaction, the changes are published immediately.
+	 *
+	 * @param changes to publish
+	 */
+	public void publish(List<IssuerChangedEvent> changes) {
+		issuerChangeLog.record(changes);
+		Optional<? extends TransactionStatus<?>> transactionStatus = transactionOperations.findTransactionStatus();
+		if (transactionStatus.isEmpty()) {
+			changes.forEach(eventPublisher::publishEvent);
+			return;
+		}
+		transactionStatus.get().registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				changes.forEach(eventPublisher::publishEvent);
+			}
+		});
+	}
+}
@@ -0,0 +1,22 @@
+package org.fiware.iam.configuration;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import lombok.Data;
+
+/**
+ * Configuration of the job that precomputes the registry attributes for credentials persisted before they were stored.
+ */
+@ConfigurationProperties("backfill.attributes")
+@Data
+public class AttributeBackfillConfig {
+
+    /**
+     * Should the attributes of credentials stored without them be precomputed.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Number of credentials read and updated at once.
+     */
+    private int batchSize = 100;
+}
@@ -0,0 +1,30 @@
+package org.fiware.iam.configuration;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import lombok.Data;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the in-memory index of the credential types and validities of all issuers, used to check the
+ * authorization of an issuer without querying the database.
+ */
+@ConfigurationProperties("authorization-index")
+@Data
+public class AuthorizationIndexConfig {
+
+    /**
+     * Should authorizations be checked through the index.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Number of issuers, respectively changes, read at once while building and syncing the index.
+     */
+    private int batchSize = 1000;
+
+    /**
+     * Time after which the index is built again from all credentials.
+     */
+    private Duration rebuildInterval = Duration.ofHours(1);
+}
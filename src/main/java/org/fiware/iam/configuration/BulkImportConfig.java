@@ -0,0 +1,22 @@
+package org.fiware.iam.configuration;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import lombok.Data;
+
+/**
+ * Configuration of the bulk import of issuers.
+ */
+@ConfigurationProperties("bulk-import")
+@Data
+public class BulkImportConfig {
+
+    /**
+     * Number of issuers to be inserted in one transaction.
+     */
+    private int chunkSize = 500;
+
+    /**
+     * Maximum number of issuers accepted in one request.
+     */
+    private int maxIssuers = 50_000;
+}
@@ -0,0 +1,39 @@
+package org.fiware.iam.configuration;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import lombok.Data;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the job that moves expired credentials, with their claims and values, into the archive tables.
+ */
+@ConfigurationProperties("credential-archive")
+@Data
+public class CredentialArchiveConfig {
+
+    /**
+     * Should expired credentials be archived.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Time a credential is kept after the end of its validity, before it is archived.
+     */
+    private Duration gracePeriod = Duration.ofDays(30);
+
+    /**
+     * Number of credentials archived in one transaction.
+     */
+    private int batchSize = 500;
+
+    /**
+     * Pause between two batches, limits the rate of the archiving together with the batch size.
+     */
+    private Duration batchPause = Duration.ofSeconds(1);
+
+    /**
+     * Maximum number of batches per run, the remaining credentials are archived by the next run.
+     */
+    private int maxBatches = 60;
+}
@@ -0,0 +1,19 @@
+package org.fiware.iam.configuration;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import lombok.Data;
+
+/**
+ * Configuration of the validity filtering of the issuer reads.
+ */
+@ConfigurationProperties("credential-validity")
+@Data
+public class CredentialValidityConfig {
+
+    /**
+     * Should reads without a requested time only return the credentials that are valid at the time of the request.
+     * The registry selects the valid credentials from the cached issuers, while the list reads them from the
+     * database.
+     */
+    private boolean defaultToNow = false;
+}
@@ -0,0 +1,46 @@
+package org.fiware.iam.configuration;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import lombok.Data;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the in-memory filter of registered dids, used to answer requests for unknown issuers without
+ * querying the database.
+ */
+@ConfigurationProperties("did-filter")
+@Data
+public class DidFilterConfig {
+
+    /**
+     * Should unknown dids be rejected through the filter.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Number of dids the filter is sized for at least. The filter is sized for twice the number of registered dids, if
+     * that is larger.
+     */
+    private long expectedDids = 100_000;
+
+    /**
+     * Targeted probability of an unknown did to pass the filter, while the filter holds the expected number of dids.
+     */
+    private double falsePositiveRate = 0.01;
+
+    /**
+     * Maximum memory used by the filter, in bytes. Takes precedence over the false positive rate.
+     */
+    private long maxMemory = 16 * 1024 * 1024;
+
+    /**
+     * Number of dids, respectively changes, read at once while building and syncing the filter.
+     */
+    private int batchSize = 1000;
+
+    /**
+     * Time after which the filter is built again, to drop deleted dids.
+     */
+    private Duration rebuildInterval = Duration.ofHours(1);
+}
@@ -0,0 +1,36 @@
+package org.fiware.iam.configuration;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.core.annotation.Nullable;
+import lombok.Data;
+
+/**
+ * Configuration of the executor that runs the blocking work of the api controllers.
+ */
+@ConfigurationProperties("execution")
+@Data
+public class ExecutionConfig {
+
+    /**
+     * Kind of threads the controllers are executed on.
+     */
+    private Mode mode = Mode.PLATFORM;
+
+    /**
+     * Maximum number of requests executed concurrently in the virtual mode. If not set, the maximum size of the
+     * connection pool is used.
+     */
+    @Nullable
+    private Integer maxConcurrency;
+
+    public enum Mode {
+        /**
+         * Requests are executed on the platform threads of the micronaut io executor.
+         */
+        PLATFORM,
+        /**
+         * Every request is executed on its own virtual thread, bounded by the maximum concurrency.
+         */
+        VIRTUAL
+    }
+}
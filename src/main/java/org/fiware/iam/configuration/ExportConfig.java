@@ -0,0 +1,17 @@
+package org.fiware.iam.configuration;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import lombok.Data;
+
+/**
+ * Configuration of the registry export.
+ */
+@ConfigurationProperties("export")
+@Data
+public class ExportConfig {
+
+    /**
+     * Number of rows fetched from the database at once. Not used for MySQL, that streams the rows one by one.
+     */
+    private int fetchSize = 500;
+}
@@ -0,0 +1,29 @@
+package org.fiware.iam.configuration;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import lombok.Data;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the in-process cache for the issuers returned by the trusted issuers registry.
+ */
+@ConfigurationProperties("cache.issuers")
+@Data
+public class IssuerCacheConfig {
+
+    /**
+     * Should the issuers be cached at all.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of issuers to be kept in the cache.
+     */
+    private long maximumSize = 10_000;
+
+    /**
+     * Time after which a cached issuer is evicted, independent of its usage.
+     */
+    private Duration expireAfterWrite = Duration.ofMinutes(5);
+}
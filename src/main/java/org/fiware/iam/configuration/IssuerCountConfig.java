@@ -0,0 +1,20 @@
+package org.fiware.iam.configuration;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import lombok.Data;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the cached total number of issuers.
+ */
+@ConfigurationProperties("cache.issuer-count")
+@Data
+public class IssuerCountConfig {
+
+    /**
+     * Maximum time the cached total is used before it is counted again in the database. Changes through this instance
+     * are applied immediately, the staleness only applies to changes through other instances.
+     */
+    private Duration maxStaleness = Duration.ofSeconds(30);
+}
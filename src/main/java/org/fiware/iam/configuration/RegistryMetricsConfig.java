@@ -0,0 +1,38 @@
+package org.fiware.iam.configuration;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import lombok.Data;
+
+/**
+ * Configuration of the fine-grained metrics of the registry. Every group can be switched off on its own, a disabled
+ * group does not measure anything. Without a meter registry, nothing is measured at all.
+ */
+@ConfigurationProperties("registry-metrics")
+@Data
+public class RegistryMetricsConfig {
+
+    /**
+     * Time every call of the repositories.
+     */
+    private boolean repositories = true;
+
+    /**
+     * Time the mapping between entities, the trusted issuers list and the trusted issuers registry models.
+     */
+    private boolean mappers = true;
+
+    /**
+     * Time the resolution of the forwarded base uri.
+     */
+    private boolean filter = true;
+
+    /**
+     * Record the sizes of the loaded issuer graphs.
+     */
+    private boolean graphSizes = true;
+
+    /**
+     * Publish percentile histograms for the timers and sizes, to aggregate percentiles across instances.
+     */
+    private boolean histograms = false;
+}
@@ -0,0 +1,20 @@
+package org.fiware.iam.configuration;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import lombok.Data;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the cached registry version, used for the entity tags of the issuer list.
+ */
+@ConfigurationProperties("cache.registry-version")
+@Data
+public class RegistryVersionConfig {
+
+    /**
+     * Maximum time the cached version is used before it is read again from the database. Changes through this instance
+     * are applied immediately, the staleness only applies to changes through other instances.
+     */
+    private Duration maxStaleness = Duration.ofSeconds(5);
+}
@@ -0,0 +1,43 @@
+package org.fiware.iam.configuration;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import lombok.Data;
+
+/**
+ * Configuration of the registry snapshot, a memory-mapped copy of all issuers that is written periodically to disk.
+ */
+@ConfigurationProperties("snapshot")
+@Data
+public class SnapshotConfig {
+
+    /**
+     * How the trusted issuers registry api uses the snapshot. If not disabled, the snapshot is also written.
+     */
+    private ReadMode readMode = ReadMode.DISABLED;
+
+    /**
+     * Location of the snapshot file.
+     */
+    private String path = "snapshot/registry.snapshot";
+
+    /**
+     * Number of changes read at once from the change log, to mark the issuers changed through other instances.
+     */
+    private int syncBatchSize = 1000;
+
+    public enum ReadMode {
+        /**
+         * The snapshot is neither written nor read.
+         */
+        DISABLED,
+        /**
+         * Reads go to the database, the snapshot is only used if the database is not available.
+         */
+        FALLBACK,
+        /**
+         * Reads of issuers are served from the snapshot, as long as they did not change since it was written. Lists
+         * are read from the database.
+         */
+        PRIMARY
+    }
+}
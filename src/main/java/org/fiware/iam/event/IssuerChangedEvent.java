@@ -0,0 +1,16 @@
+package org.fiware.iam.event;
+
+/**
+ * Event to be published after an issuer was created, updated or deleted.
+ *
+ * @param did        of the changed issuer
+ * @param changeType type of the change
+ */
+public record IssuerChangedEvent(String did, ChangeType changeType) {
+
+	public enum ChangeType {
+		CREATED,
+		UPDATED,
+		DELETED
+	}
+}
@@ -0,0 +1,67 @@
+package org.fiware.iam.execution;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executor that limits the number of concurrently running tasks of its delegate. Tasks are handed to the delegate
+ * immediately and wait for a permit on their own thread, thus the waiting is only cheap with virtual threads. Waiting
+ * tasks are started in the order they were submitted.
+ */
+public class BoundedExecutorService extends AbstractExecutorService {
+
+	private final ExecutorService delegate;
+	private final Semaphore permits;
+
+	/**
+	 * @param delegate       executor to run the tasks on
+	 * @param maxConcurrency maximum number of tasks running at the same time
+	 */
+	public BoundedExecutorService(ExecutorService delegate, int maxConcurrency) {
+		if (maxConcurrency < 1) {
+			throw new IllegalArgumentException("The maximum concurrency has to be at least 1.");
+		}
+		this.delegate = delegate;
+		this.permits = new Semaphore(maxConcurrency, true);
+	}
+
+	@Override
+	public void execute(Runnable command) {
+		delegate.execute(() -> {
+			permits.acquireUninterruptibly();
+			try {
+				command.run();
+			} finally {
+				permits.release();
+			}
+		});
+	}
+
+	@Override
+	public void shutdown() {
+		delegate.shutdown();
+	}
+
+	@Override
+	public List<Runnable> shutdownNow() {
+		return delegate.shutdownNow();
+	}
+
+	@Override
+	public boolean isShutdown() {
+		return delegate.isShutdown();
+	}
+
+	@Override
+	public boolean isTerminated() {
+		return delegate.isTerminated();
+	}
+
+	@Override
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+		return delegate.awaitTermination(timeout, unit);
+	}
+}
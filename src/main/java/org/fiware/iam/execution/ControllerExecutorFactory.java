@@ -0,0 +1,48 @@
+package org.fiware.iam.execution;
+
+import io.micronaut.context.BeanProvider;
+import io.micronaut.context.annotation.Factory;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.scheduling.TaskExecutors;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import org.fiware.iam.configuration.ExecutionConfig;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Provides the executor the api controllers are executed on. The controllers call the blocking jdbc repositories
+ * directly, thus they must not run on the event loop.
+ */
+@Slf4j
+@Factory
+public class ControllerExecutorFactory {
+
+	/**
+	 * Name of the executor, to be used with {@link io.micronaut.scheduling.annotation.ExecuteOn}.
+	 */
+	public static final String CONTROLLER_EXECUTOR = "controllers";
+
+	@Singleton
+	@Named(CONTROLLER_EXECUTOR)
+	public ExecutorService controllerExecutor(ExecutionConfig executionConfig,
+			@Named(TaskExecutors.IO) BeanProvider<ExecutorService> ioExecutor,
+			@Value("${datasources.default.maximum-pool-size:10}") int maximumPoolSize) {
+		return switch (executionConfig.getMode()) {
+			case PLATFORM -> ioExecutor.get();
+			case VIRTUAL -> {
+				// more concurrent requests than connections would only wait for the pool, while pinning carrier threads
+				// inside of drivers that synchronize
+				int maxConcurrency = Optional.ofNullable(executionConfig.getMaxConcurrency()).orElse(maximumPoolSize);
+				log.info("Execute the controllers on virtual threads, with at most {} concurrent requests.",
+						maxConcurrency);
+				yield new BoundedExecutorService(
+						Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("controller-", 0).factory()),
+						maxConcurrency);
+			}
+		};
+	}
+}
@@ -0,0 +1,73 @@
+package org.fiware.iam.export;
+
+import jakarta.inject.Singleton;
+import lombok.RequiredArgsConstructor;
+import org.fiware.iam.TIRMapper;
+import org.fiware.iam.cache.AttributeValidity;
+import org.fiware.iam.cache.IssuerWithValidities;
+import org.fiware.iam.repository.Credential;
+import org.fiware.iam.repository.CredentialRepository;
+import org.fiware.iam.repository.IssuerExportRepository;
+import org.fiware.iam.repository.IssuerExportRepository.ExportRow;
+import org.fiware.iam.tir.model.IssuerAttributeVO;
+import org.fiware.iam.tir.model.IssuerVO;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reads all issuers of the registry, in the format of the trusted issuers registry. The issuers are read through a
+ * database cursor and emitted on demand, thus only the current issuer is held in memory.
+ */
+@Singleton
+@RequiredArgsConstructor
+public class IssuerExporter {
+
+	private final IssuerExportRepository issuerExportRepository;
+	private final CredentialRepository credentialRepository;
+	private final TIRMapper attributeMapper;
+
+	/**
+	 * Stream all issuers, ordered by did.
+	 *
+	 * @return the issuers, together with the validities of their attributes
+	 */
+	public Flux<IssuerWithValidities> streamIssuers() {
+		return issuerExportRepository.streamAll()
+				// rows are ordered by did, thus all rows of an issuer are consecutive
+				.bufferUntilChanged(ExportRow::did)
+				.map(this::toIssuer);
+	}
+
+	private IssuerWithValidities toIssuer(List<ExportRow> exportRows) {
+		List<IssuerAttributeVO> attributes = new ArrayList<>();
+		List<AttributeValidity> validities = new ArrayList<>();
+		exportRows.stream()
+				.filter(exportRow -> exportRow.credentialId() != null)
+				.flatMap(exportRow -> toCredential(exportRow).stream())
+				.forEach(credential -> {
+					attributes.add(attributeMapper.toAttribute(credential));
+					validities.add(AttributeValidity.of(credential));
+				});
+		IssuerVO issuerVO = new IssuerVO()
+				.did(exportRows.getFirst().did())
+				.attributes(attributes);
+		return new IssuerWithValidities(issuerVO, validities);
+	}
+
+	// credentials that were not yet backfilled are loaded to be encoded, they might have been removed in the meantime
+	private Optional<Credential> toCredential(ExportRow exportRow) {
+		if (exportRow.attributeBody() != null && exportRow.attributeHash() != null) {
+			return Optional.of(new Credential()
+					.setAttributeBody(exportRow.attributeBody())
+					.setAttributeHash(exportRow.attributeHash())
+					.setValidFrom(exportRow.validFrom())
+					.setValidTo(exportRow.validTo()));
+		}
+		return credentialRepository.findByIdIn(List.of(exportRow.credentialId()))
+				.stream()
+				.findFirst();
+	}
+}
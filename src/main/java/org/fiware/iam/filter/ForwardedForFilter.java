@@ -1,5 +1,7 @@
 package org.fiware.iam.filter;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.micronaut.core.order.Ordered;
 import io.micronaut.http.HttpRequest;
 import io.micronaut.http.MutableHttpResponse;
@@ -9,11 +11,17 @@ import io.micronaut.http.filter.ServerFilterChain;
 import io.micronaut.http.server.HttpServerConfiguration;
 import io.micronaut.http.ssl.ServerSslConfiguration;
 import org.fiware.iam.configuration.ForwardedForConfig;
+import org.fiware.iam.metrics.RegistryMetrics;
 import org.reactivestreams.Publisher;
 
 import java.net.URI;
 
-@Filter(Filter.MATCH_ALL_PATTERN)
+/**
+ * Resolves the base uri a request was sent to, as seen by the client behind proxies, from the forwarded headers. Only
+ * applied to the issuer listing, the only route building links. The base uris are memoized per combination of the
+ * headers.
+ */
+@Filter({"/**/v4/issuers", "/**/v4/issuers/"})
 public class ForwardedForFilter implements HttpServerFilter, Ordered {
 
     public static final String HOST_ATTR = "server-host";
@@ -22,46 +30,62 @@ public class ForwardedForFilter implements HttpServerFilter, Ordered {
     public static final String PREFIX_ATTR = "server-prefix";
     public static final String REQ_ATTR = "server-req";
 
+    private static final int MAX_BASE_URIS = 256;
+
     private final ForwardedForConfig config;
     private final int serverPort;
     private final String defaultServerProtocol;
     private final String defaultHost;
+    private final String defaultPort;
+    private final RegistryMetrics registryMetrics;
+    private final Cache<BaseUriKey, URI> baseUris = Caffeine.newBuilder()
+            .maximumSize(MAX_BASE_URIS)
+            .build();
+
     public ForwardedForFilter(ForwardedForConfig config, HttpServerConfiguration serverConfiguration,
-                              ServerSslConfiguration sslConfig) {
+                              ServerSslConfiguration sslConfig, RegistryMetrics registryMetrics) {
         this.config = config;
+        this.registryMetrics = registryMetrics;
         this.serverPort = serverConfiguration.getPort().orElse(HttpServerConfiguration.DEFAULT_PORT);
         this.defaultServerProtocol = sslConfig.isEnabled() ? "https" : "http";
         this.defaultHost = serverConfiguration.getHost().orElse("localhost");
+        this.defaultPort = String.valueOf(serverPort);
     }
 
     @Override
     public Publisher<MutableHttpResponse<?>> doFilter(HttpRequest<?> request, ServerFilterChain chain) {
 
+        long start = registryMetrics.startFilter();
         String hostHeader = config != null ? getHeaderValue(request, config.getHostHeader(), defaultHost) : defaultHost;
-        String portHeader = config != null ? getHeaderValue(request, config.getPortHeader(), String.valueOf(serverPort)): String.valueOf(serverPort);
+        String portHeader = config != null ? getHeaderValue(request, config.getPortHeader(), defaultPort): defaultPort;
         String protoHeader = config != null ? getHeaderValue(request, config.getProtocolHeader(), defaultServerProtocol): defaultServerProtocol;
         if (portHeader.equals("-1")) {
             portHeader = String.valueOf(request.getServerAddress().getPort());
         }
         String prefixHeader = config != null ? getHeaderValue(request, config.getPrefixHeader(), ""): "";
 
-        String portPart = "";
-        if (!("http".equalsIgnoreCase(protoHeader) && "80".equals(portHeader))
-                && !("https".equalsIgnoreCase(protoHeader) && "443".equals(portHeader))) {
-            portPart = ":" + portHeader;
-        }
-
-        String reqUrl = String.format("%s://%s%s%s", protoHeader, hostHeader, portPart, prefixHeader);
+        URI baseUri = baseUris.get(new BaseUriKey(protoHeader, hostHeader, portHeader, prefixHeader),
+                ForwardedForFilter::toBaseUri);
 
         HttpRequest<?> modifiedRequest = request.setAttribute(HOST_ATTR, hostHeader)
                 .setAttribute(PORT_ATTR, portHeader)
                 .setAttribute(PROTO_ATTR, protoHeader)
                 .setAttribute(PREFIX_ATTR, prefixHeader)
-                .setAttribute(REQ_ATTR, URI.create(reqUrl));
+                .setAttribute(REQ_ATTR, baseUri);
+        registryMetrics.stopFilter(start);
 
         return chain.proceed(modifiedRequest);
     }
 
+    private static URI toBaseUri(BaseUriKey key) {
+        String portPart = "";
+        if (!("http".equalsIgnoreCase(key.proto()) && "80".equals(key.port()))
+                && !("https".equalsIgnoreCase(key.proto()) && "443".equals(key.port()))) {
+            portPart = ":" + key.port();
+        }
+        return URI.create(key.proto() + "://" + key.host() + portPart + key.prefix());
+    }
+
     private String getHeaderValue(HttpRequest<?> request, String headerName, String defaultValue) {
         try {
             return request.getHeaders().get(headerName, String.class, defaultValue);
@@ -75,4 +99,8 @@ public class ForwardedForFilter implements HttpServerFilter, Ordered {
     public int getOrder() {
         return Ordered.HIGHEST_PRECEDENCE;
     }
+
+    // the forwarded headers that determine the base uri, only a few distinct combinations are expected
+    private record BaseUriKey(String proto, String host, String port, String prefix) {
+    }
 }
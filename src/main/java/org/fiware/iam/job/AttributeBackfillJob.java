@@ -0,0 +1,76 @@
+package org.fiware.iam.job;
+
+import io.micronaut.data.model.Pageable;
+import io.micronaut.data.model.Sort;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.inject.Singleton;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.fiware.iam.TIRMapper;
+import org.fiware.iam.configuration.AttributeBackfillConfig;
+import org.fiware.iam.repository.Credential;
+import org.fiware.iam.repository.CredentialRepository;
+
+import java.util.List;
+
+/**
+ * Fills the precomputed attribute body and hash for all credentials that were persisted without them. Runs shortly
+ * after startup and is repeated until a run completed, since credentials are stored with their attributes afterwards.
+ */
+@Slf4j
+@Singleton
+@RequiredArgsConstructor
+public class AttributeBackfillJob {
+
+	private static final Sort ID_SORT = Sort.of(Sort.Order.asc("id"));
+
+	private final CredentialRepository credentialRepository;
+	private final TIRMapper attributeMapper;
+	private final AttributeBackfillConfig backfillConfig;
+
+	private volatile boolean completed = false;
+
+	@Scheduled(fixedDelay = "${backfill.attributes.retry-interval:1m}",
+			initialDelay = "${backfill.attributes.initial-delay:10s}")
+	public void backfill() {
+		if (!backfillConfig.isEnabled() || completed) {
+			return;
+		}
+		try {
+			fillAttributes();
+			completed = true;
+		} catch (RuntimeException e) {
+			log.warn("Was not able to fill the attributes of the credentials, will retry.", e);
+		}
+	}
+
+	// credentials that cannot be encoded keep a null hash, they are only logged and do not keep the job running
+	private void fillAttributes() {
+		int batchSize = backfillConfig.getBatchSize();
+		int lastId = 0;
+		int filled = 0;
+		List<Integer> ids;
+		do {
+			// anchor on the last id, so that credentials that cannot be encoded are not fetched again
+			ids = credentialRepository.findIdByAttributeHashIsNullAndIdGreaterThan(lastId,
+					Pageable.from(0, batchSize, ID_SORT));
+			if (ids.isEmpty()) {
+				break;
+			}
+			for (Credential credential : credentialRepository.findByIdIn(ids)) {
+				attributeMapper.withAttribute(credential);
+				if (credential.getAttributeHash() == null) {
+					log.warn("Was not able to compute the attribute for credential {}.", credential.getId());
+					continue;
+				}
+				credentialRepository.updateAttribute(credential.getId(), credential.getAttributeBody(),
+						credential.getAttributeHash());
+				filled++;
+			}
+			lastId = ids.getLast();
+		} while (ids.size() == batchSize);
+		if (filled > 0) {
+			log.info("Filled the attributes of {} credentials.", filled);
+		}
+	}
+}
@@ -0,0 +1,29 @@
+package org.fiware.iam.job;
+
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.inject.Singleton;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.fiware.iam.cache.AuthorizationIndex;
+
+/**
+ * Builds the authorization index right after startup and syncs it periodically with the changes made through other
+ * instances.
+ */
+@Slf4j
+@Singleton
+@RequiredArgsConstructor
+public class AuthorizationIndexJob {
+
+	private final AuthorizationIndex authorizationIndex;
+
+	@Scheduled(fixedDelay = "${authorization-index.sync-interval:5s}",
+			initialDelay = "${authorization-index.initial-delay:0s}")
+	public void syncIndex() {
+		try {
+			authorizationIndex.sync();
+		} catch (RuntimeException e) {
+			log.warn("Was not able to sync the authorization index.", e);
+		}
+	}
+}
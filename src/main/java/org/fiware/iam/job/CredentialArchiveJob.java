@@ -0,0 +1,28 @@
+package org.fiware.iam.job;
+
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.inject.Singleton;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.fiware.iam.archive.CredentialArchiver;
+
+/**
+ * Periodically moves the expired credentials into the archive.
+ */
+@Slf4j
+@Singleton
+@RequiredArgsConstructor
+public class CredentialArchiveJob {
+
+	private final CredentialArchiver credentialArchiver;
+
+	@Scheduled(fixedDelay = "${credential-archive.sweep-interval:1h}",
+			initialDelay = "${credential-archive.initial-delay:5m}")
+	public void archive() {
+		try {
+			credentialArchiver.archiveExpired();
+		} catch (RuntimeException e) {
+			log.warn("Was not able to archive the expired credentials.", e);
+		}
+	}
+}
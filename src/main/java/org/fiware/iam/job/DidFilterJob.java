@@ -0,0 +1,27 @@
+package org.fiware.iam.job;
+
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.inject.Singleton;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.fiware.iam.cache.DidFilter;
+
+/**
+ * Builds the did filter right after startup and syncs it periodically with the changes made through other instances.
+ */
+@Slf4j
+@Singleton
+@RequiredArgsConstructor
+public class DidFilterJob {
+
+	private final DidFilter didFilter;
+
+	@Scheduled(fixedDelay = "${did-filter.sync-interval:5s}", initialDelay = "${did-filter.initial-delay:0s}")
+	public void syncFilter() {
+		try {
+			didFilter.sync();
+		} catch (RuntimeException e) {
+			log.warn("Was not able to sync the did filter.", e);
+		}
+	}
+}
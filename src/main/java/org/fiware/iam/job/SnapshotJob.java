@@ -0,0 +1,63 @@
+package org.fiware.iam.job;
+
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.inject.Singleton;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.fiware.iam.cache.IssuerWithValidities;
+import org.fiware.iam.configuration.SnapshotConfig;
+import org.fiware.iam.export.IssuerExporter;
+import org.fiware.iam.repository.RegistryVersionRepository;
+import org.fiware.iam.snapshot.RegistrySnapshot;
+import org.fiware.iam.snapshot.SnapshotWriter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Periodically writes a snapshot of the full registry to disk and maps it for reading. In between, the changes made
+ * through other instances are read from the change log, so that the changed issuers are no longer read from the
+ * snapshot.
+ */
+@Slf4j
+@Singleton
+@RequiredArgsConstructor
+public class SnapshotJob {
+
+	private final IssuerExporter issuerExporter;
+	private final RegistryVersionRepository registryVersionRepository;
+	private final RegistrySnapshot registrySnapshot;
+	private final SnapshotConfig snapshotConfig;
+
+	@Scheduled(fixedDelay = "${snapshot.interval:5m}", initialDelay = "${snapshot.initial-delay:1m}")
+	public void writeSnapshot() {
+		if (snapshotConfig.getReadMode() == SnapshotConfig.ReadMode.DISABLED) {
+			return;
+		}
+		// both are taken before reading, thus the snapshot contains at least their state
+		Set<String> dirtyDids = registrySnapshot.getDirtyDids();
+		long registryVersion = registryVersionRepository
+				.findVersionById(RegistryVersionRepository.REGISTRY_VERSION_ID)
+				.orElse(0L);
+		long start = System.nanoTime();
+		// closing the stream releases the database cursor, also if writing fails
+		try (Stream<IssuerWithValidities> issuers = issuerExporter.streamIssuers().toStream()) {
+			int size = SnapshotWriter.write(registrySnapshot.getPath(), registryVersion, issuers.iterator());
+			log.info("Wrote snapshot of {} issuers in {} ms.", size, (System.nanoTime() - start) / 1_000_000);
+		} catch (IOException | RuntimeException e) {
+			log.warn("Was not able to write the snapshot to {}.", registrySnapshot.getPath(), e);
+			return;
+		}
+		registrySnapshot.reload(dirtyDids);
+	}
+
+	@Scheduled(fixedDelay = "${snapshot.sync-interval:5s}")
+	public void syncChanges() {
+		try {
+			registrySnapshot.sync();
+		} catch (RuntimeException e) {
+			log.warn("Was not able to sync the snapshot with the change log.", e);
+		}
+	}
+}
@@ -0,0 +1,210 @@
+package org.fiware.iam.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micronaut.core.annotation.Nullable;
+import jakarta.inject.Singleton;
+import org.fiware.iam.configuration.RegistryMetricsConfig;
+import org.fiware.iam.repository.Claim;
+import org.fiware.iam.repository.Credential;
+import org.fiware.iam.repository.TrustedIssuer;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Fine-grained metrics of the registry: timers for the repositories, mappers and the forwarded-for filter and the sizes
+ * of the loaded issuer graphs. All meters of a disabled group are not registered and their recording is a no-op.
+ */
+@Singleton
+public class RegistryMetrics {
+
+	public static final String REPOSITORY_TIMER = "registry.repository";
+	public static final String MAPPER_TIMER = "registry.mapper";
+	public static final String FILTER_TIMER = "registry.filter";
+	public static final String CREDENTIALS_SUMMARY = "registry.issuer.credentials";
+	public static final String CLAIM_VALUES_SUMMARY = "registry.issuer.claim.values";
+	public static final String JOIN_ROWS_SUMMARY = "registry.issuer.join.rows";
+
+	/**
+	 * Mapping stages that are timed individually.
+	 */
+	public enum MapperStage {
+		/**
+		 * Issuer entity to the registry model, including the encoding of attributes that were not precomputed.
+		 */
+		TIR_ISSUER("tir.issuer"),
+		/**
+		 * Precomputation of the attribute bodies and hashes of an issuer.
+		 */
+		TIR_ATTRIBUTES("tir.attributes"),
+		/**
+		 * Issuer entity to the trusted issuers list model, including the parsing of the claim values.
+		 */
+		TIL_ISSUER("til.issuer"),
+		/**
+		 * Trusted issuers list model to the issuer entity.
+		 */
+		TIL_ENTITY("til.entity");
+
+		private final String stage;
+
+		MapperStage(String stage) {
+			this.stage = stage;
+		}
+	}
+
+	@Nullable
+	private final MeterRegistry meterRegistry;
+	private final RegistryMetricsConfig metricsConfig;
+
+	private final Map<MapperStage, Timer> mapperTimers = new EnumMap<>(MapperStage.class);
+	@Nullable
+	private final Timer filterTimer;
+	@Nullable
+	private final DistributionSummary credentialsSummary;
+	@Nullable
+	private final DistributionSummary claimValuesSummary;
+	@Nullable
+	private final DistributionSummary joinRowsSummary;
+
+	public RegistryMetrics(RegistryMetricsConfig metricsConfig, @Nullable MeterRegistry meterRegistry) {
+		this.metricsConfig = metricsConfig;
+		this.meterRegistry = meterRegistry;
+		if (meterRegistry != null && metricsConfig.isMappers()) {
+			for (MapperStage mapperStage : MapperStage.values()) {
+				mapperTimers.put(mapperStage, Timer.builder(MAPPER_TIMER)
+						.description("Time to map issuers between the models.")
+						.tag("stage", mapperStage.stage)
+						.publishPercentileHistogram(metricsConfig.isHistograms())
+						.register(meterRegistry));
+			}
+		}
+		this.filterTimer = meterRegistry != null && metricsConfig.isFilter()
+				? Timer.builder(FILTER_TIMER)
+				.description("Time to resolve the forwarded base uri of a request.")
+				.publishPercentileHistogram(metricsConfig.isHistograms())
+				.register(meterRegistry)
+				: null;
+		boolean graphSizes = meterRegistry != null && metricsConfig.isGraphSizes();
+		this.credentialsSummary = graphSizes
+				? sizeSummary(meterRegistry, CREDENTIALS_SUMMARY, "Credentials per loaded issuer.") : null;
+		this.claimValuesSummary = graphSizes
+				? sizeSummary(meterRegistry, CLAIM_VALUES_SUMMARY, "Claim values per loaded issuer.") : null;
+		this.joinRowsSummary = graphSizes
+				? sizeSummary(meterRegistry, JOIN_ROWS_SUMMARY, "Rows returned by the join per loaded issuer.") : null;
+	}
+
+	private DistributionSummary sizeSummary(MeterRegistry registry, String name, String description) {
+		return DistributionSummary.builder(name)
+				.description(description)
+				.publishPercentileHistogram(metricsConfig.isHistograms())
+				.register(registry);
+	}
+
+	/**
+	 * Timer for the given repository method, null if the repositories are not timed.
+	 *
+	 * @param repository name of the repository
+	 * @param method     name of the method
+	 * @return the timer
+	 */
+	@Nullable
+	Timer repositoryTimer(String repository, String method) {
+		if (meterRegistry == null || !metricsConfig.isRepositories()) {
+			return null;
+		}
+		return Timer.builder(REPOSITORY_TIMER)
+				.description("Time spent in the repository methods.")
+				.tag("repository", repository)
+				.tag("method", method)
+				.publishPercentileHistogram(metricsConfig.isHistograms())
+				.register(meterRegistry);
+	}
+
+	/**
+	 * @return true if the repositories are timed
+	 */
+	boolean isRepositoryTimingEnabled() {
+		return meterRegistry != null && metricsConfig.isRepositories();
+	}
+
+	/**
+	 * Time the given mapping.
+	 *
+	 * @param mapperStage stage the mapping belongs to
+	 * @param mapping     to execute
+	 * @param <T>         type of the mapping result
+	 * @return the result of the mapping
+	 */
+	public <T> T timeMapping(MapperStage mapperStage, Supplier<T> mapping) {
+		Timer timer = mapperTimers.get(mapperStage);
+		if (timer == null) {
+			return mapping.get();
+		}
+		long start = System.nanoTime();
+		try {
+			return mapping.get();
+		} finally {
+			timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	/**
+	 * Start timing the forwarded-for filter.
+	 *
+	 * @return start of the measurement, to be passed to {@link #stopFilter(long)}
+	 */
+	public long startFilter() {
+		return filterTimer == null ? 0 : System.nanoTime();
+	}
+
+	/**
+	 * Record the duration of the forwarded-for filter.
+	 *
+	 * @param start as returned by {@link #startFilter()}
+	 */
+	public void stopFilter(long start) {
+		if (filterTimer != null) {
+			filterTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	/**
+	 * Record the sizes of the given loaded issuers.
+	 *
+	 * @param trustedIssuers complete issuers, as loaded from the database
+	 */
+	public void recordGraphs(Collection<TrustedIssuer> trustedIssuers) {
+		if (credentialsSummary == null) {
+			return;
+		}
+		trustedIssuers.forEach(this::recordGraph);
+	}
+
+	private void recordGraph(TrustedIssuer trustedIssuer) {
+		Collection<Credential> credentials = Optional.ofNullable(trustedIssuer.getCredentials()).orElse(List.of());
+		long claimValues = 0;
+		// the left joins return one row per value, claims without values, credentials without claims and issuers
+		// without credentials still take one row each
+		long joinRows = 0;
+		for (Credential credential : credentials) {
+			long credentialRows = 0;
+			for (Claim claim : Optional.ofNullable(credential.getClaims()).orElse(List.of())) {
+				int values = Optional.ofNullable(claim.getClaimValues()).map(List::size).orElse(0);
+				claimValues += values;
+				credentialRows += Math.max(1, values);
+			}
+			joinRows += Math.max(1, credentialRows);
+		}
+		credentialsSummary.record(credentials.size());
+		claimValuesSummary.record(claimValues);
+		joinRowsSummary.record(Math.max(1, joinRows));
+	}
+}
@@ -0,0 +1,66 @@
+package org.fiware.iam.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micronaut.aop.InterceptorBean;
+import io.micronaut.aop.MethodInterceptor;
+import io.micronaut.aop.MethodInvocationContext;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.inject.ExecutableMethod;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the time of every call to a {@link TimedRepository}, tagged with the repository and the method. Reactive
+ * results are timed from their subscription until they terminate, all others until the method returns.
+ */
+@InterceptorBean(TimedRepository.class)
+@RequiredArgsConstructor
+public class RepositoryTimingInterceptor implements MethodInterceptor<Object, Object> {
+
+	private final RegistryMetrics registryMetrics;
+
+	// the timers are resolved once per method, since the lookup in the meter registry is not free
+	private final Map<ExecutableMethod<?, ?>, Optional<Timer>> timers = new ConcurrentHashMap<>();
+
+	@Nullable
+	@Override
+	public Object intercept(MethodInvocationContext<Object, Object> context) {
+		if (!registryMetrics.isRepositoryTimingEnabled()) {
+			return context.proceed();
+		}
+		Timer timer = timers.computeIfAbsent(context.getExecutableMethod(), method -> Optional.ofNullable(
+						registryMetrics.repositoryTimer(method.getDeclaringType().getSimpleName(), method.getMethodName())))
+				.orElse(null);
+		if (timer == null) {
+			return context.proceed();
+		}
+		long start = System.nanoTime();
+		Object result;
+		try {
+			result = context.proceed();
+		} catch (RuntimeException e) {
+			timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			throw e;
+		}
+		if (result instanceof Mono<?> mono) {
+			return Mono.defer(() -> {
+				long subscribedAt = System.nanoTime();
+				return mono.doFinally(signal -> timer.record(System.nanoTime() - subscribedAt, TimeUnit.NANOSECONDS));
+			});
+		}
+		if (result instanceof Flux<?> flux) {
+			return Flux.defer(() -> {
+				long subscribedAt = System.nanoTime();
+				return flux.doFinally(signal -> timer.record(System.nanoTime() - subscribedAt, TimeUnit.NANOSECONDS));
+			});
+		}
+		timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		return result;
+	}
+}
@@ -0,0 +1,99 @@
+package org.fiware.iam.repository;
+
+import io.micronaut.context.annotation.Requires;
+import jakarta.inject.Singleton;
+import lombok.RequiredArgsConstructor;
+import org.fiware.iam.metrics.RegistryMetrics;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Loads the issuer with one query per level, selecting the children of all parents of the previous level at once. Each
+ * row is transferred only once, the graph is assembled in memory. Preferable for issuers with many credentials, claims
+ * or values, where the join multiplies the rows.
+ */
+@Singleton
+@RequiredArgsConstructor
+@Requires(property = "issuer-loading.strategy", value = "BATCHED")
+public class BatchedIssuerGraphLoader implements IssuerGraphLoader {
+
+	// keeps the number of bind parameters below the limits of all supported databases
+	private static final int MAX_IDS_PER_QUERY = 1000;
+
+	private final TrustedIssuerRepository trustedIssuerRepository;
+	private final CredentialRepository credentialRepository;
+	private final ClaimRepository claimRepository;
+	private final ClaimValueRepository claimValueRepository;
+	private final RegistryMetrics registryMetrics;
+
+	@Override
+	public Optional<TrustedIssuer> load(String did) {
+		return loadAll(List.of(did)).stream().findFirst();
+	}
+
+	@Override
+	public List<TrustedIssuer> loadAll(Collection<String> dids) {
+		List<TrustedIssuer> trustedIssuers = trustedIssuerRepository.findDidByDidIn(dids).stream()
+				.map(did -> new TrustedIssuer().setDid(did))
+				.toList();
+		if (trustedIssuers.isEmpty()) {
+			return trustedIssuers;
+		}
+		List<Credential> credentials = credentialRepository.findByTrustedIssuerDidInOrderById(
+				trustedIssuers.stream().map(TrustedIssuer::getDid).toList());
+		return assemble(trustedIssuers, credentials);
+	}
+
+	@Override
+	public Optional<TrustedIssuer> load(String did, Instant validAt) {
+		if (!trustedIssuerRepository.existsById(did)) {
+			return Optional.empty();
+		}
+		List<Credential> credentials = findInChunks(
+				credentialRepository.findIdByTrustedIssuerDidAndValidAt(did, validAt),
+				credentialRepository::findByIdInOrderById);
+		return assemble(List.of(new TrustedIssuer().setDid(did)), credentials).stream().findFirst();
+	}
+
+	// attaches the claims and their values to the given credentials and the credentials to their issuers
+	private List<TrustedIssuer> assemble(List<TrustedIssuer> trustedIssuers, List<Credential> credentials) {
+		List<Claim> claims = findInChunks(credentials.stream().map(Credential::getId).toList(),
+				claimRepository::findByCredentialIdInOrderById);
+		List<ClaimValue> claimValues = findInChunks(claims.stream().map(Claim::getId).toList(),
+				claimValueRepository::findByClaimIdInOrderById);
+
+		Map<Integer, List<ClaimValue>> valuesByClaim = claimValues.stream()
+				.collect(Collectors.groupingBy(claimValue -> claimValue.getClaim().getId()));
+		claims.forEach(claim -> claim.setClaimValues(valuesByClaim.getOrDefault(claim.getId(), new ArrayList<>())));
+		Map<Integer, List<Claim>> claimsByCredential = claims.stream()
+				.collect(Collectors.groupingBy(claim -> claim.getCredential().getId()));
+		credentials.forEach(credential -> credential
+				.setClaims(claimsByCredential.getOrDefault(credential.getId(), new ArrayList<>())));
+		Map<String, List<Credential>> credentialsByIssuer = credentials.stream()
+				.collect(Collectors.groupingBy(credential -> credential.getTrustedIssuer().getDid()));
+		trustedIssuers.forEach(trustedIssuer -> {
+			List<Credential> issuerCredentials = credentialsByIssuer.getOrDefault(trustedIssuer.getDid(),
+					new ArrayList<>());
+			issuerCredentials.forEach(credential -> credential.setTrustedIssuer(trustedIssuer));
+			trustedIssuer.setCredentials(issuerCredentials);
+		});
+		registryMetrics.recordGraphs(trustedIssuers);
+		return trustedIssuers;
+	}
+
+	// grouping by the parent keeps the order of the ids, thus the order of the query
+	private static <T> List<T> findInChunks(List<Integer> ids, Function<Collection<Integer>, List<T>> finder) {
+		List<T> results = new ArrayList<>();
+		for (int from = 0; from < ids.size(); from += MAX_IDS_PER_QUERY) {
+			results.addAll(finder.apply(ids.subList(from, Math.min(from + MAX_IDS_PER_QUERY, ids.size()))));
+		}
+		return results;
+	}
+}
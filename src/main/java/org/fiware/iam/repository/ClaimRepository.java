@@ -0,0 +1,40 @@
+package org.fiware.iam.repository;
+
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.data.annotation.Id;
+import io.micronaut.data.repository.CrudRepository;
+import org.fiware.iam.metrics.TimedRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Extension of the base repository to support {@link Claim}
+ */
+@TimedRepository
+public interface ClaimRepository extends CrudRepository<Claim, Integer> {
+
+	/**
+	 * Find the claims of the given credentials, without their values.
+	 *
+	 * @param credentialIds ids of the credentials
+	 * @return the claims, ordered by id
+	 */
+	List<Claim> findByCredentialIdInOrderById(Collection<Integer> credentialIds);
+
+	/**
+	 * Update the columns of a single claim, without touching its values.
+	 *
+	 * @param id   of the claim
+	 * @param name of the claim
+	 * @param path json path of the claim
+	 */
+	void update(@Id Integer id, String name, @Nullable String path);
+
+	/**
+	 * Delete the claims with the given ids. Their values are removed by the database.
+	 *
+	 * @param ids of the claims
+	 */
+	void deleteByIdIn(Collection<Integer> ids);
+}
@@ -37,6 +37,9 @@ public class ClaimValue {
 	// should be serialized json
 	private String value;
 
+	// type of the serialized json
+	private ClaimValueType valueType;
+
 	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "claim_id")
 	@JsonIgnore
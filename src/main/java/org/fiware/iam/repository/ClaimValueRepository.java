@@ -0,0 +1,39 @@
+package org.fiware.iam.repository;
+
+import io.micronaut.data.annotation.Id;
+import io.micronaut.data.repository.CrudRepository;
+import org.fiware.iam.metrics.TimedRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Extension of the base repository to support {@link ClaimValue}
+ */
+@TimedRepository
+public interface ClaimValueRepository extends CrudRepository<ClaimValue, Integer> {
+
+	/**
+	 * Find the values of the given claims.
+	 *
+	 * @param claimIds ids of the claims
+	 * @return the values, ordered by id
+	 */
+	List<ClaimValue> findByClaimIdInOrderById(Collection<Integer> claimIds);
+
+	/**
+	 * Update a single claim value.
+	 *
+	 * @param id        of the value
+	 * @param value     serialized json of the value
+	 * @param valueType json type of the value
+	 */
+	void update(@Id Integer id, String value, ClaimValueType valueType);
+
+	/**
+	 * Delete the values with the given ids.
+	 *
+	 * @param ids of the values
+	 */
+	void deleteByIdIn(Collection<Integer> ids);
+}
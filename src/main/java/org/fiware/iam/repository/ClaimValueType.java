@@ -0,0 +1,35 @@
+package org.fiware.iam.repository;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Json type of a stored {@link ClaimValue}, used to read the value without probing for its type.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ClaimValueType {
+
+	NUMBER(Number.class),
+	STRING(String.class),
+	BOOLEAN(Boolean.class),
+	OBJECT(Object.class);
+
+	// class the serialized value is read to
+	private final Class<?> javaType;
+
+	/**
+	 * Get the type of the given (deserialized) claim value.
+	 *
+	 * @param value as provided through the api, might be null
+	 * @return the type to store the value with
+	 */
+	public static ClaimValueType of(Object value) {
+		return switch (value) {
+			case Number ignored -> NUMBER;
+			case String ignored -> STRING;
+			case Boolean ignored -> BOOLEAN;
+			case null, default -> OBJECT;
+		};
+	}
+}
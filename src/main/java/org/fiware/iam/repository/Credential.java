@@ -42,6 +42,14 @@ public class Credential {
 
 	private String credentialsType;
 
+	// base64 encoded body of the credential, as provided by the trusted issuers registry
+	@Nullable
+	private String attributeBody;
+
+	// base64 encoded sha-256 hash of the attribute body
+	@Nullable
+	private String attributeHash;
+
 	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "trusted_issuer_id")
 	private TrustedIssuer trustedIssuer;
@@ -1,10 +1,178 @@
 package org.fiware.iam.repository;
 
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.data.annotation.Id;
+import io.micronaut.data.annotation.Join;
+import io.micronaut.data.annotation.Query;
+import io.micronaut.data.model.Pageable;
 import io.micronaut.data.repository.PageableRepository;
+import org.fiware.iam.metrics.TimedRepository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Extension of the base repository to support {@link Credential}
  */
+@TimedRepository
 public interface CredentialRepository extends PageableRepository<Credential, Integer> {
 
+	/**
+	 * Find the ids of credentials that do not have a precomputed attribute yet.
+	 *
+	 * @param id       only ids greater than the given one will be returned
+	 * @param pageable the page to return
+	 * @return list of credential ids
+	 */
+	List<Integer> findIdByAttributeHashIsNullAndIdGreaterThan(Integer id, Pageable pageable);
+
+	/**
+	 * Find the credentials of the given issuers, without their claims.
+	 *
+	 * @param dids of the issuers
+	 * @return the credentials, ordered by id
+	 */
+	List<Credential> findByTrustedIssuerDidInOrderById(Collection<String> dids);
+
+	/**
+	 * Find the ids of the credentials of the given issuer that are valid at the given time. Both bounds of the
+	 * validity are inclusive, credentials without a bound are valid on that side.
+	 *
+	 * @param did     of the issuer
+	 * @param validAt time the credentials have to be valid at
+	 * @return the credential ids, ascending
+	 */
+	@Query("SELECT id FROM credential WHERE trusted_issuer_id = :did AND (valid_from IS NULL OR valid_from <= :validAt) AND (valid_to IS NULL OR valid_to >= :validAt) ORDER BY id")
+	List<Integer> findIdByTrustedIssuerDidAndValidAt(String did, Instant validAt);
+
+	/**
+	 * Find credentials by their ids, without their claims.
+	 *
+	 * @param ids of the credentials
+	 * @return the credentials, ordered by id
+	 */
+	List<Credential> findByIdInOrderById(Collection<Integer> ids);
+
+	/**
+	 * Find the dids of the issuers that hold a credential of the given type, read from the index on type and issuer.
+	 *
+	 * @param credentialsType type of the credentials
+	 * @param did             only dids greater than the given one will be returned
+	 * @param limit           maximum number of dids to return
+	 * @return the dids, ascending
+	 */
+	@Query("SELECT DISTINCT trusted_issuer_id FROM credential WHERE credentials_type = :credentialsType AND trusted_issuer_id > :did ORDER BY trusted_issuer_id ASC LIMIT :limit")
+	List<String> findTrustedIssuerDidByCredentialsTypeAndDidGreaterThan(String credentialsType, String did, int limit);
+
+	/**
+	 * Find the dids of the issuers that hold a credential of the given type, in front of the given did.
+	 *
+	 * @param credentialsType type of the credentials
+	 * @param did             only dids less than the given one will be returned
+	 * @param limit           maximum number of dids to return
+	 * @return the dids, descending
+	 */
+	@Query("SELECT DISTINCT trusted_issuer_id FROM credential WHERE credentials_type = :credentialsType AND trusted_issuer_id < :did ORDER BY trusted_issuer_id DESC LIMIT :limit")
+	List<String> findTrustedIssuerDidByCredentialsTypeAndDidLessThan(String credentialsType, String did, int limit);
+
+	/**
+	 * Find credentials by their ids. All claims and their values will be returned through left-joins.
+	 *
+	 * @param ids of the credentials
+	 * @return the complete credentials
+	 */
+	@Join(value = "claims", type = Join.Type.LEFT_FETCH)
+	@Join(value = "claims.claimValues", type = Join.Type.LEFT_FETCH)
+	List<Credential> findByIdIn(Collection<Integer> ids);
+
+	/**
+	 * Find the ids of the credentials that expired before the given time. The pageable should be sorted ascending by
+	 * the end of the validity and only limit the result, not offset it.
+	 *
+	 * @param validTo  only credentials valid until before the given time are returned
+	 * @param pageable limit and order of the result
+	 * @return list of credential ids
+	 */
+	List<Integer> findIdByValidToLessThan(Instant validTo, Pageable pageable);
+
+	/**
+	 * Find the ids of the given credentials that expired before the given time.
+	 *
+	 * @param ids     of the credentials
+	 * @param validTo only credentials valid until before the given time are returned
+	 * @return list of credential ids
+	 */
+	List<Integer> findIdByIdInAndValidToLessThan(Collection<Integer> ids, Instant validTo);
+
+	/**
+	 * Find the end of the validity of the credential that expires first, read from the index on the validity.
+	 *
+	 * @return the earliest end of a validity, null if no credential has one
+	 */
+	@Nullable
+	Instant findMinValidTo();
+
+	/**
+	 * Find the dids of the issuers of the given credentials.
+	 *
+	 * @param ids of the credentials
+	 * @return the distinct dids
+	 */
+	@Query("SELECT DISTINCT trusted_issuer_id FROM credential WHERE id IN (:ids)")
+	List<String> findTrustedIssuerDidByIdIn(Collection<Integer> ids);
+
+	/**
+	 * Copy the values of the claims of the given credentials into the archive.
+	 *
+	 * @param ids of the credentials
+	 */
+	@Query("INSERT INTO claim_value_archive (id, value, value_type, claim_id) SELECT claim_value.id, claim_value.value, claim_value.value_type, claim_value.claim_id FROM claim_value JOIN claim ON claim.id = claim_value.claim_id WHERE claim.credential_id IN (:ids)")
+	void archiveClaimValues(Collection<Integer> ids);
+
+	/**
+	 * Copy the claims of the given credentials into the archive.
+	 *
+	 * @param ids of the credentials
+	 */
+	@Query("INSERT INTO claim_archive (id, name, path, credential_id) SELECT id, name, path, credential_id FROM claim WHERE credential_id IN (:ids)")
+	void archiveClaims(Collection<Integer> ids);
+
+	/**
+	 * Copy the given credentials into the archive. Their claims have to be archived separately.
+	 *
+	 * @param ids of the credentials
+	 */
+	@Query("INSERT INTO credential_archive (id, valid_from, valid_to, credentials_type, trusted_issuer_id, attribute_body, attribute_hash) SELECT id, valid_from, valid_to, credentials_type, trusted_issuer_id, attribute_body, attribute_hash FROM credential WHERE id IN (:ids)")
+	void archiveCredentials(Collection<Integer> ids);
+
+	/**
+	 * Update the columns of a single credential, without touching its claims.
+	 *
+	 * @param id              of the credential
+	 * @param credentialsType type of the credential
+	 * @param validFrom       start of the validity
+	 * @param validTo         end of the validity
+	 * @param attributeBody   the base64 encoded body
+	 * @param attributeHash   the hash of the body
+	 */
+	void update(@Id Integer id, String credentialsType, @Nullable Instant validFrom, @Nullable Instant validTo,
+			@Nullable String attributeBody, @Nullable String attributeHash);
+
+	/**
+	 * Delete the credentials with the given ids. Their claims are removed by the database.
+	 *
+	 * @param ids of the credentials
+	 */
+	void deleteByIdIn(Collection<Integer> ids);
+
+	/**
+	 * Set the precomputed attribute of a credential, in case it was not set in the meantime.
+	 *
+	 * @param id            of the credential
+	 * @param attributeBody the base64 encoded body
+	 * @param attributeHash the hash of the body
+	 */
+	@Query("UPDATE credential SET attribute_body = :attributeBody, attribute_hash = :attributeHash WHERE id = :id AND attribute_hash IS NULL")
+	void updateAttribute(Integer id, String attributeBody, String attributeHash);
 }
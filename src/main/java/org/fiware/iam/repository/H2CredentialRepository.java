@@ -1,9 +1,12 @@
 package org.fiware.iam.repository;
 
 import io.micronaut.context.annotation.Requires;
+import io.micronaut.data.annotation.Query;
 import io.micronaut.data.jdbc.annotation.JdbcRepository;
 import io.micronaut.data.model.query.builder.sql.Dialect;
 
+import java.util.Collection;
+
 /**
  * Extension of the {@link CredentialRepository} for the H2-dialect
  */
@@ -11,4 +14,8 @@ import io.micronaut.data.model.query.builder.sql.Dialect;
 @JdbcRepository(dialect = Dialect.H2)
 public interface H2CredentialRepository extends CredentialRepository {
 
+	// value is a keyword in h2, thus the column has to be quoted
+	@Override
+	@Query("INSERT INTO claim_value_archive (id, `value`, value_type, claim_id) SELECT claim_value.id, claim_value.`value`, claim_value.value_type, claim_value.claim_id FROM claim_value JOIN claim ON claim.id = claim_value.claim_id WHERE claim.credential_id IN (:ids)")
+	void archiveClaimValues(Collection<Integer> ids);
 }
@@ -0,0 +1,14 @@
+package org.fiware.iam.repository;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.data.model.query.builder.sql.Dialect;
+import io.micronaut.data.r2dbc.annotation.R2dbcRepository;
+
+/**
+ * Extension of the {@link ReactiveRegistryVersionRepository} for the H2-dialect
+ */
+@Requires(property = "registry-reads.backend", value = "R2DBC")
+@Requires(property = "datasources.default.dialect", value = "H2")
+@R2dbcRepository(dialect = Dialect.H2)
+public interface H2ReactiveRegistryVersionRepository extends ReactiveRegistryVersionRepository {
+}
@@ -0,0 +1,32 @@
+package org.fiware.iam.repository;
+
+import io.micronaut.core.annotation.Introspected;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.experimental.Accessors;
+import org.fiware.iam.event.IssuerChangedEvent;
+
+import java.time.Instant;
+
+/**
+ * Data entity to represent an entry of the change log. Every change to an issuer is recorded with a sequence number,
+ * that is taken from the registry version.
+ */
+@Introspected
+@Accessors(chain = true)
+@Data
+@Entity
+@EqualsAndHashCode
+public class IssuerChange {
+
+	@Id
+	private Long sequenceNumber;
+
+	private String did;
+
+	private IssuerChangedEvent.ChangeType changeType;
+
+	private Instant changedAt;
+}
@@ -0,0 +1,24 @@
+package org.fiware.iam.repository;
+
+import io.micronaut.data.model.Pageable;
+import io.micronaut.data.repository.CrudRepository;
+import org.fiware.iam.metrics.TimedRepository;
+
+import java.util.List;
+
+/**
+ * Repository to write and read the change log of the issuers.
+ */
+@TimedRepository
+public interface IssuerChangeRepository extends CrudRepository<IssuerChange, Long> {
+
+	/**
+	 * Find the changes after the given sequence number. The pageable should be sorted ascending by sequence number and
+	 * only limit the result, not offset it.
+	 *
+	 * @param sequenceNumber only changes with a greater sequence number are returned
+	 * @param pageable       limit and order of the result
+	 * @return list of changes
+	 */
+	List<IssuerChange> findBySequenceNumberGreaterThan(long sequenceNumber, Pageable pageable);
+}
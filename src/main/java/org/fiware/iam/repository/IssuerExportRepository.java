@@ -0,0 +1,143 @@
+package org.fiware.iam.repository;
+
+import io.micronaut.context.annotation.Value;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.data.connection.jdbc.advice.DelegatingDataSource;
+import io.micronaut.data.exceptions.DataAccessException;
+import io.micronaut.data.model.query.builder.sql.Dialect;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import org.fiware.iam.configuration.ExportConfig;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+/**
+ * Streams the stored attributes of all issuers through a server-side cursor. The rows are read on demand, thus only
+ * the rows of the current fetch are held in memory, independent of the size of the registry.
+ */
+@Slf4j
+@Singleton
+public class IssuerExportRepository {
+
+	// one row per credential, issuers without credentials get a single row without credential
+	private static final String EXPORT_QUERY = "SELECT ti.did, c.id, c.attribute_body, c.attribute_hash, "
+			+ "c.valid_from, c.valid_to "
+			+ "FROM trusted_issuer ti LEFT JOIN credential c ON c.trusted_issuer_id = ti.did "
+			+ "ORDER BY ti.did, c.id";
+
+	private final DataSource dataSource;
+	private final Dialect dialect;
+	private final ExportConfig exportConfig;
+
+	public IssuerExportRepository(DataSource dataSource,
+			@Value("${datasources.default.dialect:MYSQL}") Dialect dialect,
+			ExportConfig exportConfig) {
+		// the cursor lives outside any micronaut managed transaction, thus the plain datasource is used
+		this.dataSource = DelegatingDataSource.unwrapDataSource(dataSource);
+		this.dialect = dialect;
+		this.exportConfig = exportConfig;
+	}
+
+	/**
+	 * A stored credential of an issuer, as returned by the export.
+	 *
+	 * @param did            of the issuer
+	 * @param credentialId   id of the credential, null if the issuer has no credentials
+	 * @param attributeBody  precomputed attribute body, null if not yet computed
+	 * @param attributeHash  precomputed attribute hash, null if not yet computed
+	 * @param validFrom      start of the validity of the credential, null if open
+	 * @param validTo        end of the validity of the credential, null if open
+	 */
+	public record ExportRow(String did, @Nullable Integer credentialId, @Nullable String attributeBody,
+			@Nullable String attributeHash, @Nullable Instant validFrom, @Nullable Instant validTo) {
+	}
+
+	/**
+	 * Stream the credentials of all issuers, ordered by did. The connection is held until the stream completes or is
+	 * cancelled.
+	 *
+	 * @return the rows of all issuers
+	 */
+	public Flux<ExportRow> streamAll() {
+		return Flux.using(ExportCursor::new, cursor -> Flux.<ExportRow>generate(sink -> {
+					ExportRow exportRow = cursor.next();
+					if (exportRow == null) {
+						sink.complete();
+					} else {
+						sink.next(exportRow);
+					}
+				}), ExportCursor::close)
+				// jdbc is blocking, the rows are read on demand from a worker thread
+				.subscribeOn(Schedulers.boundedElastic());
+	}
+
+	private class ExportCursor implements AutoCloseable {
+
+		private final Connection connection;
+		private final PreparedStatement statement;
+		private final ResultSet resultSet;
+
+		ExportCursor() {
+			try {
+				connection = dataSource.getConnection();
+				// postgres only uses a cursor inside a transaction
+				connection.setAutoCommit(false);
+				connection.setReadOnly(true);
+				statement = connection.prepareStatement(EXPORT_QUERY, ResultSet.TYPE_FORWARD_ONLY,
+						ResultSet.CONCUR_READ_ONLY);
+				// mysql only streams the results with this special fetch size
+				statement.setFetchSize(dialect == Dialect.MYSQL ? Integer.MIN_VALUE : exportConfig.getFetchSize());
+				resultSet = statement.executeQuery();
+			} catch (SQLException e) {
+				close();
+				throw new DataAccessException("Was not able to open the export cursor.", e);
+			}
+		}
+
+		@Nullable
+		ExportRow next() {
+			try {
+				if (!resultSet.next()) {
+					return null;
+				}
+				// issuers without credentials are returned with a null credential id
+				return new ExportRow(
+						resultSet.getString(1),
+						resultSet.getObject(2, Integer.class),
+						resultSet.getString(3),
+						resultSet.getString(4),
+						getInstant(5),
+						getInstant(6));
+			} catch (SQLException e) {
+				throw new DataAccessException("Was not able to read the export cursor.", e);
+			}
+		}
+
+		@Nullable
+		private Instant getInstant(int column) throws SQLException {
+			Timestamp timestamp = resultSet.getTimestamp(column);
+			return timestamp == null ? null : timestamp.toInstant();
+		}
+
+		@Override
+		public void close() {
+			try {
+				if (connection != null) {
+					// nothing was written, only ends the transaction holding the cursor
+					connection.rollback();
+					connection.close();
+				}
+			} catch (SQLException e) {
+				log.warn("Was not able to close the export cursor.", e);
+			}
+		}
+	}
+}
@@ -0,0 +1,38 @@
+package org.fiware.iam.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Loads a {@link TrustedIssuer} together with all its credentials, claims and claim values. The strategy is selected
+ * through the property "issuer-loading.strategy", either JOIN or BATCHED.
+ */
+public interface IssuerGraphLoader {
+
+	/**
+	 * Load the complete issuer.
+	 *
+	 * @param did of the issuer
+	 * @return the issuer, if it exists
+	 */
+	Optional<TrustedIssuer> load(String did);
+
+	/**
+	 * Load the issuer with the credentials that are valid at the given time only. The other credentials are not read.
+	 *
+	 * @param did     of the issuer
+	 * @param validAt time the credentials have to be valid at
+	 * @return the issuer, if it exists
+	 */
+	Optional<TrustedIssuer> load(String did, Instant validAt);
+
+	/**
+	 * Load multiple complete issuers at once, with the same number of queries as a single issuer.
+	 *
+	 * @param dids of the issuers, not more than a single query can bind
+	 * @return the existing issuers, in no particular order
+	 */
+	List<TrustedIssuer> loadAll(Collection<String> dids);
+}
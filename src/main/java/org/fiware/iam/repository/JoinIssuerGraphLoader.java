@@ -0,0 +1,57 @@
+package org.fiware.iam.repository;
+
+import io.micronaut.context.annotation.Requires;
+import jakarta.inject.Singleton;
+import lombok.RequiredArgsConstructor;
+import org.fiware.iam.metrics.RegistryMetrics;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Loads the issuer with a single query, joining all levels. Every value of the issuer is returned as its own row,
+ * carrying the columns of its claim, credential and issuer.
+ */
+@Singleton
+@RequiredArgsConstructor
+@Requires(property = "issuer-loading.strategy", notEquals = "BATCHED")
+public class JoinIssuerGraphLoader implements IssuerGraphLoader {
+
+	private final TrustedIssuerRepository trustedIssuerRepository;
+	private final CredentialRepository credentialRepository;
+	private final RegistryMetrics registryMetrics;
+
+	@Override
+	public Optional<TrustedIssuer> load(String did) {
+		Optional<TrustedIssuer> trustedIssuer = trustedIssuerRepository.getByDid(did);
+		trustedIssuer.ifPresent(issuer -> registryMetrics.recordGraphs(List.of(issuer)));
+		return trustedIssuer;
+	}
+
+	/**
+	 * Joins the claims and their values of the valid credentials only, selected by their ids.
+	 */
+	@Override
+	public Optional<TrustedIssuer> load(String did, Instant validAt) {
+		if (!trustedIssuerRepository.existsById(did)) {
+			return Optional.empty();
+		}
+		List<Integer> validIds = credentialRepository.findIdByTrustedIssuerDidAndValidAt(did, validAt);
+		TrustedIssuer trustedIssuer = new TrustedIssuer().setDid(did);
+		List<Credential> credentials = validIds.isEmpty() ? List.of() : credentialRepository.findByIdIn(validIds);
+		credentials.forEach(credential -> credential.setTrustedIssuer(trustedIssuer));
+		trustedIssuer.setCredentials(credentials.stream().sorted(Comparator.comparing(Credential::getId)).toList());
+		registryMetrics.recordGraphs(List.of(trustedIssuer));
+		return Optional.of(trustedIssuer);
+	}
+
+	@Override
+	public List<TrustedIssuer> loadAll(Collection<String> dids) {
+		List<TrustedIssuer> trustedIssuers = trustedIssuerRepository.findByDidIn(dids);
+		registryMetrics.recordGraphs(trustedIssuers);
+		return trustedIssuers;
+	}
+}
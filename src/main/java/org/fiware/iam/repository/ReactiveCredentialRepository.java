@@ -0,0 +1,75 @@
+package org.fiware.iam.repository;
+
+import io.micronaut.data.annotation.Join;
+import io.micronaut.data.annotation.Query;
+import io.micronaut.data.repository.GenericRepository;
+import org.fiware.iam.metrics.TimedRepository;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+import java.util.Collection;
+
+/**
+ * Non-blocking reads of {@link Credential}s, see {@link ReactiveTrustedIssuerRepository}.
+ */
+@TimedRepository
+public interface ReactiveCredentialRepository extends GenericRepository<Credential, Integer> {
+
+	/**
+	 * Find the credentials of the given issuers, without their claims.
+	 *
+	 * @param dids of the issuers
+	 * @return the credentials, ordered by id
+	 */
+	Flux<Credential> findByTrustedIssuerDidInOrderById(Collection<String> dids);
+
+	/**
+	 * See {@link CredentialRepository#findTrustedIssuerDidByCredentialsTypeAndDidGreaterThan(String, String, int)}.
+	 *
+	 * @param credentialsType type of the credentials
+	 * @param did             only dids greater than the given one will be returned
+	 * @param limit           maximum number of dids to return
+	 * @return the dids, ascending
+	 */
+	@Query("SELECT DISTINCT trusted_issuer_id FROM credential WHERE credentials_type = :credentialsType AND trusted_issuer_id > :did ORDER BY trusted_issuer_id ASC LIMIT :limit")
+	Flux<String> findTrustedIssuerDidByCredentialsTypeAndDidGreaterThan(String credentialsType, String did, int limit);
+
+	/**
+	 * See {@link CredentialRepository#findTrustedIssuerDidByCredentialsTypeAndDidLessThan(String, String, int)}.
+	 *
+	 * @param credentialsType type of the credentials
+	 * @param did             only dids less than the given one will be returned
+	 * @param limit           maximum number of dids to return
+	 * @return the dids, descending
+	 */
+	@Query("SELECT DISTINCT trusted_issuer_id FROM credential WHERE credentials_type = :credentialsType AND trusted_issuer_id < :did ORDER BY trusted_issuer_id DESC LIMIT :limit")
+	Flux<String> findTrustedIssuerDidByCredentialsTypeAndDidLessThan(String credentialsType, String did, int limit);
+
+	/**
+	 * See {@link CredentialRepository#findIdByTrustedIssuerDidAndValidAt(String, Instant)}.
+	 *
+	 * @param did     of the issuer
+	 * @param validAt time the credentials have to be valid at
+	 * @return the credential ids, ascending
+	 */
+	@Query("SELECT id FROM credential WHERE trusted_issuer_id = :did AND (valid_from IS NULL OR valid_from <= :validAt) AND (valid_to IS NULL OR valid_to >= :validAt) ORDER BY id")
+	Flux<Integer> findIdByTrustedIssuerDidAndValidAt(String did, Instant validAt);
+
+	/**
+	 * Find credentials by their ids, without their claims.
+	 *
+	 * @param ids of the credentials
+	 * @return the credentials, ordered by id
+	 */
+	Flux<Credential> findByIdInOrderById(Collection<Integer> ids);
+
+	/**
+	 * Find credentials by their ids. All claims and their values will be returned through left-joins.
+	 *
+	 * @param ids of the credentials
+	 * @return the complete credentials
+	 */
+	@Join(value = "claims", type = Join.Type.LEFT_FETCH)
+	@Join(value = "claims.claimValues", type = Join.Type.LEFT_FETCH)
+	Flux<Credential> findByIdIn(Collection<Integer> ids);
+}
@@ -0,0 +1,20 @@
+package org.fiware.iam.repository;
+
+import io.micronaut.data.repository.GenericRepository;
+import org.fiware.iam.metrics.TimedRepository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking read of the registry version, see {@link ReactiveTrustedIssuerRepository}.
+ */
+@TimedRepository
+public interface ReactiveRegistryVersionRepository extends GenericRepository<RegistryVersion, Integer> {
+
+	/**
+	 * Find the version stored in the row with the given id.
+	 *
+	 * @param id of the row, always {@link RegistryVersionRepository#REGISTRY_VERSION_ID}
+	 * @return the current version
+	 */
+	Mono<Long> findVersionById(Integer id);
+}
@@ -0,0 +1,58 @@
+package org.fiware.iam.repository;
+
+import io.micronaut.data.model.Pageable;
+import io.micronaut.data.repository.GenericRepository;
+import org.fiware.iam.metrics.TimedRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+/**
+ * Non-blocking reads of {@link TrustedIssuer}s, used by the trusted issuers registry if the reads are configured to go
+ * through R2DBC. See {@link TrustedIssuerRepository} for the blocking counterparts.
+ */
+@TimedRepository
+public interface ReactiveTrustedIssuerRepository extends GenericRepository<TrustedIssuer, String> {
+
+	/**
+	 * Find which of the given dids exist.
+	 *
+	 * @param dids to check
+	 * @return the existing dids
+	 */
+	Flux<String> findDidByDidIn(Collection<String> dids);
+
+	/**
+	 * Find the dids of all issuers after the given anchor, see
+	 * {@link TrustedIssuerRepository#findDidByDidGreaterThan(String, Pageable)}.
+	 *
+	 * @param did      the anchor, only greater dids are returned
+	 * @param pageable limit and order of the result
+	 * @return the dids
+	 */
+	Flux<String> findDidByDidGreaterThan(String did, Pageable pageable);
+
+	/**
+	 * Find the dids of all issuers before the given anchor, see
+	 * {@link TrustedIssuerRepository#findDidByDidLessThan(String, Pageable)}.
+	 *
+	 * @param did      the anchor, only smaller dids are returned
+	 * @param pageable limit and order of the result
+	 * @return the dids
+	 */
+	Flux<String> findDidByDidLessThan(String did, Pageable pageable);
+
+	/**
+	 * Find the dids of all issuers.
+	 *
+	 * @param pageable limit and order of the result
+	 * @return the dids
+	 */
+	Flux<String> findDidByDidIsNotNull(Pageable pageable);
+
+	/**
+	 * @return the total number of issuers
+	 */
+	Mono<Long> count();
+}
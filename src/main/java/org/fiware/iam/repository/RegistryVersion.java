@@ -0,0 +1,25 @@
+package org.fiware.iam.repository;
+
+import io.micronaut.core.annotation.Introspected;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.experimental.Accessors;
+
+/**
+ * Data entity to represent the version of the registry. The table holds a single row, that is incremented with every
+ * change to the issuers.
+ */
+@Introspected
+@Accessors(chain = true)
+@Data
+@Entity
+@EqualsAndHashCode
+public class RegistryVersion {
+
+	@Id
+	private Integer id;
+
+	private Long version;
+}
@@ -0,0 +1,36 @@
+package org.fiware.iam.repository;
+
+import io.micronaut.data.annotation.Query;
+import io.micronaut.data.repository.GenericRepository;
+import org.fiware.iam.metrics.TimedRepository;
+
+import java.util.Optional;
+
+/**
+ * Repository to read and increment the version of the registry.
+ */
+@TimedRepository
+public interface RegistryVersionRepository extends GenericRepository<RegistryVersion, Integer> {
+
+	/**
+	 * Id of the single row holding the version.
+	 */
+	int REGISTRY_VERSION_ID = 1;
+
+	/**
+	 * Find the version stored in the row with the given id.
+	 *
+	 * @param id of the row, always {@link #REGISTRY_VERSION_ID}
+	 * @return the current version
+	 */
+	Optional<Long> findVersionById(Integer id);
+
+	/**
+	 * Increment the version by the given number of changes. Has to be called in the same transaction as the changes to
+	 * the issuers. The updated row stays locked until the transaction ends, thus concurrent changes are serialized.
+	 *
+	 * @param count number of changes
+	 */
+	@Query("UPDATE registry_version SET version = version + :count WHERE id = 1")
+	void increment(long count);
+}
@@ -1,13 +1,18 @@
 package org.fiware.iam.repository;
 
 import io.micronaut.data.annotation.Join;
+import io.micronaut.data.model.Pageable;
 import io.micronaut.data.repository.PageableRepository;
+import org.fiware.iam.metrics.TimedRepository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
  * Extension of the base repository to support {@link TrustedIssuer}
  */
+@TimedRepository
 public interface TrustedIssuerRepository extends PageableRepository<TrustedIssuer, String> {
 
 	/**
@@ -20,5 +25,52 @@ public interface TrustedIssuerRepository extends PageableRepository<TrustedIssue
 	@Join(value = "credentials.claims", type = Join.Type.LEFT_FETCH)
 	@Join(value = "credentials.claims.claimValues", type = Join.Type.LEFT_FETCH)
 	Optional<TrustedIssuer> getByDid(String did);
+
+	/**
+	 * Find multiple issuers by their DIDs, joined like {@link #getByDid(String)}.
+	 *
+	 * @param dids of the issuers
+	 * @return the complete issuers
+	 */
+	@Join(value = "credentials", type = Join.Type.LEFT_FETCH)
+	@Join(value = "credentials.claims", type = Join.Type.LEFT_FETCH)
+	@Join(value = "credentials.claims.claimValues", type = Join.Type.LEFT_FETCH)
+	List<TrustedIssuer> findByDidIn(Collection<String> dids);
+
+	/**
+	 * Find the dids of all issuers after the given anchor. Used for keyset-pagination, the pageable should be sorted
+	 * ascending by did and only limit the result, not offset it.
+	 *
+	 * @param did      the anchor, only greater dids are returned
+	 * @param pageable limit and order of the result
+	 * @return list of dids
+	 */
+	List<String> findDidByDidGreaterThan(String did, Pageable pageable);
+
+	/**
+	 * Find the dids of all issuers before the given anchor. Used for keyset-pagination, the pageable should be sorted
+	 * descending by did and only limit the result, not offset it.
+	 *
+	 * @param did      the anchor, only smaller dids are returned
+	 * @param pageable limit and order of the result
+	 * @return list of dids
+	 */
+	List<String> findDidByDidLessThan(String did, Pageable pageable);
+
+	/**
+	 * Find the dids of all issuers.
+	 *
+	 * @param pageable limit and order of the result
+	 * @return list of dids
+	 */
+	List<String> findDidByDidIsNotNull(Pageable pageable);
+
+	/**
+	 * Find which of the given dids already exist.
+	 *
+	 * @param dids to check
+	 * @return the existing dids
+	 */
+	List<String> findDidByDidIn(Collection<String> dids);
 }
 
@@ -0,0 +1,269 @@
+package org.fiware.iam.rest;
+
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.data.exceptions.DataAccessException;
+import io.micronaut.transaction.TransactionOperations;
+import jakarta.inject.Singleton;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.fiware.iam.TILMapper;
+import org.fiware.iam.TIRMapper;
+import org.fiware.iam.changes.IssuerChangePublisher;
+import org.fiware.iam.configuration.BulkImportConfig;
+import org.fiware.iam.event.IssuerChangedEvent;
+import org.fiware.iam.repository.Claim;
+import org.fiware.iam.repository.ClaimRepository;
+import org.fiware.iam.repository.ClaimValue;
+import org.fiware.iam.repository.ClaimValueRepository;
+import org.fiware.iam.repository.Credential;
+import org.fiware.iam.repository.CredentialRepository;
+import org.fiware.iam.repository.TrustedIssuer;
+import org.fiware.iam.repository.TrustedIssuerRepository;
+import org.fiware.iam.til.model.BulkImportItemResultVO;
+import org.fiware.iam.til.model.BulkImportResultVO;
+import org.fiware.iam.til.model.CredentialsVO;
+import org.fiware.iam.til.model.TrustedIssuerVO;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Creates lists of issuers in chunked transactions. Each chunk is checked for existing issuers with a single query and
+ * inserted level by level, with one batched statement per table. If a chunk fails, its issuers are created one by one,
+ * so that a single issuer cannot prevent the others from being created.
+ */
+@Slf4j
+@Singleton
+@RequiredArgsConstructor
+public class BulkIssuerImporter {
+
+	private final TrustedIssuerRepository trustedIssuerRepository;
+	private final CredentialRepository credentialRepository;
+	private final ClaimRepository claimRepository;
+	private final ClaimValueRepository claimValueRepository;
+	private final IssuerChangePublisher issuerChangePublisher;
+	private final TILMapper trustedIssuerMapper;
+	private final TIRMapper attributeMapper;
+	private final TransactionOperations<Connection> transactionOperations;
+	private final BulkImportConfig bulkImportConfig;
+
+	/**
+	 * Create the given issuers.
+	 *
+	 * @param trustedIssuerVOS issuers to create, entries that could not be read are null
+	 * @return the result for every issuer, in the order of the given list
+	 */
+	public BulkImportResultVO importIssuers(List<TrustedIssuerVO> trustedIssuerVOS) {
+		if (trustedIssuerVOS.size() > bulkImportConfig.getMaxIssuers()) {
+			throw new IllegalArgumentException(
+					String.format("Not more than %s issuers can be imported at once.", bulkImportConfig.getMaxIssuers()));
+		}
+		return importIssuers(trustedIssuerVOS.stream());
+	}
+
+	/**
+	 * Create the issuers of the given stream. Every chunk is imported as soon as it was read, thus only the results
+	 * are kept in memory. Entries beyond the maximum number of issuers are reported as invalid, without being imported.
+	 *
+	 * @param trustedIssuerVOS issuers to create, entries that could not be read are null
+	 * @return the result for every issuer, in the order of the stream
+	 */
+	public BulkImportResultVO importIssuers(Stream<TrustedIssuerVO> trustedIssuerVOS) {
+		List<BulkImportItemResultVO> results = new ArrayList<>();
+		Set<String> requestedDids = new HashSet<>();
+		List<PendingIssuer> pendingIssuers = new ArrayList<>();
+		Iterator<TrustedIssuerVO> iterator = trustedIssuerVOS.iterator();
+		while (iterator.hasNext()) {
+			int index = results.size();
+			TrustedIssuerVO trustedIssuerVO = iterator.next();
+			Optional<String> problem = index < bulkImportConfig.getMaxIssuers()
+					? validate(trustedIssuerVO)
+					: Optional.of(String.format("Not more than %s issuers can be imported at once.",
+					bulkImportConfig.getMaxIssuers()));
+			if (problem.isPresent()) {
+				results.add(result(index, trustedIssuerVO, BulkImportItemResultVO.Status.INVALID, problem.get()));
+			} else if (!requestedDids.add(trustedIssuerVO.getDid())) {
+				results.add(result(index, trustedIssuerVO, BulkImportItemResultVO.Status.CONFLICT,
+						"Issuer is contained multiple times."));
+			} else {
+				// the placeholder is replaced once the chunk of the issuer was imported
+				results.add(null);
+				pendingIssuers.add(new PendingIssuer(index, trustedIssuerVO));
+			}
+			if (pendingIssuers.size() >= bulkImportConfig.getChunkSize()) {
+				importChunk(pendingIssuers, results);
+				pendingIssuers = new ArrayList<>();
+			}
+		}
+		if (!pendingIssuers.isEmpty()) {
+			importChunk(pendingIssuers, results);
+		}
+
+		return new BulkImportResultVO()
+				.created(count(results, BulkImportItemResultVO.Status.CREATED))
+				.conflict(count(results, BulkImportItemResultVO.Status.CONFLICT))
+				.invalid(count(results, BulkImportItemResultVO.Status.INVALID))
+				.results(results);
+	}
+
+	private void importChunk(List<PendingIssuer> chunk, List<BulkImportItemResultVO> results) {
+		Set<String> existingDids;
+		try {
+			existingDids = transactionOperations.executeWrite(status -> insertChunk(chunk));
+		} catch (DataAccessException e) {
+			log.info("Was not able to import a chunk of {} issuers at once. Import them one by one.", chunk.size(), e);
+			chunk.forEach(pendingIssuer -> results.set(pendingIssuer.index(), importIssuer(pendingIssuer)));
+			return;
+		}
+		chunk.forEach(pendingIssuer -> {
+			if (existingDids.contains(pendingIssuer.did())) {
+				results.set(pendingIssuer.index(), conflict(pendingIssuer));
+			} else {
+				results.set(pendingIssuer.index(), created(pendingIssuer));
+			}
+		});
+	}
+
+	// returns the dids that already existed and were thus not inserted
+	private Set<String> insertChunk(List<PendingIssuer> chunk) {
+		Set<String> existingDids = new HashSet<>(
+				trustedIssuerRepository.findDidByDidIn(chunk.stream().map(PendingIssuer::did).toList()));
+		List<TrustedIssuer> trustedIssuers = chunk.stream()
+				.filter(pendingIssuer -> !existingDids.contains(pendingIssuer.did()))
+				.map(pendingIssuer -> attributeMapper.withAttributes(trustedIssuerMapper.map(pendingIssuer.issuer())))
+				.toList();
+		if (!trustedIssuers.isEmpty()) {
+			insertIssuers(trustedIssuers);
+			// the events of the chunk are published once it committed
+			issuerChangePublisher.publish(trustedIssuers.stream()
+					.map(trustedIssuer -> new IssuerChangedEvent(trustedIssuer.getDid(),
+							IssuerChangedEvent.ChangeType.CREATED))
+					.toList());
+		}
+		return existingDids;
+	}
+
+	private BulkImportItemResultVO importIssuer(PendingIssuer pendingIssuer) {
+		try {
+			boolean created = transactionOperations.executeWrite(status -> {
+				if (trustedIssuerRepository.existsById(pendingIssuer.did())) {
+					return false;
+				}
+				insertIssuers(List.of(attributeMapper.withAttributes(trustedIssuerMapper.map(pendingIssuer.issuer()))));
+				issuerChangePublisher.publish(
+						new IssuerChangedEvent(pendingIssuer.did(), IssuerChangedEvent.ChangeType.CREATED));
+				return true;
+			});
+			return created ? created(pendingIssuer) : conflict(pendingIssuer);
+		} catch (DataAccessException e) {
+			log.info("Was not able to import issuer {}.", pendingIssuer.did(), e);
+			return result(pendingIssuer.index(), pendingIssuer.issuer(), BulkImportItemResultVO.Status.INVALID,
+					"Was not able to store the issuer.");
+		}
+	}
+
+	// every level is inserted with a single saveAll, instead of cascading from each parent to its children. The
+	// children are detached before their parents are stored and point to the generated ids of their parents afterwards.
+	private void insertIssuers(List<TrustedIssuer> trustedIssuers) {
+		List<Credential> credentials = new ArrayList<>();
+		trustedIssuers.forEach(trustedIssuer -> {
+			listOf(trustedIssuer.getCredentials()).forEach(credential -> credentials.add(
+					credential.setTrustedIssuer(new TrustedIssuer().setDid(trustedIssuer.getDid()))));
+			trustedIssuer.setCredentials(null);
+		});
+		trustedIssuerRepository.saveAll(trustedIssuers);
+
+		List<List<Claim>> claimsByCredential = credentials.stream()
+				.map(credential -> listOf(credential.getClaims()))
+				.toList();
+		credentials.forEach(credential -> credential.setClaims(null));
+		List<Credential> storedCredentials = credentials.isEmpty()
+				? List.of()
+				: credentialRepository.saveAll(credentials);
+		List<Claim> claims = new ArrayList<>();
+		for (int i = 0; i < storedCredentials.size(); i++) {
+			Integer credentialId = storedCredentials.get(i).getId();
+			claimsByCredential.get(i)
+					.forEach(claim -> claims.add(claim.setCredential(new Credential().setId(credentialId))));
+		}
+
+		List<List<ClaimValue>> valuesByClaim = claims.stream()
+				.map(claim -> listOf(claim.getClaimValues()))
+				.toList();
+		claims.forEach(claim -> claim.setClaimValues(null));
+		List<Claim> storedClaims = claims.isEmpty() ? List.of() : claimRepository.saveAll(claims);
+		List<ClaimValue> claimValues = new ArrayList<>();
+		for (int i = 0; i < storedClaims.size(); i++) {
+			Integer claimId = storedClaims.get(i).getId();
+			valuesByClaim.get(i)
+					.forEach(claimValue -> claimValues.add(claimValue.setClaim(new Claim().setId(claimId))));
+		}
+		if (!claimValues.isEmpty()) {
+			claimValueRepository.saveAll(claimValues);
+		}
+	}
+
+	private BulkImportItemResultVO created(PendingIssuer pendingIssuer) {
+		return result(pendingIssuer.index(), pendingIssuer.issuer(), BulkImportItemResultVO.Status.CREATED, null);
+	}
+
+	private BulkImportItemResultVO conflict(PendingIssuer pendingIssuer) {
+		return result(pendingIssuer.index(), pendingIssuer.issuer(), BulkImportItemResultVO.Status.CONFLICT,
+				"Issuer already exists.");
+	}
+
+	// checks the constraints of the database, so that a single invalid issuer does not fail its whole chunk
+	private static Optional<String> validate(@Nullable TrustedIssuerVO trustedIssuerVO) {
+		if (trustedIssuerVO == null) {
+			return Optional.of("Not a valid issuer.");
+		}
+		if (trustedIssuerVO.getDid() == null || trustedIssuerVO.getDid().isBlank()) {
+			return Optional.of("The issuer does not have a did.");
+		}
+		List<CredentialsVO> credentials = Optional.ofNullable(trustedIssuerVO.getCredentials()).orElse(List.of());
+		if (credentials.stream().anyMatch(credential -> credential == null || credential.getCredentialsType() == null)) {
+			return Optional.of("All credentials need a type.");
+		}
+		boolean incompleteClaim = credentials.stream()
+				.map(CredentialsVO::getClaims)
+				.filter(Objects::nonNull)
+				.flatMap(List::stream)
+				.anyMatch(claim -> claim == null || claim.getName() == null || claim.getAllowedValues() == null);
+		if (incompleteClaim) {
+			return Optional.of("All claims need a name and allowed values.");
+		}
+		return Optional.empty();
+	}
+
+	private static BulkImportItemResultVO result(int index, @Nullable TrustedIssuerVO trustedIssuerVO,
+			BulkImportItemResultVO.Status status, @Nullable String detail) {
+		return new BulkImportItemResultVO()
+				.index(index)
+				.did(Optional.ofNullable(trustedIssuerVO).map(TrustedIssuerVO::getDid).orElse(null))
+				.status(status)
+				.detail(detail);
+	}
+
+	private static int count(List<BulkImportItemResultVO> results, BulkImportItemResultVO.Status status) {
+		return (int) results.stream().filter(result -> result.getStatus() == status).count();
+	}
+
+	private static <T> List<T> listOf(@Nullable Collection<T> rows) {
+		return Optional.ofNullable(rows).<List<T>>map(ArrayList::new).orElse(List.of());
+	}
+
+	private record PendingIssuer(int index, TrustedIssuerVO issuer) {
+
+		String did() {
+			return issuer.getDid();
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package org.fiware.iam.rest;
+
+import io.micronaut.core.annotation.Nullable;
+import lombok.SneakyThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Entity tags for the conditional requests on the issuer endpoints.
+ */
+final class EntityTags {
+
+	private static final String WEAK_PREFIX = "W/";
+	private static final String ANY = "*";
+
+	private EntityTags() {
+		// utility class
+	}
+
+	/**
+	 * Build a strong entity tag for an issuer. The attribute hashes already cover the full content of the
+	 * credentials, thus the tag changes whenever the representation of the issuer changes.
+	 *
+	 * @param did             of the issuer
+	 * @param attributeHashes hashes of the issuer's attributes, in the order they are returned
+	 * @return the quoted entity tag
+	 */
+	static String ofIssuer(String did, List<String> attributeHashes) {
+		MessageDigest digest = sha256();
+		update(digest, did);
+		attributeHashes.forEach(attributeHash -> update(digest, attributeHash));
+		return quote(digest.digest());
+	}
+
+	/**
+	 * Build a weak entity tag from the given parts. Used for representations that are not compared byte-by-byte,
+	 * but only through the version they are built from.
+	 *
+	 * @param parts the tag is built from
+	 * @return the weak, quoted entity tag
+	 */
+	static String weak(String... parts) {
+		MessageDigest digest = sha256();
+		Arrays.stream(parts).forEach(part -> update(digest, part));
+		return WEAK_PREFIX + quote(digest.digest());
+	}
+
+	/**
+	 * Check if the given If-None-Match header matches the entity tag. Uses the weak comparison, as required for
+	 * If-None-Match.
+	 *
+	 * @param ifNoneMatch header value, might contain a list of tags or "*"
+	 * @param entityTag   the current tag of the representation
+	 * @return true if the client already has the current representation
+	 */
+	static boolean matches(@Nullable String ifNoneMatch, String entityTag) {
+		if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+			return false;
+		}
+		String opaqueTag = stripWeakPrefix(entityTag);
+		return Arrays.stream(ifNoneMatch.split(","))
+				.map(String::trim)
+				.anyMatch(tag -> tag.equals(ANY) || stripWeakPrefix(tag).equals(opaqueTag));
+	}
+
+	private static String stripWeakPrefix(String entityTag) {
+		return entityTag.startsWith(WEAK_PREFIX) ? entityTag.substring(WEAK_PREFIX.length()) : entityTag;
+	}
+
+	private static String quote(byte[] hash) {
+		return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(hash) + "\"";
+	}
+
+	// parts are separated, so that different splits of the same content result in different tags
+	private static void update(MessageDigest digest, @Nullable String part) {
+		if (part != null) {
+			digest.update(part.getBytes(StandardCharsets.UTF_8));
+		}
+		digest.update((byte) 0);
+	}
+
+	@SneakyThrows
+	private static MessageDigest sha256() {
+		return MessageDigest.getInstance("SHA-256");
+	}
+}
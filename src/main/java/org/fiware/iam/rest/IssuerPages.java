@@ -0,0 +1,220 @@
+package org.fiware.iam.rest;
+
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.data.model.Pageable;
+import io.micronaut.data.model.Sort;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.uri.UriBuilder;
+import org.fiware.iam.filter.ForwardedForFilter;
+import org.fiware.iam.tir.model.IssuerEntryVO;
+import org.fiware.iam.tir.model.IssuersResponseVO;
+import org.fiware.iam.tir.model.LinksVO;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Builds the pages of the issuers list, shared by the blocking and the reactive registry controller. The controllers
+ * read the dids of the page and of its neighbours, the response and its links are built from them relative to the
+ * request.
+ */
+final class IssuerPages {
+
+	private static final int DEFAULT_PAGE_SIZE = 10;
+	private static final int MAX_PAGE_SIZE = 100;
+	private static final Sort DID_ASCENDING = Sort.of(Sort.Order.asc("did"));
+	private static final Sort DID_DESCENDING = Sort.of(Sort.Order.desc("did"));
+
+	private IssuerPages() {
+		// utility class
+	}
+
+	/**
+	 * Validate the requested page size.
+	 *
+	 * @param pageSize as requested, the default is used if not set
+	 * @return the page size to use
+	 */
+	static int pageSize(@Nullable Integer pageSize) {
+		int requestedSize = Optional.ofNullable(pageSize).orElse(DEFAULT_PAGE_SIZE);
+		if (requestedSize < 1 || requestedSize > MAX_PAGE_SIZE) {
+			throw new IllegalArgumentException("The requested page size is not supported.");
+		}
+		return requestedSize;
+	}
+
+	/**
+	 * Decode the anchor of the requested page.
+	 *
+	 * @param pageAfter cursor as requested, the first page is requested if not set
+	 * @return the did after which the page starts
+	 */
+	static String anchor(@Nullable String pageAfter) {
+		return Optional.ofNullable(pageAfter).map(PageCursor::decode).orElse("");
+	}
+
+	/**
+	 * Validate the requested credentials type.
+	 *
+	 * @param credentialsType as requested, all issuers are listed if not set
+	 * @return the credentials type to filter by, empty if not set
+	 */
+	static Optional<String> credentialsType(@Nullable String credentialsType) {
+		if (credentialsType != null && credentialsType.isBlank()) {
+			throw new IllegalArgumentException("The requested credentials type must not be blank.");
+		}
+		return Optional.ofNullable(credentialsType);
+	}
+
+	/**
+	 * Pageable to read the dids of a page, including one more did to find out if there is a next page.
+	 *
+	 * @param pageSize of the page
+	 * @return pageable, ascending by did
+	 */
+	static Pageable pageAfter(int pageSize) {
+		return Pageable.from(0, pageSize + 1, DID_ASCENDING);
+	}
+
+	/**
+	 * Pageable to read the dids in front of a page, up to the anchor of the previous page. Also used for the last page,
+	 * read from the end.
+	 *
+	 * @param pageSize of the page
+	 * @return pageable, descending by did
+	 */
+	static Pageable pageBefore(int pageSize) {
+		return Pageable.from(0, pageSize + 1, DID_DESCENDING);
+	}
+
+	/**
+	 * Build the weak entity tag of a page. The page depends on the registry content, the requested page and the base
+	 * uri its links are built from.
+	 *
+	 * @param version of the registry
+	 * @param request the page was requested with, if available
+	 * @return the weak entity tag
+	 */
+	static String entityTag(long version, @Nullable HttpRequest<?> request) {
+		if (request == null) {
+			return EntityTags.weak(String.valueOf(version));
+		}
+		return EntityTags.weak(String.valueOf(version), request.getUri().toString(),
+				request.getAttribute(ForwardedForFilter.REQ_ATTR).map(Object::toString).orElse(""));
+	}
+
+	/**
+	 * Build the response for a page without issuers.
+	 *
+	 * @param request the page was requested with, if available
+	 * @return the empty page
+	 */
+	static IssuersResponseVO emptyPage(@Nullable HttpRequest<?> request) {
+		return new IssuersResponseVO()
+				.items(List.of())
+				.total(0)
+				.pageSize(0)
+				.self(getHrefUri(request, ""));
+	}
+
+	/**
+	 * Build the response for a page with issuers.
+	 *
+	 * @param request         the page was requested with, if available
+	 * @param dids            as read for the page, including the one that indicates the next page
+	 * @param pageSize        of the page
+	 * @param total           number of issuers, null if not requested
+	 * @param previousDids    as read in front of the page
+	 * @param lastDids        as read from the end, null if the total was not requested
+	 * @param credentialsType the issuers were filtered by, kept in the links
+	 * @return the page
+	 */
+	static IssuersResponseVO page(@Nullable HttpRequest<?> request, List<String> dids, int pageSize,
+			@Nullable Long total, List<String> previousDids, @Nullable List<String> lastDids,
+			@Nullable String credentialsType) {
+		boolean hasNext = dids.size() > pageSize;
+		List<String> pageDids = hasNext ? dids.subList(0, pageSize) : dids;
+		URI selfUri = getHrefUri(request, "");
+		String selfPath = selfUri.toString();
+		String itemPrefix = selfPath.endsWith("/") ? selfPath : selfPath + "/";
+		List<IssuerEntryVO> issuerEntries = pageDids.stream()
+				.map(did -> new IssuerEntryVO()
+						.did(did)
+						.href(isUriSafe(did) ? URI.create(itemPrefix + did) : getHrefUri(request, did))
+				).toList();
+		return new IssuersResponseVO()
+				.items(issuerEntries)
+				.total(Optional.ofNullable(total).map(Long::intValue).orElse(null))
+				.pageSize(pageDids.size())
+				.self(selfUri)
+				.links(getLinks(getListUri(selfUri, credentialsType), pageDids, pageSize, hasNext, previousDids,
+						lastDids));
+	}
+
+	// dids of unreserved characters and colons only can be appended to the page uri as they are, all others are
+	// appended through the builder
+	private static boolean isUriSafe(String did) {
+		for (int i = 0; i < did.length(); i++) {
+			char c = did.charAt(i);
+			boolean safe = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+					|| c == ':' || c == '-' || c == '.' || c == '_' || c == '~';
+			if (!safe) {
+				return false;
+			}
+		}
+		return !did.isEmpty();
+	}
+
+	private static URI getHrefUri(@Nullable HttpRequest<?> request, String path) {
+		UriBuilder builder = getBaseUriBuilder(request);
+		if (path != null && !path.isEmpty()) {
+			builder.path(path);
+		}
+		return builder.build();
+	}
+
+	private static UriBuilder getBaseUriBuilder(@Nullable HttpRequest<?> request) {
+		if (request != null) {
+			URI baseUri = (URI) request.getAttribute(ForwardedForFilter.REQ_ATTR).orElse(URI.create("/"));
+			return UriBuilder.of(baseUri).replacePath(request.getPath());
+		}
+		return UriBuilder.of("/");
+	}
+
+	// the links of a filtered list stay filtered
+	private static URI getListUri(URI selfUri, @Nullable String credentialsType) {
+		if (credentialsType == null) {
+			return selfUri;
+		}
+		return UriBuilder.of(selfUri).queryParam("credentialsType", credentialsType).build();
+	}
+
+	private static LinksVO getLinks(URI baseUri, List<String> pageDids, int pageSize,
+			boolean hasNext, List<String> previousDids, @Nullable List<String> lastDids) {
+		LinksVO links = new LinksVO();
+
+		// the previous page starts after the (pageSize + 1)th did in front of the current page
+		if (!previousDids.isEmpty()) {
+			links.prev(getPageUri(baseUri, previousDids.size() > pageSize ? previousDids.getLast() : null, pageSize));
+		}
+		if (hasNext) {
+			links.next(getPageUri(baseUri, pageDids.getLast(), pageSize));
+		}
+
+		links.first(getPageUri(baseUri, null, pageSize));
+		if (lastDids != null) {
+			// the last page ends with the last did, thus starts after the (pageSize + 1)th did from the end
+			links.last(getPageUri(baseUri, lastDids.size() > pageSize ? lastDids.getLast() : null, pageSize));
+		}
+		return links;
+	}
+
+	private static URI getPageUri(URI baseUri, @Nullable String anchorDid, int pageSize) {
+		UriBuilder pageUriBuilder = UriBuilder.of(baseUri);
+		if (anchorDid != null) {
+			pageUriBuilder.queryParam("page[after]", PageCursor.encode(anchorDid));
+		}
+		return pageUriBuilder.queryParam("page[size]", pageSize).build();
+	}
+}
@@ -0,0 +1,173 @@
+package org.fiware.iam.rest;
+
+import jakarta.inject.Singleton;
+import lombok.RequiredArgsConstructor;
+import org.fiware.iam.repository.Claim;
+import org.fiware.iam.repository.ClaimRepository;
+import org.fiware.iam.repository.ClaimValue;
+import org.fiware.iam.repository.ClaimValueRepository;
+import org.fiware.iam.repository.Credential;
+import org.fiware.iam.repository.CredentialRepository;
+import org.fiware.iam.repository.TrustedIssuer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Updates stored issuers by their difference to the requested state. Credentials, claims and claim values are paired
+ * by their position, thus the order of the request is kept. Rows that differ are updated in place, surplus rows are
+ * deleted and missing rows are inserted, unchanged rows are not written at all.
+ */
+@Singleton
+@RequiredArgsConstructor
+public class IssuerUpdater {
+
+	private final CredentialRepository credentialRepository;
+	private final ClaimRepository claimRepository;
+	private final ClaimValueRepository claimValueRepository;
+
+	/**
+	 * Update the stored issuer to the given state. Has to be called in a transaction. The updated issuer needs to have
+	 * its attributes computed, since they are compared instead of the full credentials where possible.
+	 *
+	 * @param storedIssuer  the issuer, as read from the database
+	 * @param updatedIssuer the requested state of the issuer
+	 * @return true if anything was written, false if the issuer did not change
+	 */
+	public boolean update(TrustedIssuer storedIssuer, TrustedIssuer updatedIssuer) {
+		Changes changes = new Changes();
+		diffCredentials(storedIssuer, orderedById(storedIssuer.getCredentials(), Credential::getId),
+				listOf(updatedIssuer.getCredentials()), changes);
+		if (changes.isEmpty()) {
+			return false;
+		}
+		apply(changes);
+		return true;
+	}
+
+	private void diffCredentials(TrustedIssuer storedIssuer, List<Credential> storedCredentials,
+			List<Credential> updatedCredentials, Changes changes) {
+		for (int i = 0; i < Math.max(storedCredentials.size(), updatedCredentials.size()); i++) {
+			if (i >= updatedCredentials.size()) {
+				changes.deletedCredentials.add(storedCredentials.get(i).getId());
+			} else if (i >= storedCredentials.size()) {
+				changes.insertedCredentials.add(updatedCredentials.get(i)
+						.setTrustedIssuer(new TrustedIssuer().setDid(storedIssuer.getDid())));
+			} else {
+				diffCredential(storedCredentials.get(i), updatedCredentials.get(i), changes);
+			}
+		}
+	}
+
+	private void diffCredential(Credential storedCredential, Credential updatedCredential, Changes changes) {
+		// the attribute hash covers the full credential, including its claims
+		if (storedCredential.getAttributeHash() != null
+				&& storedCredential.getAttributeHash().equals(updatedCredential.getAttributeHash())) {
+			return;
+		}
+		boolean columnsChanged = !Objects.equals(storedCredential.getCredentialsType(),
+				updatedCredential.getCredentialsType())
+				|| !Objects.equals(storedCredential.getValidFrom(), updatedCredential.getValidFrom())
+				|| !Objects.equals(storedCredential.getValidTo(), updatedCredential.getValidTo())
+				|| !Objects.equals(storedCredential.getAttributeBody(), updatedCredential.getAttributeBody())
+				|| !Objects.equals(storedCredential.getAttributeHash(), updatedCredential.getAttributeHash());
+		if (columnsChanged) {
+			changes.updatedCredentials.add(updatedCredential.setId(storedCredential.getId()));
+		}
+		List<Claim> storedClaims = orderedById(storedCredential.getClaims(), Claim::getId);
+		List<Claim> updatedClaims = listOf(updatedCredential.getClaims());
+		for (int i = 0; i < Math.max(storedClaims.size(), updatedClaims.size()); i++) {
+			if (i >= updatedClaims.size()) {
+				changes.deletedClaims.add(storedClaims.get(i).getId());
+			} else if (i >= storedClaims.size()) {
+				changes.insertedClaims.add(updatedClaims.get(i)
+						.setCredential(new Credential().setId(storedCredential.getId())));
+			} else {
+				diffClaim(storedClaims.get(i), updatedClaims.get(i), changes);
+			}
+		}
+	}
+
+	private void diffClaim(Claim storedClaim, Claim updatedClaim, Changes changes) {
+		if (!Objects.equals(storedClaim.getName(), updatedClaim.getName())
+				|| !Objects.equals(storedClaim.getPath(), updatedClaim.getPath())) {
+			changes.updatedClaims.add(updatedClaim.setId(storedClaim.getId()));
+		}
+		List<ClaimValue> storedValues = orderedById(storedClaim.getClaimValues(), ClaimValue::getId);
+		List<ClaimValue> updatedValues = listOf(updatedClaim.getClaimValues());
+		for (int i = 0; i < Math.max(storedValues.size(), updatedValues.size()); i++) {
+			if (i >= updatedValues.size()) {
+				changes.deletedValues.add(storedValues.get(i).getId());
+			} else if (i >= storedValues.size()) {
+				changes.insertedValues.add(updatedValues.get(i).setClaim(new Claim().setId(storedClaim.getId())));
+			} else if (!Objects.equals(storedValues.get(i).getValue(), updatedValues.get(i).getValue())
+					|| storedValues.get(i).getValueType() != updatedValues.get(i).getValueType()) {
+				changes.updatedValues.add(updatedValues.get(i).setId(storedValues.get(i).getId()));
+			}
+		}
+	}
+
+	// deletes go first, the database cascades them to the children
+	private void apply(Changes changes) {
+		if (!changes.deletedCredentials.isEmpty()) {
+			credentialRepository.deleteByIdIn(changes.deletedCredentials);
+		}
+		if (!changes.deletedClaims.isEmpty()) {
+			claimRepository.deleteByIdIn(changes.deletedClaims);
+		}
+		if (!changes.deletedValues.isEmpty()) {
+			claimValueRepository.deleteByIdIn(changes.deletedValues);
+		}
+		changes.updatedCredentials.forEach(credential -> credentialRepository.update(credential.getId(),
+				credential.getCredentialsType(), credential.getValidFrom(), credential.getValidTo(),
+				credential.getAttributeBody(), credential.getAttributeHash()));
+		changes.updatedClaims.forEach(claim -> claimRepository.update(claim.getId(), claim.getName(), claim.getPath()));
+		changes.updatedValues.forEach(claimValue -> claimValueRepository.update(claimValue.getId(),
+				claimValue.getValue(), claimValue.getValueType()));
+		// inserts cascade to the children of the inserted rows
+		if (!changes.insertedCredentials.isEmpty()) {
+			credentialRepository.saveAll(changes.insertedCredentials);
+		}
+		if (!changes.insertedClaims.isEmpty()) {
+			claimRepository.saveAll(changes.insertedClaims);
+		}
+		if (!changes.insertedValues.isEmpty()) {
+			claimValueRepository.saveAll(changes.insertedValues);
+		}
+	}
+
+	// rows are read in the order they were inserted, thus their ids reflect the order of the request
+	private static <T> List<T> orderedById(Collection<T> rows, Function<T, Integer> idFunction) {
+		return listOf(rows).stream()
+				.sorted(Comparator.comparing(idFunction))
+				.toList();
+	}
+
+	private static <T> List<T> listOf(Collection<T> rows) {
+		return Optional.ofNullable(rows).<List<T>>map(ArrayList::new).orElse(List.of());
+	}
+
+	private static class Changes {
+
+		private final List<Integer> deletedCredentials = new ArrayList<>();
+		private final List<Integer> deletedClaims = new ArrayList<>();
+		private final List<Integer> deletedValues = new ArrayList<>();
+		private final List<Credential> updatedCredentials = new ArrayList<>();
+		private final List<Claim> updatedClaims = new ArrayList<>();
+		private final List<ClaimValue> updatedValues = new ArrayList<>();
+		private final List<Credential> insertedCredentials = new ArrayList<>();
+		private final List<Claim> insertedClaims = new ArrayList<>();
+		private final List<ClaimValue> insertedValues = new ArrayList<>();
+
+		boolean isEmpty() {
+			return deletedCredentials.isEmpty() && deletedClaims.isEmpty() && deletedValues.isEmpty()
+					&& updatedCredentials.isEmpty() && updatedClaims.isEmpty() && updatedValues.isEmpty()
+					&& insertedCredentials.isEmpty() && insertedClaims.isEmpty() && insertedValues.isEmpty();
+		}
+	}
+}
@@ -0,0 +1,39 @@
+package org.fiware.iam.rest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque cursor for the anchor-based pagination of the issuers. A cursor holds the DID of the last issuer on the
+ * previous page.
+ */
+final class PageCursor {
+
+	private PageCursor() {
+		// utility class
+	}
+
+	/**
+	 * Encode the given did into a cursor.
+	 *
+	 * @param did of the last issuer on a page
+	 * @return the cursor pointing to the end of the page
+	 */
+	static String encode(String did) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(did.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Decode the did from the given cursor.
+	 *
+	 * @param cursor as provided through the page links
+	 * @return the did of the last issuer on the previous page
+	 */
+	static String decode(String cursor) {
+		try {
+			return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("The requested page cursor is not valid.", e);
+		}
+	}
+}
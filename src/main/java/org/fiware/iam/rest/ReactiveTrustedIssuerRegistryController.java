@@ -0,0 +1,270 @@
+package org.fiware.iam.rest;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.http.HttpHeaders;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.MediaType;
+import io.micronaut.http.annotation.Body;
+import io.micronaut.http.annotation.Controller;
+import io.micronaut.http.annotation.Get;
+import io.micronaut.http.annotation.Header;
+import io.micronaut.http.annotation.PathVariable;
+import io.micronaut.http.annotation.Post;
+import io.micronaut.http.annotation.QueryValue;
+import lombok.RequiredArgsConstructor;
+import org.fiware.iam.TIRMapper;
+import org.fiware.iam.cache.AttributeValidity;
+import org.fiware.iam.cache.AuthorizationIndex;
+import org.fiware.iam.cache.CachedIssuer;
+import org.fiware.iam.cache.CachedRegistryVersion;
+import org.fiware.iam.cache.DidFilter;
+import org.fiware.iam.cache.IssuerCache;
+import org.fiware.iam.cache.IssuerCount;
+import org.fiware.iam.cache.IssuerWithValidities;
+import org.fiware.iam.configuration.CredentialValidityConfig;
+import org.fiware.iam.metrics.RegistryMetrics;
+import org.fiware.iam.repository.Credential;
+import org.fiware.iam.repository.ReactiveCredentialRepository;
+import org.fiware.iam.repository.ReactiveRegistryVersionRepository;
+import org.fiware.iam.repository.ReactiveTrustedIssuerRepository;
+import org.fiware.iam.repository.RegistryVersionRepository;
+import org.fiware.iam.tir.model.AuthorizationVO;
+import org.fiware.iam.tir.model.IssuerLookupResponseVO;
+import org.fiware.iam.tir.model.IssuerLookupVO;
+import org.fiware.iam.tir.model.IssuerVO;
+import org.fiware.iam.tir.model.IssuersResponseVO;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Non-blocking variant of the {@link TrustedIssuerRegistryController}, reading through R2DBC. Replaces the blocking
+ * controller if the registry reads are configured to use R2DBC, the routes and responses are the same. No thread is
+ * held while the queries are in flight, thus the requests are served from the event loop. The registry snapshot is
+ * only used by the blocking controller.
+ */
+@Controller("${general.basepath:/}")
+@Requires(property = "registry-reads.backend", value = "R2DBC")
+@RequiredArgsConstructor
+public class ReactiveTrustedIssuerRegistryController {
+
+	private final TIRMapper attributeMapper;
+	private final ReactiveTrustedIssuerRepository trustedIssuerRepository;
+	private final ReactiveCredentialRepository credentialRepository;
+	private final ReactiveRegistryVersionRepository registryVersionRepository;
+	private final IssuerCache issuerCache;
+	private final IssuerCount issuerCount;
+	private final CachedRegistryVersion registryVersion;
+	private final DidFilter didFilter;
+	private final AuthorizationIndex authorizationIndex;
+	private final RegistryMetrics registryMetrics;
+	private final CredentialValidityConfig credentialValidityConfig;
+
+	/**
+	 * See {@link TrustedIssuerRegistryController#getIssuerV4(String, String, String)}.
+	 */
+	@Get(uri = "/v4/issuers/{did}", produces = MediaType.APPLICATION_JSON)
+	public Mono<HttpResponse<IssuerVO>> getIssuerV4(@PathVariable("did") String did,
+			@Nullable @QueryValue("validAt") String validAt,
+			@Nullable @Header(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
+		TrustedIssuerRegistryController.checkDidFormat(did);
+		Optional<Instant> requestedTime = ValidityTimes.getValidAt(validAt, false);
+		if (!didFilter.mightContain(did)) {
+			return Mono.just(HttpResponse.notFound());
+		}
+		Mono<CachedIssuer> cachedIssuer = requestedTime
+				.map(time -> loadIssuer(did, time))
+				.orElseGet(() -> issuerCache.getReactive(did,
+								key -> loadIssuers(Set.of(key)).mapNotNull(issuers -> issuers.get(key)))
+						.map(this::filterByDefaultTime));
+		return cachedIssuer
+				.<HttpResponse<IssuerVO>>map(cachedIssuer -> EntityTags.matches(ifNoneMatch, cachedIssuer.entityTag())
+						? HttpResponse.<IssuerVO>notModified().header(HttpHeaders.ETAG, cachedIssuer.entityTag())
+						: HttpResponse.ok(cachedIssuer.issuer()).header(HttpHeaders.ETAG, cachedIssuer.entityTag()))
+				.defaultIfEmpty(HttpResponse.notFound());
+	}
+
+	private CachedIssuer filterByDefaultTime(CachedIssuer cachedIssuer) {
+		return credentialValidityConfig.isDefaultToNow()
+				? TrustedIssuerRegistryController.validAt(cachedIssuer, Instant.now())
+				: cachedIssuer;
+	}
+
+	/**
+	 * See {@link TrustedIssuerRegistryController#getAuthorizationV4(String, String, String)}.
+	 */
+	@Get(uri = "/v4/issuers/{did}/authorization", produces = MediaType.APPLICATION_JSON)
+	public Mono<HttpResponse<AuthorizationVO>> getAuthorizationV4(@PathVariable("did") String did,
+			@QueryValue("credentialsType") String credentialsType, @Nullable @QueryValue("validAt") String validAt) {
+		TrustedIssuerRegistryController.checkDidFormat(did);
+		TrustedIssuerRegistryController.checkCredentialsType(credentialsType);
+		Instant validAtInstant = ValidityTimes.getValidAtOrNow(validAt);
+		Mono<Boolean> authorized = !didFilter.mightContain(did)
+				? Mono.just(false)
+				: authorizationIndex.isAuthorized(did, credentialsType, validAtInstant)
+						.map(Mono::just)
+						.orElseGet(() -> credentialRepository.findByTrustedIssuerDidInOrderById(List.of(did))
+								.collectList()
+								.map(credentials -> AuthorizationIndex.isAuthorized(credentials, credentialsType,
+										validAtInstant)));
+		return authorized.map(isAuthorized -> HttpResponse.ok(
+				TrustedIssuerRegistryController.toAuthorization(did, credentialsType, isAuthorized)));
+	}
+
+	/**
+	 * See {@link TrustedIssuerRegistryController#lookupIssuersV4(IssuerLookupVO)}.
+	 */
+	@Post(uri = "/v4/issuers/lookup", consumes = MediaType.APPLICATION_JSON, produces = MediaType.APPLICATION_JSON)
+	public Mono<HttpResponse<IssuerLookupResponseVO>> lookupIssuersV4(@Body IssuerLookupVO issuerLookupVO) {
+		List<String> dids = TrustedIssuerRegistryController.getLookupDids(issuerLookupVO);
+		return issuerCache.getAllReactive(dids, this::loadIssuers)
+				.map(cachedIssuers -> HttpResponse.ok(
+						TrustedIssuerRegistryController.toLookupResponse(dids, cachedIssuers)));
+	}
+
+	// the attributes are precomputed, only credentials that were not backfilled yet are read with their claims
+	private Mono<Map<String, CachedIssuer>> loadIssuers(Set<String> dids) {
+		Set<String> knownDids = dids.stream().filter(didFilter::mightContain).collect(Collectors.toSet());
+		if (knownDids.isEmpty()) {
+			return Mono.just(Map.of());
+		}
+		return trustedIssuerRepository.findDidByDidIn(knownDids)
+				.collectList()
+				.flatMap(existingDids -> existingDids.isEmpty()
+						? Mono.just(Map.<String, CachedIssuer>of())
+						: credentialRepository.findByTrustedIssuerDidInOrderById(existingDids)
+								.collectList()
+								.flatMap(this::completeCredentials)
+								.map(credentials -> toCachedIssuers(existingDids, credentials)));
+	}
+
+	// only the ids of the valid credentials are selected, thus expired credentials are not transferred
+	private Mono<CachedIssuer> loadIssuer(String did, Instant validAt) {
+		return trustedIssuerRepository.findDidByDidIn(Set.of(did))
+				.collectList()
+				.filter(existingDids -> !existingDids.isEmpty())
+				.flatMap(existingDids -> credentialRepository.findIdByTrustedIssuerDidAndValidAt(did, validAt)
+						.collectList()
+						.flatMap(validIds -> validIds.isEmpty()
+								? Mono.just(List.<Credential>of())
+								: credentialRepository.findByIdInOrderById(validIds).collectList())
+						.flatMap(this::completeCredentials)
+						.mapNotNull(credentials -> toCachedIssuers(existingDids, credentials).get(did)));
+	}
+
+	private Map<String, CachedIssuer> toCachedIssuers(List<String> dids, List<Credential> credentials) {
+		Map<String, List<Credential>> credentialsByIssuer = credentials.stream()
+				.collect(Collectors.groupingBy(credential -> credential.getTrustedIssuer().getDid()));
+		return dids.stream()
+				.collect(Collectors.toMap(Function.identity(), did -> {
+					List<Credential> issuerCredentials = credentialsByIssuer.getOrDefault(did, List.of());
+					IssuerVO issuerVO = registryMetrics.timeMapping(RegistryMetrics.MapperStage.TIR_ISSUER,
+							() -> new IssuerVO()
+									.did(did)
+									.attributes(issuerCredentials.stream().map(attributeMapper::toAttribute).toList()));
+					return TrustedIssuerRegistryController.toCachedIssuer(new IssuerWithValidities(issuerVO,
+							issuerCredentials.stream().map(AttributeValidity::of).toList()));
+				}));
+	}
+
+	private Mono<List<Credential>> completeCredentials(List<Credential> credentials) {
+		List<Integer> incompleteIds = credentials.stream()
+				.filter(credential -> credential.getAttributeBody() == null || credential.getAttributeHash() == null)
+				.map(Credential::getId)
+				.toList();
+		if (incompleteIds.isEmpty()) {
+			return Mono.just(credentials);
+		}
+		// credentials removed in the meantime are skipped
+		return credentialRepository.findByIdIn(incompleteIds)
+				.collectMap(Credential::getId)
+				.map(completeCredentials -> credentials.stream()
+						.flatMap(credential -> incompleteIds.contains(credential.getId())
+								? Optional.ofNullable(completeCredentials.get(credential.getId())).stream()
+								: Optional.of(credential).stream())
+						.toList());
+	}
+
+	/**
+	 * See {@link TrustedIssuerRegistryController#getIssuersV4(Integer, String, Boolean, String, String)}. The reads
+	 * that only depend on the first page are executed concurrently.
+	 */
+	@Get(uri = "/v4/issuers/", produces = MediaType.APPLICATION_JSON)
+	public Mono<HttpResponse<IssuersResponseVO>> getIssuersV4(HttpRequest<?> request,
+			@Nullable @QueryValue("page[size]") Integer pageSize,
+			@Nullable @QueryValue("page[after]") String pageAfter,
+			@Nullable @QueryValue("page[total]") Boolean pageTotal,
+			@Nullable @QueryValue("credentialsType") String credentialsType,
+			@Nullable @Header(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
+
+		int size = IssuerPages.pageSize(pageSize);
+		String anchor = IssuerPages.anchor(pageAfter);
+		boolean includeTotal = Optional.ofNullable(pageTotal).orElse(true);
+		Optional<String> optionalType = IssuerPages.credentialsType(credentialsType);
+
+		return registryVersion.get(registryVersionRepository
+						.findVersionById(RegistryVersionRepository.REGISTRY_VERSION_ID)
+						.defaultIfEmpty(0L))
+				.map(version -> IssuerPages.entityTag(version, request))
+				.flatMap(entityTag -> {
+					if (EntityTags.matches(ifNoneMatch, entityTag)) {
+						return Mono.just(HttpResponse.<IssuersResponseVO>notModified()
+								.header(HttpHeaders.ETAG, entityTag));
+					}
+					Mono<IssuersResponseVO> page = optionalType
+							.map(type -> readTypePage(request, type, anchor, size))
+							.orElseGet(() -> readPage(request, anchor, size, includeTotal));
+					return page.map(issuersPage -> HttpResponse.ok(issuersPage).header(HttpHeaders.ETAG, entityTag));
+				});
+	}
+
+	private Mono<IssuersResponseVO> readPage(HttpRequest<?> request, String anchor, int pageSize,
+			boolean includeTotal) {
+		return trustedIssuerRepository.findDidByDidGreaterThan(anchor, IssuerPages.pageAfter(pageSize))
+				.collectList()
+				.flatMap(dids -> {
+					if (dids.isEmpty()) {
+						return Mono.just(IssuerPages.emptyPage(request));
+					}
+					Mono<List<String>> previousDids = trustedIssuerRepository
+							.findDidByDidLessThan(dids.getFirst(), IssuerPages.pageBefore(pageSize))
+							.collectList();
+					if (!includeTotal) {
+						return previousDids.map(previous -> IssuerPages.page(request, dids, pageSize, null, previous,
+								null, null));
+					}
+					return Mono.zip(
+									previousDids,
+									issuerCount.get(trustedIssuerRepository.count()),
+									trustedIssuerRepository.findDidByDidIsNotNull(IssuerPages.pageBefore(pageSize))
+											.collectList())
+							.map(reads -> IssuerPages.page(request, dids, pageSize, reads.getT2(), reads.getT1(),
+									reads.getT3(), null));
+				});
+	}
+
+	private Mono<IssuersResponseVO> readTypePage(HttpRequest<?> request, String credentialsType, String anchor,
+			int pageSize) {
+		return credentialRepository.findTrustedIssuerDidByCredentialsTypeAndDidGreaterThan(credentialsType, anchor,
+						pageSize + 1)
+				.collectList()
+				.flatMap(dids -> {
+					if (dids.isEmpty()) {
+						return Mono.just(IssuerPages.emptyPage(request));
+					}
+					return credentialRepository.findTrustedIssuerDidByCredentialsTypeAndDidLessThan(credentialsType,
+									dids.getFirst(), pageSize + 1)
+							.collectList()
+							.map(previous -> IssuerPages.page(request, dids, pageSize, null, previous, null,
+									credentialsType));
+				});
+	}
+}
@@ -0,0 +1,41 @@
+package org.fiware.iam.rest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micronaut.http.annotation.Controller;
+import io.micronaut.http.annotation.Get;
+import lombok.RequiredArgsConstructor;
+import org.fiware.iam.cache.IssuerWithValidities;
+import org.fiware.iam.export.IssuerExporter;
+import org.fiware.iam.tir.model.IssuerVO;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Export of the full registry as newline-delimited json, one issuer per line in the format of the trusted issuers
+ * registry. The issuers are read through a database cursor and written to the response as they are read, the
+ * response is compressed if the client accepts it.
+ */
+@Controller("${general.basepath:/}")
+@RequiredArgsConstructor
+public class RegistryExportController {
+
+	private final IssuerExporter issuerExporter;
+	private final ObjectMapper objectMapper;
+
+	@Get(uri = "/v4/export/issuers", produces = TrustedIssuersBulkController.APPLICATION_NDJSON)
+	public Flux<byte[]> exportIssuers() {
+		return issuerExporter.streamIssuers()
+				.map(IssuerWithValidities::issuer)
+				.map(this::toLine);
+	}
+
+	private byte[] toLine(IssuerVO issuerVO) {
+		try {
+			return (objectMapper.writeValueAsString(issuerVO) + "\n").getBytes(StandardCharsets.UTF_8);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException(String.format("Was not able to serialize issuer %s.", issuerVO.getDid()), e);
+		}
+	}
+}
@@ -1,29 +1,49 @@
 package org.fiware.iam.rest;
 
+import io.micronaut.context.annotation.Requires;
 import io.micronaut.core.annotation.Nullable;
-import io.micronaut.data.model.Page;
-import io.micronaut.data.model.Pageable;
-import io.micronaut.data.model.Sort;
+import io.micronaut.http.HttpHeaders;
 import io.micronaut.http.HttpRequest;
 import io.micronaut.http.HttpResponse;
 import io.micronaut.http.annotation.Controller;
 import io.micronaut.http.context.ServerRequestContext;
-import io.micronaut.http.uri.UriBuilder;
+import io.micronaut.scheduling.annotation.ExecuteOn;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.fiware.iam.TIRMapper;
-import org.fiware.iam.filter.ForwardedForFilter;
+import org.fiware.iam.cache.AttributeValidity;
+import org.fiware.iam.cache.AuthorizationIndex;
+import org.fiware.iam.cache.CachedIssuer;
+import org.fiware.iam.cache.CachedRegistryVersion;
+import org.fiware.iam.cache.DidFilter;
+import org.fiware.iam.cache.IssuerCache;
+import org.fiware.iam.cache.IssuerCount;
+import org.fiware.iam.cache.IssuerWithValidities;
+import org.fiware.iam.configuration.CredentialValidityConfig;
+import org.fiware.iam.execution.ControllerExecutorFactory;
+import org.fiware.iam.metrics.RegistryMetrics;
+import org.fiware.iam.repository.CredentialRepository;
+import org.fiware.iam.repository.IssuerGraphLoader;
 import org.fiware.iam.repository.TrustedIssuer;
 import org.fiware.iam.repository.TrustedIssuerRepository;
+import org.fiware.iam.snapshot.RegistrySnapshot;
 import org.fiware.iam.tir.api.TirApi;
-import org.fiware.iam.tir.model.IssuerEntryVO;
+import org.fiware.iam.tir.model.AuthorizationVO;
+import org.fiware.iam.tir.model.IssuerAttributeVO;
+import org.fiware.iam.tir.model.IssuerLookupResponseVO;
+import org.fiware.iam.tir.model.IssuerLookupVO;
 import org.fiware.iam.tir.model.IssuerVO;
 import org.fiware.iam.tir.model.IssuersResponseVO;
-import org.fiware.iam.tir.model.LinksVO;
 
-import java.net.URI;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Implementation of the (EBSI-compatible) trusted issuers registry
@@ -31,26 +51,91 @@ import java.util.Optional;
  */
 @Slf4j
 @Controller("${general.basepath:/}")
+@Requires(property = "registry-reads.backend", notEquals = "R2DBC")
+@ExecuteOn(ControllerExecutorFactory.CONTROLLER_EXECUTOR)
 @RequiredArgsConstructor
 public class TrustedIssuerRegistryController implements TirApi {
 
-	private static final int DEFAULT_PAGE_SIZE = 10;
+	private static final int MAX_LOOKUP_DIDS = 100;
 
 	private final TIRMapper trustedIssuerMapper;
 	private final TrustedIssuerRepository trustedIssuerRepository;
+	private final CredentialRepository credentialRepository;
+	private final IssuerGraphLoader issuerGraphLoader;
+	private final IssuerCache issuerCache;
+	private final IssuerCount issuerCount;
+	private final CachedRegistryVersion registryVersion;
+	private final RegistrySnapshot registrySnapshot;
+	private final DidFilter didFilter;
+	private final AuthorizationIndex authorizationIndex;
+	private final RegistryMetrics registryMetrics;
+	private final CredentialValidityConfig credentialValidityConfig;
 
+	/**
+	 * Returns the issuer with all its credentials, from the cache or the snapshot if available. If credentials are
+	 * filtered by the time of the request, the attributes are selected from the cached issuer. Only issuers requested
+	 * with the credentials valid at an explicit time are read from the database, which filters the credentials.
+	 */
 	@Override
-	public HttpResponse<IssuerVO> getIssuerV4(String did) {
+	public HttpResponse<IssuerVO> getIssuerV4(String did, @Nullable String validAt, @Nullable String ifNoneMatch) {
 		checkDidFormat(did);
-		Optional<TrustedIssuer> optionalTrustedIssuer = trustedIssuerRepository.getByDid(did);
-		if (optionalTrustedIssuer.isEmpty()) {
+		Optional<Instant> requestedTime = ValidityTimes.getValidAt(validAt, false);
+		if (!didFilter.mightContain(did)) {
+			return HttpResponse.notFound();
+		}
+		Optional<CachedIssuer> optionalIssuer = requestedTime
+				.map(time -> issuerGraphLoader.load(did, time)
+						.map(this::mapIssuer)
+						.map(TrustedIssuerRegistryController::toCachedIssuer))
+				.orElseGet(() -> issuerCache.get(did, key -> registrySnapshot
+								.readIssuer(key, () -> issuerGraphLoader.load(key).map(this::mapIssuer))
+								.map(TrustedIssuerRegistryController::toCachedIssuer))
+						.map(this::filterByDefaultTime));
+		if (optionalIssuer.isEmpty()) {
 			return HttpResponse.notFound();
 		}
-		return HttpResponse.ok(trustedIssuerMapper.map(optionalTrustedIssuer.get()));
+		CachedIssuer cachedIssuer = optionalIssuer.get();
+		if (EntityTags.matches(ifNoneMatch, cachedIssuer.entityTag())) {
+			return HttpResponse.<IssuerVO>notModified().header(HttpHeaders.ETAG, cachedIssuer.entityTag());
+		}
+		return HttpResponse.ok(cachedIssuer.issuer()).header(HttpHeaders.ETAG, cachedIssuer.entityTag());
+	}
+
+	private CachedIssuer filterByDefaultTime(CachedIssuer cachedIssuer) {
+		return credentialValidityConfig.isDefaultToNow() ? validAt(cachedIssuer, Instant.now()) : cachedIssuer;
+	}
+
+	static CachedIssuer toCachedIssuer(IssuerWithValidities issuer) {
+		IssuerVO issuerVO = issuer.issuer();
+		List<String> attributeHashes = issuerVO.getAttributes().stream().map(IssuerAttributeVO::getHash).toList();
+		return new CachedIssuer(issuerVO, EntityTags.ofIssuer(issuerVO.getDid(), attributeHashes),
+				issuer.validities());
+	}
+
+	/**
+	 * Select the attributes valid at the given time, with the same result as reading only the valid credentials from
+	 * the database. The cached issuer is returned as is, if all its attributes are valid.
+	 */
+	static CachedIssuer validAt(CachedIssuer cachedIssuer, Instant time) {
+		List<AttributeValidity> validities = cachedIssuer.validities();
+		if (validities.stream().allMatch(validity -> validity.isValidAt(time))) {
+			return cachedIssuer;
+		}
+		List<IssuerAttributeVO> attributes = cachedIssuer.issuer().getAttributes();
+		List<IssuerAttributeVO> validAttributes = new ArrayList<>();
+		List<AttributeValidity> validValidities = new ArrayList<>();
+		for (int i = 0; i < attributes.size(); i++) {
+			if (validities.get(i).isValidAt(time)) {
+				validAttributes.add(attributes.get(i));
+				validValidities.add(validities.get(i));
+			}
+		}
+		IssuerVO validIssuer = new IssuerVO().did(cachedIssuer.issuer().getDid()).attributes(validAttributes);
+		return toCachedIssuer(new IssuerWithValidities(validIssuer, validValidities));
 	}
 
 	// checks the basic structure of a did, will not validate them!
-	private void checkDidFormat(String did) {
+	static void checkDidFormat(String did) {
 		String[] didParts = did.split(":");
 		if (didParts.length < 3 || !didParts[0].equals("did")) {
 			throw new IllegalArgumentException("Provided string is not a valid did.");
@@ -58,83 +143,161 @@ public class TrustedIssuerRegistryController implements TirApi {
 	}
 
 	/**
-	 * Implements anchor-based pagination on top of the offset-mechanism from the repository.
+	 * Answers from the authorization index if it is available, otherwise from the credentials of the issuer, without
+	 * their claims. Unknown issuers are rejected through the did filter.
 	 */
 	@Override
-	public HttpResponse<IssuersResponseVO> getIssuersV4(@Nullable Integer pageSize, @Nullable Integer page) {
+	public HttpResponse<AuthorizationVO> getAuthorizationV4(String did, String credentialsType,
+			@Nullable String validAt) {
+		checkDidFormat(did);
+		checkCredentialsType(credentialsType);
+		Instant validAtInstant = ValidityTimes.getValidAtOrNow(validAt);
+		boolean authorized = didFilter.mightContain(did) && authorizationIndex
+				.isAuthorized(did, credentialsType, validAtInstant)
+				.orElseGet(() -> AuthorizationIndex.isAuthorized(
+						credentialRepository.findByTrustedIssuerDidInOrderById(List.of(did)), credentialsType,
+						validAtInstant));
+		return HttpResponse.ok(toAuthorization(did, credentialsType, authorized));
+	}
 
-		pageSize = Optional.ofNullable(pageSize).orElse(DEFAULT_PAGE_SIZE);
-		if (pageSize < 1 || pageSize > 100) {
-			throw new IllegalArgumentException("The requested page size is not supported.");
+	static void checkCredentialsType(String credentialsType) {
+		if (credentialsType.isBlank()) {
+			throw new IllegalArgumentException("The requested credentials type must not be blank.");
 		}
+	}
 
-		Sort didSort = Sort.unsorted().order("did");
-        Pageable pagination = Pageable.from( page, pageSize, didSort);
-		Page<TrustedIssuer> result = trustedIssuerRepository.findAll(pagination);
+	static AuthorizationVO toAuthorization(String did, String credentialsType, boolean authorized) {
+		return new AuthorizationVO()
+				.did(did)
+				.credentialsType(credentialsType)
+				.authorized(authorized);
+	}
+
+	/**
+	 * Returns all requested issuers. Issuers that are not cached are loaded at once, with the same number of queries
+	 * as a single issuer.
+	 */
+	@Override
+	public HttpResponse<IssuerLookupResponseVO> lookupIssuersV4(IssuerLookupVO issuerLookupVO) {
+		List<String> dids = getLookupDids(issuerLookupVO);
+		Map<String, CachedIssuer> cachedIssuers = issuerCache.getAll(dids, missingDids -> registrySnapshot
+				.readIssuers(missingDids, this::loadIssuers)
+				.values()
+				.stream()
+				.collect(Collectors.toMap(issuer -> issuer.issuer().getDid(),
+						TrustedIssuerRegistryController::toCachedIssuer)));
+		return HttpResponse.ok(toLookupResponse(dids, cachedIssuers));
+	}
 
-		if (result.isEmpty()) {
-			return HttpResponse.ok(new IssuersResponseVO()
-					.items(List.of())
-					.total(0)
-					.pageSize(0)
-					.self(getHrefUri("")));
+	private Map<String, IssuerWithValidities> loadIssuers(Set<String> dids) {
+		Set<String> knownDids = dids.stream().filter(didFilter::mightContain).collect(Collectors.toSet());
+		if (knownDids.isEmpty()) {
+			return Map.of();
 		}
+		return issuerGraphLoader.loadAll(knownDids)
+				.stream()
+				.map(this::mapIssuer)
+				.collect(Collectors.toMap(issuer -> issuer.issuer().getDid(), Function.identity()));
+	}
+
+	// the attributes are mapped in the order of the credentials
+	private IssuerWithValidities mapIssuer(TrustedIssuer trustedIssuer) {
+		IssuerVO issuerVO = registryMetrics.timeMapping(RegistryMetrics.MapperStage.TIR_ISSUER,
+				() -> trustedIssuerMapper.map(trustedIssuer));
+		return new IssuerWithValidities(issuerVO,
+				trustedIssuer.getCredentials().stream().map(AttributeValidity::of).toList());
+	}
+
+	// validates the requested dids and removes duplicates, keeping the requested order
+	static List<String> getLookupDids(@Nullable IssuerLookupVO issuerLookupVO) {
+		List<String> requestedDids = Optional.ofNullable(issuerLookupVO)
+				.map(IssuerLookupVO::getDids)
+				.orElse(List.of());
+		if (requestedDids.isEmpty() || requestedDids.size() > MAX_LOOKUP_DIDS) {
+			throw new IllegalArgumentException(
+					String.format("Between 1 and %s issuers can be looked up at once.", MAX_LOOKUP_DIDS));
+		}
+		Set<String> dids = new LinkedHashSet<>();
+		requestedDids.forEach(did -> {
+			if (did == null) {
+				throw new IllegalArgumentException("Provided string is not a valid did.");
+			}
+			checkDidFormat(did);
+			dids.add(did);
+		});
+		return List.copyOf(dids);
+	}
 
-        List<IssuerEntryVO> issuerEntries = result.getContent().stream()
-                .map(entry -> new IssuerEntryVO()
-                        .did(entry.getDid())
-                        .href(getHrefUri(entry.getDid()))
-                ).toList();
-		return HttpResponse.ok(new IssuersResponseVO()
-				.items(issuerEntries)
-				.total((int) result.getTotalSize())
-				.pageSize(result.getNumberOfElements())
-				.self(getHrefUri(""))
-				.links(getLinks(result)));
+	static IssuerLookupResponseVO toLookupResponse(List<String> dids, Map<String, CachedIssuer> cachedIssuers) {
+		return new IssuerLookupResponseVO()
+				.issuers(dids.stream()
+						.filter(cachedIssuers::containsKey)
+						.map(did -> cachedIssuers.get(did).issuer())
+						.toList())
+				.missing(dids.stream()
+						.filter(did -> !cachedIssuers.containsKey(did))
+						.toList());
 	}
 
-    private URI getHrefUri(String path) {
-
-        UriBuilder builder = getBaseUriBuilder();
-        if (path != null && !path.isEmpty()) {
-            builder.path(path);
-        }
-        return builder.build();
-    }
-
-    private UriBuilder getBaseUriBuilder() {
-        Optional<HttpRequest<Object>> httpRequest = ServerRequestContext.currentRequest();
-        if (httpRequest.isPresent()) {
-            HttpRequest<?> request = httpRequest.get();
-            URI baseUri = (URI) request.getAttribute(ForwardedForFilter.REQ_ATTR).orElse(URI.create("/"));
-            return UriBuilder.of(baseUri).replacePath(request.getPath());
-        }
-        return UriBuilder.of("/");
-    }
-
-    private LinksVO getLinks(Page<?> page) {
-        LinksVO links = new LinksVO();
-        URI baseUri = getHrefUri("");
-        int pageSize = page.getSize();
-
-        if (page.hasPrevious()) {
-            links.prev(UriBuilder.of(baseUri)
-                    .queryParam("page[after]", page.getPageable().previous().getNumber())
-                    .queryParam("page[size]", page.getSize()).build());
-
-        }
-        if (page.hasNext()) {
-            links.next(UriBuilder.of(baseUri)
-                    .queryParam("page[after]", page.getPageable().next().getNumber())
-                    .queryParam("page[size]", pageSize).build());
-        }
-
-        links.first(UriBuilder.of(baseUri)
-                .queryParam("page[after]", 0)
-                .queryParam("page[size]", pageSize).build());
-        links.last(UriBuilder.of(baseUri)
-                .queryParam("page[after]", page.getTotalPages() - 1)
-                .queryParam("page[size]", pageSize).build());
-        return links;
-    }
+	/**
+	 * Implements anchor-based pagination. The cursor holds the did of the last issuer of the previous page, the page is
+	 * read through the keyset "did > anchor", ordered by did. The total is taken from the cached count and can be
+	 * skipped, together with the link to the last page.
+	 * The page is tagged with a weak entity tag, built from the registry version and the request. If the client already
+	 * has the page for the current version, it is answered with 304 before querying the issuers.
+	 * Lists filtered by credentials type are always read from the database, through the index on type and did.
+	 */
+	@Override
+	public HttpResponse<IssuersResponseVO> getIssuersV4(@Nullable Integer pageSize, @Nullable String pageAfter,
+			@Nullable Boolean pageTotal, @Nullable String credentialsType, @Nullable String ifNoneMatch) {
+
+		int size = IssuerPages.pageSize(pageSize);
+		String anchor = IssuerPages.anchor(pageAfter);
+		boolean includeTotal = Optional.ofNullable(pageTotal).orElse(true);
+		Optional<String> optionalType = IssuerPages.credentialsType(credentialsType);
+		HttpRequest<?> request = ServerRequestContext.currentRequest().orElse(null);
+
+		String entityTag = IssuerPages.entityTag(registryVersion.get(), request);
+		if (EntityTags.matches(ifNoneMatch, entityTag)) {
+			return HttpResponse.<IssuersResponseVO>notModified().header(HttpHeaders.ETAG, entityTag);
+		}
+		if (optionalType.isPresent()) {
+			return HttpResponse.ok(readTypePage(request, optionalType.get(), anchor, size))
+					.header(HttpHeaders.ETAG, entityTag);
+		}
+
+		List<String> dids = trustedIssuerRepository.findDidByDidGreaterThan(anchor, IssuerPages.pageAfter(size));
+		if (dids.isEmpty()) {
+			return HttpResponse.ok(IssuerPages.emptyPage(request)).header(HttpHeaders.ETAG, entityTag);
+		}
+
+		String firstDid = dids.getFirst();
+		List<String> previousDids = trustedIssuerRepository.findDidByDidLessThan(firstDid,
+				IssuerPages.pageBefore(size));
+		Long total = null;
+		List<String> lastDids = null;
+		if (includeTotal) {
+			total = issuerCount.get();
+			lastDids = trustedIssuerRepository.findDidByDidIsNotNull(IssuerPages.pageBefore(size));
+		}
+		return HttpResponse.ok(IssuerPages.page(request, dids, size, total, previousDids, lastDids, null))
+				.header(HttpHeaders.ETAG, entityTag);
+	}
+
+	/**
+	 * Reads a page of the issuers that hold a credential of the given type. The dids are read from the index on type
+	 * and did, thus the page does not depend on the number of credentials in the registry. The cached count does
+	 * not cover the types, the total and the link to the last page are therefore not included.
+	 */
+	private IssuersResponseVO readTypePage(@Nullable HttpRequest<?> request, String credentialsType, String anchor,
+			int size) {
+		List<String> dids = credentialRepository.findTrustedIssuerDidByCredentialsTypeAndDidGreaterThan(
+				credentialsType, anchor, size + 1);
+		if (dids.isEmpty()) {
+			return IssuerPages.emptyPage(request);
+		}
+		List<String> previousDids = credentialRepository.findTrustedIssuerDidByCredentialsTypeAndDidLessThan(
+				credentialsType, dids.getFirst(), size + 1);
+		return IssuerPages.page(request, dids, size, null, previousDids, null, credentialsType);
+	}
 }
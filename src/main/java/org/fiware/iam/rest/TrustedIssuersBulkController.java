@@ -0,0 +1,82 @@
+package org.fiware.iam.rest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.MediaType;
+import io.micronaut.http.annotation.Body;
+import io.micronaut.http.annotation.Controller;
+import io.micronaut.http.annotation.Post;
+import io.micronaut.scheduling.annotation.ExecuteOn;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.fiware.iam.execution.ControllerExecutorFactory;
+import org.fiware.iam.til.model.BulkImportResultVO;
+import org.fiware.iam.til.model.TrustedIssuerVO;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Newline-delimited json variant of the bulk import, that is not covered by the generated api. Every line holds one
+ * issuer, lines that cannot be read are reported as invalid. The body is read while it arrives, so that chunks of
+ * issuers are imported without holding the whole request in memory.
+ */
+@Slf4j
+@Controller("${general.basepath:/}")
+@ExecuteOn(ControllerExecutorFactory.CONTROLLER_EXECUTOR)
+@RequiredArgsConstructor
+public class TrustedIssuersBulkController {
+
+	public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+	private final ObjectMapper objectMapper;
+	private final BulkIssuerImporter bulkIssuerImporter;
+
+	@Post(uri = "/issuer/bulk", consumes = APPLICATION_NDJSON, produces = MediaType.APPLICATION_JSON)
+	public HttpResponse<BulkImportResultVO> createTrustedIssuersFromNdjson(@Body Publisher<byte[]> issuers) {
+		try (Stream<TrustedIssuerVO> trustedIssuerVOS = lines(issuers)
+				.filter(line -> !line.isBlank())
+				.toStream()
+				.map(this::readIssuer)) {
+			return HttpResponse.ok(bulkIssuerImporter.importIssuers(trustedIssuerVOS));
+		}
+	}
+
+	// a line can span multiple chunks of the body, newlines cannot be part of a multibyte character in utf-8
+	static Flux<String> lines(Publisher<byte[]> chunks) {
+		return Flux.defer(() -> {
+			ByteArrayOutputStream pendingLine = new ByteArrayOutputStream();
+			return Flux.from(chunks)
+					.concatMapIterable(chunk -> {
+						List<String> lines = new ArrayList<>();
+						for (byte b : chunk) {
+							if (b == '\n') {
+								lines.add(pendingLine.toString(StandardCharsets.UTF_8));
+								pendingLine.reset();
+							} else {
+								pendingLine.write(b);
+							}
+						}
+						return lines;
+					})
+					.concatWith(Mono.fromSupplier(() -> pendingLine.toString(StandardCharsets.UTF_8)));
+		});
+	}
+
+	// unreadable lines are kept as null, in order to report them at their position
+	private TrustedIssuerVO readIssuer(String line) {
+		try {
+			return objectMapper.readValue(line, TrustedIssuerVO.class);
+		} catch (JsonProcessingException e) {
+			log.debug("Was not able to read issuer from line {}.", line, e);
+			return null;
+		}
+	}
+}
@@ -1,22 +1,36 @@
 package org.fiware.iam.rest;
 
 import io.micronaut.core.annotation.Introspected;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.http.HttpHeaders;
 import io.micronaut.http.HttpResponse;
 import io.micronaut.http.annotation.Controller;
+import io.micronaut.scheduling.annotation.ExecuteOn;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.fiware.iam.TILMapper;
+import org.fiware.iam.TIRMapper;
+import org.fiware.iam.changes.IssuerChangeLog;
+import org.fiware.iam.changes.IssuerChangePublisher;
+import org.fiware.iam.configuration.CredentialValidityConfig;
+import org.fiware.iam.event.IssuerChangedEvent;
 import org.fiware.iam.exception.ConflictException;
-import org.fiware.iam.repository.Credential;
-import org.fiware.iam.repository.CredentialRepository;
+import org.fiware.iam.execution.ControllerExecutorFactory;
+import org.fiware.iam.metrics.RegistryMetrics;
+import org.fiware.iam.repository.IssuerChange;
+import org.fiware.iam.repository.IssuerGraphLoader;
 import org.fiware.iam.repository.TrustedIssuer;
 import org.fiware.iam.repository.TrustedIssuerRepository;
 import org.fiware.iam.til.api.IssuerApi;
+import org.fiware.iam.til.model.BulkImportResultVO;
+import org.fiware.iam.til.model.IssuerChangesVO;
 import org.fiware.iam.til.model.TrustedIssuerVO;
+import org.fiware.iam.tir.model.IssuerAttributeVO;
 
 import java.net.URI;
-import java.util.Collection;
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -24,15 +38,26 @@ import java.util.Optional;
  */
 @Slf4j
 @Controller("${general.basepath:/}")
+@ExecuteOn(ControllerExecutorFactory.CONTROLLER_EXECUTOR)
 @RequiredArgsConstructor
 @Introspected
 public class TrustedIssuersListController implements IssuerApi {
 
 	public static final String HREF_TEMPLATE = "/v4/issuers/%s";
 
+	private static final int DEFAULT_CHANGE_LIMIT = 100;
+	private static final int MAX_CHANGE_LIMIT = 1000;
+
 	private final TrustedIssuerRepository trustedIssuerRepository;
-	private final CredentialRepository credentialRepository;
+	private final IssuerGraphLoader issuerGraphLoader;
+	private final IssuerUpdater issuerUpdater;
+	private final IssuerChangeLog issuerChangeLog;
 	private final TILMapper trustedIssuerMapper;
+	private final TIRMapper attributeMapper;
+	private final IssuerChangePublisher issuerChangePublisher;
+	private final BulkIssuerImporter bulkIssuerImporter;
+	private final RegistryMetrics registryMetrics;
+	private final CredentialValidityConfig credentialValidityConfig;
 
 	@Transactional
 	@Override
@@ -40,11 +65,42 @@ public class TrustedIssuersListController implements IssuerApi {
 		if (trustedIssuerRepository.existsById(trustedIssuerVO.getDid())) {
 			throw new ConflictException("Issuer already exists.", trustedIssuerVO.getDid());
 		}
-		TrustedIssuer persistedIssuer = trustedIssuerRepository.save(trustedIssuerMapper.map(trustedIssuerVO));
+		TrustedIssuer persistedIssuer = trustedIssuerRepository.save(toEntity(trustedIssuerVO));
+		publishChange(new IssuerChangedEvent(persistedIssuer.getDid(), IssuerChangedEvent.ChangeType.CREATED));
 		return HttpResponse.created(URI.create(
 				String.format(HREF_TEMPLATE, persistedIssuer.getDid())));
 	}
 
+	@Override
+	public HttpResponse<BulkImportResultVO> createTrustedIssuers(List<TrustedIssuerVO> trustedIssuerVOS) {
+		return HttpResponse.ok(bulkIssuerImporter.importIssuers(trustedIssuerVOS));
+	}
+
+	/**
+	 * Returns the changes after the given sequence number. One more change than requested is read, to find out if more
+	 * changes are available.
+	 */
+	@Override
+	public HttpResponse<IssuerChangesVO> getChanges(@Nullable Long since, @Nullable Integer limit) {
+		long sequenceNumber = Optional.ofNullable(since).orElse(0L);
+		int changeLimit = Optional.ofNullable(limit).orElse(DEFAULT_CHANGE_LIMIT);
+		if (sequenceNumber < 0) {
+			throw new IllegalArgumentException("The sequence number cannot be negative.");
+		}
+		if (changeLimit < 1 || changeLimit > MAX_CHANGE_LIMIT) {
+			throw new IllegalArgumentException("The requested limit is not supported.");
+		}
+		List<IssuerChange> changes = issuerChangeLog.getChangesSince(sequenceNumber, changeLimit + 1);
+		boolean hasMore = changes.size() > changeLimit;
+		List<IssuerChange> returnedChanges = hasMore ? changes.subList(0, changeLimit) : changes;
+		long next = returnedChanges.isEmpty() ? sequenceNumber : returnedChanges.getLast().getSequenceNumber();
+		return HttpResponse.ok(new IssuerChangesVO()
+				.changes(returnedChanges.stream().map(trustedIssuerMapper::map).toList())
+				.next(next)
+				.hasMore(hasMore));
+	}
+
+	@Transactional
 	@Override
 	public HttpResponse<Object> deleteIssuerById(String did) {
 		Optional<TrustedIssuer> optionalTrustedIssuer = trustedIssuerRepository.getByDid(did);
@@ -52,21 +108,37 @@ public class TrustedIssuersListController implements IssuerApi {
 			return HttpResponse.notFound();
 		}
 		trustedIssuerRepository.delete(optionalTrustedIssuer.get());
+		publishChange(new IssuerChangedEvent(did, IssuerChangedEvent.ChangeType.DELETED));
 		return HttpResponse.noContent();
 	}
 
+	/**
+	 * Returns the issuer with all its credentials, or with the credentials valid at the requested time only. The did
+	 * filter is not consulted, so that issuers created through another instance are found before the filter is synced.
+	 */
 	@Override
-	public HttpResponse<TrustedIssuerVO> getIssuer(String did) {
-		return trustedIssuerRepository
-				.getByDid(did)
-				.map(trustedIssuerMapper::map)
-				.map(HttpResponse::ok)
-				.orElseGet(HttpResponse::notFound);
+	public HttpResponse<TrustedIssuerVO> getIssuer(String did, @Nullable String validAt,
+			@Nullable String ifNoneMatch) {
+		Optional<Instant> validAtInstant = ValidityTimes.getValidAt(validAt, credentialValidityConfig.isDefaultToNow());
+		Optional<TrustedIssuer> optionalTrustedIssuer = validAtInstant
+				.map(time -> issuerGraphLoader.load(did, time))
+				.orElseGet(() -> issuerGraphLoader.load(did));
+		if (optionalTrustedIssuer.isEmpty()) {
+			return HttpResponse.notFound();
+		}
+		TrustedIssuer trustedIssuer = optionalTrustedIssuer.get();
+		String entityTag = getEntityTag(trustedIssuer);
+		if (EntityTags.matches(ifNoneMatch, entityTag)) {
+			return HttpResponse.<TrustedIssuerVO>notModified().header(HttpHeaders.ETAG, entityTag);
+		}
+		return HttpResponse.ok(registryMetrics.timeMapping(RegistryMetrics.MapperStage.TIL_ISSUER,
+				() -> trustedIssuerMapper.map(trustedIssuer))).header(HttpHeaders.ETAG, entityTag);
 	}
 
+	@Transactional
 	@Override
 	public HttpResponse<TrustedIssuerVO> updateIssuer(String did, TrustedIssuerVO trustedIssuerVO) {
-		Optional<TrustedIssuer> optionalTrustedIssuer = trustedIssuerRepository.getByDid(did);
+		Optional<TrustedIssuer> optionalTrustedIssuer = issuerGraphLoader.load(did);
 		if (optionalTrustedIssuer.isEmpty()) {
 			return HttpResponse.notFound();
 		}
@@ -74,10 +146,36 @@ public class TrustedIssuersListController implements IssuerApi {
 			throw new IllegalArgumentException("Did does not match the issuer object.");
 		}
 
-		Collection<Credential> credentials = optionalTrustedIssuer.get().getCredentials();
-		credentialRepository.deleteAll(credentials);
+		TrustedIssuer updatedIssuer = toEntity(trustedIssuerVO);
+		// only the differences are written, an unchanged issuer is neither written nor recorded as changed
+		if (issuerUpdater.update(optionalTrustedIssuer.get(), updatedIssuer)) {
+			publishChange(new IssuerChangedEvent(did, IssuerChangedEvent.ChangeType.UPDATED));
+		}
+		return HttpResponse.ok(trustedIssuerMapper.map(updatedIssuer));
+	}
+
+	// the entity is written with its precomputed registry attributes
+	private TrustedIssuer toEntity(TrustedIssuerVO trustedIssuerVO) {
+		TrustedIssuer trustedIssuer = registryMetrics.timeMapping(RegistryMetrics.MapperStage.TIL_ENTITY,
+				() -> trustedIssuerMapper.map(trustedIssuerVO));
+		return registryMetrics.timeMapping(RegistryMetrics.MapperStage.TIR_ATTRIBUTES,
+				() -> attributeMapper.withAttributes(trustedIssuer));
+	}
+
+	// recorded in the transaction of the change, so that the change log cannot miss committed changes, while the
+	// listeners are only notified after the commit
+	private void publishChange(IssuerChangedEvent issuerChangedEvent) {
+		issuerChangePublisher.publish(issuerChangedEvent);
+	}
 
-		return HttpResponse.ok(
-				trustedIssuerMapper.map(trustedIssuerRepository.update(trustedIssuerMapper.map(trustedIssuerVO))));
+	// the attribute hashes cover the full credentials, thus the issuer can be tagged without serializing it
+	private String getEntityTag(TrustedIssuer trustedIssuer) {
+		List<String> attributeHashes = Optional.ofNullable(trustedIssuer.getCredentials())
+				.map(credentials -> credentials.stream()
+						.map(attributeMapper::toAttribute)
+						.map(IssuerAttributeVO::getHash)
+						.toList())
+				.orElse(List.of());
+		return EntityTags.ofIssuer(trustedIssuer.getDid(), attributeHashes);
 	}
 }
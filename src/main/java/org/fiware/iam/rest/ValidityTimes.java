@@ -0,0 +1,49 @@
+package org.fiware.iam.rest;
+
+import io.micronaut.core.annotation.Nullable;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+
+/**
+ * Parses the times that credentials are requested to be valid at, shared by the controllers.
+ */
+final class ValidityTimes {
+
+	private ValidityTimes() {
+		// utility class
+	}
+
+	/**
+	 * Parse the requested time.
+	 *
+	 * @param validAt as requested, the current time is used if not set
+	 * @return the time to check
+	 */
+	static Instant getValidAtOrNow(@Nullable String validAt) {
+		return Optional.ofNullable(validAt).map(ValidityTimes::parse).orElseGet(Instant::now);
+	}
+
+	/**
+	 * Parse the requested time.
+	 *
+	 * @param validAt      as requested
+	 * @param defaultToNow should the current time be used if no time was requested
+	 * @return the time to filter the credentials by, empty if they should not be filtered
+	 */
+	static Optional<Instant> getValidAt(@Nullable String validAt, boolean defaultToNow) {
+		if (validAt == null) {
+			return defaultToNow ? Optional.of(Instant.now()) : Optional.empty();
+		}
+		return Optional.of(parse(validAt));
+	}
+
+	private static Instant parse(String validAt) {
+		try {
+			return Instant.parse(validAt);
+		} catch (DateTimeParseException e) {
+			throw new IllegalArgumentException("Provided string is not a valid date-time.", e);
+		}
+	}
+}
@@ -0,0 +1,212 @@
+package org.fiware.iam.snapshot;
+
+import io.micronaut.core.annotation.Nullable;
+import org.fiware.iam.cache.AttributeValidity;
+import org.fiware.iam.cache.IssuerWithValidities;
+import org.fiware.iam.tir.model.IssuerAttributeVO;
+import org.fiware.iam.tir.model.IssuerVO;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Read-only view on a registry snapshot, mapped into memory. Opening only validates the header, the issuers are read
+ * from the mapped file on access, thus the operating system's page cache holds the hot parts of the registry.
+ * <p>
+ * Layout of the file, all numbers big-endian:
+ * <pre>
+ * header:  magic (int) | format version (int) | registry version (long) | created at (long, epoch millis)
+ *          | number of issuers (int) | offset of the index (long)
+ * records: did (string) | number of attributes (int) | per attribute: hash, body, issuer type, tao, root tao (string)
+ *          | valid from, valid to (instant)
+ * index:   offset of every record (long), ordered by did in java string order
+ * </pre>
+ * Strings are stored as their length in bytes (int, -1 for null), followed by their UTF-8 bytes. Instants are stored
+ * as their epoch seconds (long), followed by their nanoseconds (int, -1 for null).
+ */
+public final class MappedSnapshot {
+
+	static final int MAGIC = 0x54494C53;
+	static final int FORMAT_VERSION = 2;
+	static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 4 + 8;
+	static final int NULL_LENGTH = -1;
+	static final int NULL_NANOS = -1;
+	static final int INSTANT_SIZE = Long.BYTES + Integer.BYTES;
+
+	private final ByteBuffer buffer;
+	private final long registryVersion;
+	private final Instant createdAt;
+	private final int size;
+	private final int indexOffset;
+
+	private MappedSnapshot(ByteBuffer buffer, long registryVersion, Instant createdAt, int size, int indexOffset) {
+		this.buffer = buffer;
+		this.registryVersion = registryVersion;
+		this.createdAt = createdAt;
+		this.size = size;
+		this.indexOffset = indexOffset;
+	}
+
+	/**
+	 * Map the snapshot at the given path.
+	 *
+	 * @param path of the snapshot
+	 * @return the mapped snapshot
+	 * @throws IOException if the file cannot be read or is not a valid snapshot
+	 */
+	public static MappedSnapshot open(Path path) throws IOException {
+		MappedByteBuffer buffer;
+		// the mapping stays valid after the channel is closed
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+				throw new IOException(String.format("%s is not a valid snapshot.", path));
+			}
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		if (buffer.getInt(0) != MAGIC) {
+			throw new IOException(String.format("%s is not a valid snapshot.", path));
+		}
+		if (buffer.getInt(4) != FORMAT_VERSION) {
+			throw new IOException(String.format("Format version %s of snapshot %s is not supported.",
+					buffer.getInt(4), path));
+		}
+		long registryVersion = buffer.getLong(8);
+		Instant createdAt = Instant.ofEpochMilli(buffer.getLong(16));
+		int size = buffer.getInt(24);
+		long indexOffset = buffer.getLong(28);
+		if (size < 0 || indexOffset < HEADER_SIZE || indexOffset + (long) size * Long.BYTES != buffer.capacity()) {
+			throw new IOException(String.format("Snapshot %s is incomplete.", path));
+		}
+		return new MappedSnapshot(buffer, registryVersion, createdAt, size, (int) indexOffset);
+	}
+
+	/**
+	 * @return version of the registry the snapshot was taken from
+	 */
+	public long getRegistryVersion() {
+		return registryVersion;
+	}
+
+	/**
+	 * @return time the snapshot was taken
+	 */
+	public Instant getCreatedAt() {
+		return createdAt;
+	}
+
+	/**
+	 * @return number of issuers in the snapshot
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Read the issuer with the given did.
+	 *
+	 * @param did of the issuer
+	 * @return the issuer with the validities of its attributes, if contained in the snapshot
+	 */
+	public Optional<IssuerWithValidities> getIssuer(String did) {
+		int index = lowerBound(did);
+		if (index == size || !getDid(index).equals(did)) {
+			return Optional.empty();
+		}
+		return Optional.of(readIssuer(getRecordOffset(index)));
+	}
+
+	// first index with a did greater than or equal to the given one
+	private int lowerBound(String did) {
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (getDid(middle).compareTo(did) < 0) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	private int getRecordOffset(int index) {
+		return (int) buffer.getLong(indexOffset + index * Long.BYTES);
+	}
+
+	private String getDid(int index) {
+		int offset = getRecordOffset(index);
+		return new String(readBytes(offset), StandardCharsets.UTF_8);
+	}
+
+	private IssuerWithValidities readIssuer(int offset) {
+		int position = offset;
+		String did = readString(position);
+		position += stringSize(position);
+		int attributeCount = buffer.getInt(position);
+		position += Integer.BYTES;
+		List<IssuerAttributeVO> attributes = new ArrayList<>(attributeCount);
+		List<AttributeValidity> validities = new ArrayList<>(attributeCount);
+		for (int i = 0; i < attributeCount; i++) {
+			String hash = readString(position);
+			position += stringSize(position);
+			String body = readString(position);
+			position += stringSize(position);
+			String issuerType = readString(position);
+			position += stringSize(position);
+			String tao = readString(position);
+			position += stringSize(position);
+			String rootTao = readString(position);
+			position += stringSize(position);
+			Instant validFrom = readInstant(position);
+			position += INSTANT_SIZE;
+			Instant validTo = readInstant(position);
+			position += INSTANT_SIZE;
+			attributes.add(new IssuerAttributeVO()
+					.hash(hash)
+					.body(body)
+					.issuerType(issuerType == null ? null : IssuerAttributeVO.IssuerType.valueOf(issuerType))
+					.tao(tao)
+					.rootTao(rootTao));
+			validities.add(new AttributeValidity(validFrom, validTo));
+		}
+		return new IssuerWithValidities(new IssuerVO().did(did).attributes(attributes), validities);
+	}
+
+	@Nullable
+	private Instant readInstant(int offset) {
+		int nanos = buffer.getInt(offset + Long.BYTES);
+		return nanos == NULL_NANOS ? null : Instant.ofEpochSecond(buffer.getLong(offset), nanos);
+	}
+
+	@Nullable
+	private String readString(int offset) {
+		byte[] bytes = readBytes(offset);
+		return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	// absolute reads, the buffer is shared between all requests
+	@Nullable
+	private byte[] readBytes(int offset) {
+		int length = buffer.getInt(offset);
+		if (length == NULL_LENGTH) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		buffer.get(offset + Integer.BYTES, bytes);
+		return bytes;
+	}
+
+	private int stringSize(int offset) {
+		return Integer.BYTES + Math.max(buffer.getInt(offset), 0);
+	}
+}
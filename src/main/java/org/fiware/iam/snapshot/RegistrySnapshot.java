@@ -0,0 +1,204 @@
+package org.fiware.iam.snapshot;
+
+import io.micronaut.context.event.StartupEvent;
+import io.micronaut.data.exceptions.DataAccessException;
+import io.micronaut.runtime.event.annotation.EventListener;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import org.fiware.iam.cache.IssuerWithValidities;
+import org.fiware.iam.changes.IssuerChangeLog;
+import org.fiware.iam.configuration.SnapshotConfig;
+import org.fiware.iam.configuration.SnapshotConfig.ReadMode;
+import org.fiware.iam.event.IssuerChangedEvent;
+import org.fiware.iam.repository.IssuerChange;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Holds the current registry snapshot and decides whether reads of single issuers are served from it or from the
+ * database. Issuers changed after the snapshot was written are marked as dirty and always read from the database, until
+ * a newer snapshot contains them. Changes through this instance are marked when they are published, changes through
+ * other instances whenever the change log is synced.
+ * <p>
+ * Lists are not served from the snapshot. Its index is ordered by the java string order, while the database pages by
+ * the collation of the did column, thus a traversal that switched between both could skip or repeat issuers.
+ */
+@Slf4j
+@Singleton
+public class RegistrySnapshot {
+
+	private static final long NOT_SYNCED = -1;
+
+	private final SnapshotConfig snapshotConfig;
+	private final IssuerChangeLog issuerChangeLog;
+	private final Path path;
+	private final Set<String> dirtyDids = ConcurrentHashMap.newKeySet();
+
+	private volatile MappedSnapshot snapshot;
+	// sequence number of the last change marked as dirty, starts at the registry version of the first snapshot
+	private volatile long syncedVersion = NOT_SYNCED;
+
+	public RegistrySnapshot(SnapshotConfig snapshotConfig, IssuerChangeLog issuerChangeLog) {
+		this.snapshotConfig = snapshotConfig;
+		this.issuerChangeLog = issuerChangeLog;
+		this.path = Path.of(snapshotConfig.getPath());
+	}
+
+	@EventListener
+	public void onStartup(StartupEvent startupEvent) {
+		if (snapshotConfig.getReadMode() == ReadMode.DISABLED || !Files.exists(path)) {
+			return;
+		}
+		reload(Set.of());
+	}
+
+	@EventListener
+	public void onIssuerChanged(IssuerChangedEvent issuerChangedEvent) {
+		if (snapshotConfig.getReadMode() != ReadMode.DISABLED) {
+			dirtyDids.add(issuerChangedEvent.did());
+		}
+	}
+
+	/**
+	 * Mark the issuers changed through other instances as dirty, by reading the change log since the last sync.
+	 */
+	public synchronized void sync() {
+		if (snapshotConfig.getReadMode() != ReadMode.PRIMARY || syncedVersion == NOT_SYNCED) {
+			return;
+		}
+		int batchSize = snapshotConfig.getSyncBatchSize();
+		List<IssuerChange> changes;
+		do {
+			changes = issuerChangeLog.getChangesSince(syncedVersion, batchSize);
+			changes.forEach(change -> dirtyDids.add(change.getDid()));
+			if (!changes.isEmpty()) {
+				syncedVersion = changes.getLast().getSequenceNumber();
+			}
+		} while (changes.size() == batchSize);
+	}
+
+	/**
+	 * @return path the snapshot is stored at
+	 */
+	public Path getPath() {
+		return path;
+	}
+
+	/**
+	 * @return the dids changed since the current snapshot was written
+	 */
+	public Set<String> getDirtyDids() {
+		return Set.copyOf(dirtyDids);
+	}
+
+	/**
+	 * Map the snapshot from disk.
+	 *
+	 * @param containedDids dirty dids that are contained in the new snapshot, they are no longer dirty
+	 */
+	public void reload(Set<String> containedDids) {
+		try {
+			MappedSnapshot mappedSnapshot = MappedSnapshot.open(path);
+			// changes after the first snapshot are marked before it is used, later ones are already marked
+			if (syncedVersion == NOT_SYNCED) {
+				syncedVersion = mappedSnapshot.getRegistryVersion();
+				try {
+					sync();
+				} catch (RuntimeException e) {
+					log.warn("Was not able to read the changes since the snapshot, they are marked by the next sync.",
+							e);
+				}
+			}
+			snapshot = mappedSnapshot;
+			dirtyDids.removeAll(containedDids);
+			log.info("Loaded snapshot of {} issuers at registry version {}.", mappedSnapshot.size(),
+					mappedSnapshot.getRegistryVersion());
+		} catch (IOException e) {
+			log.warn("Was not able to load the snapshot from {}.", path, e);
+		}
+	}
+
+	/**
+	 * Read a single issuer.
+	 *
+	 * @param did          of the issuer
+	 * @param databaseRead reads the issuer from the database
+	 * @return the issuer, if it exists
+	 */
+	public Optional<IssuerWithValidities> readIssuer(String did,
+			Supplier<Optional<IssuerWithValidities>> databaseRead) {
+		MappedSnapshot currentSnapshot = snapshot;
+		if (currentSnapshot == null) {
+			return databaseRead.get();
+		}
+		return switch (snapshotConfig.getReadMode()) {
+			case DISABLED -> databaseRead.get();
+			case FALLBACK -> {
+				try {
+					yield databaseRead.get();
+				} catch (DataAccessException e) {
+					log.warn("Was not able to read issuer {} from the database, serve it from the snapshot.", did, e);
+					yield currentSnapshot.getIssuer(did);
+				}
+			}
+			// issuers created after the snapshot are not contained, thus misses go to the database
+			case PRIMARY -> dirtyDids.contains(did) ? databaseRead.get() : currentSnapshot.getIssuer(did)
+					.or(databaseRead);
+		};
+	}
+
+	/**
+	 * Read multiple issuers, see {@link #readIssuer(String, Supplier)}. Issuers that are not served from the snapshot
+	 * are read from the database at once.
+	 *
+	 * @param dids         of the issuers
+	 * @param databaseRead reads the given issuers from the database, returns only the existing ones
+	 * @return the existing issuers, by their did
+	 */
+	public Map<String, IssuerWithValidities> readIssuers(Set<String> dids,
+			Function<Set<String>, Map<String, IssuerWithValidities>> databaseRead) {
+		MappedSnapshot currentSnapshot = snapshot;
+		if (currentSnapshot == null) {
+			return databaseRead.apply(dids);
+		}
+		return switch (snapshotConfig.getReadMode()) {
+			case DISABLED -> databaseRead.apply(dids);
+			case FALLBACK -> {
+				try {
+					yield databaseRead.apply(dids);
+				} catch (DataAccessException e) {
+					log.warn("Was not able to read {} issuers from the database, serve them from the snapshot.",
+							dids.size(), e);
+					Map<String, IssuerWithValidities> issuers = new HashMap<>();
+					dids.forEach(did -> currentSnapshot.getIssuer(did).ifPresent(issuer -> issuers.put(did, issuer)));
+					yield issuers;
+				}
+			}
+			case PRIMARY -> {
+				Map<String, IssuerWithValidities> issuers = new HashMap<>();
+				Set<String> databaseDids = new HashSet<>();
+				dids.forEach(did -> {
+					Optional<IssuerWithValidities> snapshotIssuer = dirtyDids.contains(did)
+							? Optional.empty()
+							: currentSnapshot.getIssuer(did);
+					snapshotIssuer.ifPresentOrElse(issuer -> issuers.put(did, issuer), () -> databaseDids.add(did));
+				});
+				if (!databaseDids.isEmpty()) {
+					issuers.putAll(databaseRead.apply(databaseDids));
+				}
+				yield issuers;
+			}
+		};
+	}
+}
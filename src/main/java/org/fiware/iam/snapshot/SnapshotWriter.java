@@ -0,0 +1,140 @@
+package org.fiware.iam.snapshot;
+
+import io.micronaut.core.annotation.Nullable;
+import org.fiware.iam.cache.AttributeValidity;
+import org.fiware.iam.cache.IssuerWithValidities;
+import org.fiware.iam.tir.model.IssuerAttributeVO;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Writes registry snapshots in the format read by {@link MappedSnapshot}. The snapshot is written to a temporary file
+ * next to the target and moved into place once complete, thus readers never see a partial snapshot.
+ */
+public final class SnapshotWriter {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private SnapshotWriter() {
+		// utility class
+	}
+
+	/**
+	 * Write a snapshot of the given issuers.
+	 *
+	 * @param target          path of the snapshot, an existing snapshot is replaced
+	 * @param registryVersion version of the registry the issuers were read at
+	 * @param issuers         the issuers with the validities of their attributes, in any order
+	 * @return number of written issuers
+	 * @throws IOException if the snapshot cannot be written
+	 */
+	public static int write(Path target, long registryVersion, Iterator<IssuerWithValidities> issuers)
+			throws IOException {
+		Path directory = Optional.ofNullable(target.toAbsolutePath().getParent()).orElse(Path.of("."));
+		Files.createDirectories(directory);
+		Path temporary = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+		try {
+			int size;
+			try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+				channel.position(MappedSnapshot.HEADER_SIZE);
+				List<IndexEntry> index = new ArrayList<>();
+				DataOutputStream output = new DataOutputStream(
+						new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+				long position = MappedSnapshot.HEADER_SIZE;
+				while (issuers.hasNext()) {
+					IssuerWithValidities issuer = issuers.next();
+					index.add(new IndexEntry(issuer.issuer().getDid(), position));
+					position += writeIssuer(output, issuer);
+					checkSize(position);
+				}
+				// lookups binary search the index, thus it has to follow the order of the reader
+				index.sort(Comparator.comparing(IndexEntry::did));
+				long indexOffset = position;
+				for (IndexEntry indexEntry : index) {
+					output.writeLong(indexEntry.offset());
+				}
+				checkSize(indexOffset + (long) index.size() * Long.BYTES);
+				output.flush();
+				size = index.size();
+
+				ByteBuffer header = ByteBuffer.allocate(MappedSnapshot.HEADER_SIZE)
+						.putInt(MappedSnapshot.MAGIC)
+						.putInt(MappedSnapshot.FORMAT_VERSION)
+						.putLong(registryVersion)
+						.putLong(Instant.now().toEpochMilli())
+						.putInt(size)
+						.putLong(indexOffset)
+						.flip();
+				channel.write(header, 0);
+				channel.force(true);
+			}
+			Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			return size;
+		} finally {
+			Files.deleteIfExists(temporary);
+		}
+	}
+
+	private static long writeIssuer(DataOutputStream output, IssuerWithValidities issuer) throws IOException {
+		List<IssuerAttributeVO> attributes = Optional.ofNullable(issuer.issuer().getAttributes()).orElse(List.of());
+		long written = writeString(output, issuer.issuer().getDid());
+		output.writeInt(attributes.size());
+		written += Integer.BYTES;
+		for (int i = 0; i < attributes.size(); i++) {
+			IssuerAttributeVO attribute = attributes.get(i);
+			written += writeString(output, attribute.getHash());
+			written += writeString(output, attribute.getBody());
+			written += writeString(output,
+					Optional.ofNullable(attribute.getIssuerType()).map(Enum::name).orElse(null));
+			written += writeString(output, attribute.getTao());
+			written += writeString(output, attribute.getRootTao());
+			AttributeValidity validity = issuer.validities().get(i);
+			written += writeInstant(output, validity.validFrom());
+			written += writeInstant(output, validity.validTo());
+		}
+		return written;
+	}
+
+	private static long writeString(DataOutputStream output, String value) throws IOException {
+		if (value == null) {
+			output.writeInt(MappedSnapshot.NULL_LENGTH);
+			return Integer.BYTES;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		output.writeInt(bytes.length);
+		output.write(bytes);
+		return Integer.BYTES + bytes.length;
+	}
+
+	private static long writeInstant(DataOutputStream output, @Nullable Instant value) throws IOException {
+		output.writeLong(value == null ? 0 : value.getEpochSecond());
+		output.writeInt(value == null ? MappedSnapshot.NULL_NANOS : value.getNano());
+		return MappedSnapshot.INSTANT_SIZE;
+	}
+
+	// a single mapping cannot exceed 2GB
+	private static void checkSize(long size) throws IOException {
+		if (size > Integer.MAX_VALUE) {
+			throw new IOException("The registry exceeds the maximum snapshot size of 2GB.");
+		}
+	}
+
+	private record IndexEntry(String did, long offset) {
+	}
+}
@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS `idx_credential_trusted_issuer_id_valid_to` ON `credential` (`trusted_issuer_id`, `valid_to`);
@@ -0,0 +1,11 @@
+ALTER TABLE `claim_value` ADD COLUMN `value_type` varchar(16);
+
+-- values are stored as serialized json, thus the first character identifies the type
+UPDATE `claim_value` SET `value_type` = CASE
+    WHEN `value` LIKE '"%' THEN 'STRING'
+    WHEN `value` IN ('true', 'false') THEN 'BOOLEAN'
+    WHEN `value` LIKE '{%' OR `value` LIKE '[%' OR `value` = 'null' THEN 'OBJECT'
+    ELSE 'NUMBER'
+END;
+
+ALTER TABLE `claim_value` ALTER COLUMN `value_type` SET NOT NULL;
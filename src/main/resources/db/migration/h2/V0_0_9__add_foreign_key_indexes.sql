@@ -0,0 +1,3 @@
+CREATE INDEX IF NOT EXISTS `idx_credential_trusted_issuer_id` ON `credential` (`trusted_issuer_id`);
+CREATE INDEX IF NOT EXISTS `idx_claim_credential_id` ON `claim` (`credential_id`);
+CREATE INDEX IF NOT EXISTS `idx_claim_value_claim_id` ON `claim_value` (`claim_id`);
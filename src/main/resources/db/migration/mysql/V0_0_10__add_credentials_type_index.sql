@@ -0,0 +1,2 @@
+-- innodb keys are limited to 3072 bytes, which the did alone already takes in utf8mb4, thus only its prefix is indexed
+CREATE INDEX `idx_credential_type_trusted_issuer_id` ON `credential` (`credentials_type`, `trusted_issuer_id`(513));
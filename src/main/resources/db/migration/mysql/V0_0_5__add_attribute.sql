@@ -0,0 +1,2 @@
+ALTER TABLE `credential` ADD COLUMN `attribute_body` text;
+ALTER TABLE `credential` ADD COLUMN `attribute_hash` varchar(64);
\ No newline at end of file
@@ -0,0 +1,6 @@
+CREATE TABLE IF NOT EXISTS `issuer_change` (
+    `sequence_number` bigint NOT NULL PRIMARY KEY,
+    `did` varchar(768) NOT NULL,
+    `change_type` varchar(16) NOT NULL,
+    `changed_at` TIMESTAMP NOT NULL
+);
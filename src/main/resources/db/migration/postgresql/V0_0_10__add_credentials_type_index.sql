@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS idx_credential_type_trusted_issuer_id ON credential (credentials_type, trusted_issuer_id);
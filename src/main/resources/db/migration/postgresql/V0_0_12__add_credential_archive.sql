@@ -0,0 +1,26 @@
+CREATE TABLE IF NOT EXISTS credential_archive (
+    id int NOT NULL PRIMARY KEY,
+    valid_from TIMESTAMP,
+    valid_to TIMESTAMP,
+    credentials_type varchar(255) NOT NULL,
+    trusted_issuer_id varchar(768) NOT NULL,
+    attribute_body text,
+    attribute_hash varchar(64),
+    archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS claim_archive (
+    id int NOT NULL PRIMARY KEY,
+    name varchar(255) NOT NULL,
+    path varchar(1024),
+    credential_id int NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS claim_value_archive (
+    id int NOT NULL PRIMARY KEY,
+    value varchar(255) NOT NULL,
+    value_type varchar(16),
+    claim_id int NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_credential_valid_to ON credential (valid_to);
@@ -0,0 +1,6 @@
+CREATE TABLE IF NOT EXISTS registry_version (
+    id int NOT NULL PRIMARY KEY,
+    version bigint NOT NULL
+);
+
+INSERT INTO registry_version (id, version) VALUES (1, 0);
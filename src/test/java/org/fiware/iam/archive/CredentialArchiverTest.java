@@ -0,0 +1,149 @@
+package org.fiware.iam.archive;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.data.connection.jdbc.advice.DelegatingDataSource;
+import io.micronaut.test.annotation.MockBean;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import lombok.RequiredArgsConstructor;
+import org.fiware.iam.TILMapper;
+import org.fiware.iam.changes.IssuerChangeLog;
+import org.fiware.iam.event.IssuerChangedEvent;
+import org.fiware.iam.repository.Credential;
+import org.fiware.iam.repository.IssuerChange;
+import org.fiware.iam.repository.RegistryVersionRepository;
+import org.fiware.iam.repository.TrustedIssuerRepository;
+import org.fiware.iam.til.model.ClaimVOTestExample;
+import org.fiware.iam.til.model.CredentialsVO;
+import org.fiware.iam.til.model.CredentialsVOTestExample;
+import org.fiware.iam.til.model.TimeRangeVOTestExample;
+import org.fiware.iam.til.model.TrustedIssuerVOTestExample;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@RequiredArgsConstructor
+@MicronautTest(transactional = false)
+@Property(name = "credential-archive.enabled", value = "true")
+@Property(name = "credential-archive.batch-size", value = "1")
+@Property(name = "credential-archive.batch-pause", value = "0s")
+@Property(name = "credential-archive.max-batches", value = "1")
+// the archive is only swept by the test
+@Property(name = "credential-archive.initial-delay", value = "1h")
+public class CredentialArchiverTest {
+
+    private static final String DID = "did:elsi:archived";
+    // within the validity of the example time range, respectively long after it ended
+    private static final Instant VALID_AT = Instant.parse("2020-01-01T00:00:00Z");
+    private static final Instant EXPIRED_AT = Instant.parse("2030-01-01T00:00:00Z");
+    private static final TestClock CLOCK = new TestClock();
+
+    public final CredentialArchiver credentialArchiver;
+    public final TrustedIssuerRepository repository;
+    public final RegistryVersionRepository registryVersionRepository;
+    public final IssuerChangeLog issuerChangeLog;
+    public final TILMapper trustedIssuerMapper;
+    public final MeterRegistry meterRegistry;
+    public final DataSource dataSource;
+
+    @MockBean(Clock.class)
+    public Clock clock() {
+        return CLOCK;
+    }
+
+    @Test
+    public void archiveInBatches() throws SQLException {
+        repository.deleteAll();
+        repository.save(trustedIssuerMapper.map(TrustedIssuerVOTestExample.build()
+                .did(DID)
+                .credentials(List.of(
+                        expiringCredential("First"),
+                        expiringCredential("Second"),
+                        CredentialsVOTestExample.build().credentialsType("Open").validFor(null)))));
+
+        CLOCK.instant = VALID_AT;
+        assertEquals(0, credentialArchiver.archiveExpired(), "Valid credentials should not be archived.");
+        assertEquals(0, meterRegistry.get(CredentialArchiver.LAG_GAUGE).gauge().value(),
+                "Without credentials due, the archive should not lag.");
+
+        long version = registryVersionRepository.findVersionById(RegistryVersionRepository.REGISTRY_VERSION_ID)
+                .orElseThrow();
+        CLOCK.instant = EXPIRED_AT;
+        assertEquals(1, credentialArchiver.archiveExpired(), "Only a single batch should be archived per run.");
+        assertTrue(meterRegistry.get(CredentialArchiver.LAG_GAUGE).gauge().value() > 0,
+                "The remaining expired credential should be reported as lag.");
+        assertEquals(1, credentialArchiver.archiveExpired(), "The next run should archive the next batch.");
+        assertEquals(0, credentialArchiver.archiveExpired(), "All expired credentials should have been archived.");
+        assertEquals(0, meterRegistry.get(CredentialArchiver.LAG_GAUGE).gauge().value(),
+                "After all expired credentials were archived, the archive should not lag.");
+        assertEquals(2, meterRegistry.get(CredentialArchiver.ARCHIVED_COUNTER).counter().count(),
+                "All archived credentials should be counted.");
+
+        List<String> remainingTypes = repository.getByDid(DID).orElseThrow().getCredentials().stream()
+                .map(Credential::getCredentialsType)
+                .toList();
+        assertEquals(List.of("Open"), remainingTypes, "Only the credential without an end should be kept.");
+        assertEquals(2, count("SELECT COUNT(*) FROM credential_archive WHERE trusted_issuer_id = ?"),
+                "The expired credentials should have been moved into the archive.");
+        assertEquals(2, count("SELECT COUNT(*) FROM claim_archive WHERE credential_id IN "
+                        + "(SELECT id FROM credential_archive WHERE trusted_issuer_id = ?)"),
+                "The claims of the expired credentials should have been archived with them.");
+        assertTrue(count("SELECT COUNT(*) FROM claim_value_archive WHERE claim_id IN "
+                        + "(SELECT id FROM claim_archive WHERE credential_id IN "
+                        + "(SELECT id FROM credential_archive WHERE trusted_issuer_id = ?))") > 0,
+                "The claim values of the expired credentials should have been archived with them.");
+        assertEquals(List.of(IssuerChangedEvent.ChangeType.UPDATED, IssuerChangedEvent.ChangeType.UPDATED),
+                issuerChangeLog.getChangesSince(version, 10).stream().map(IssuerChange::getChangeType).toList(),
+                "Every batch should record the issuer as updated.");
+    }
+
+    private static CredentialsVO expiringCredential(String credentialsType) {
+        return CredentialsVOTestExample.build()
+                .credentialsType(credentialsType)
+                .validFor(TimeRangeVOTestExample.build())
+                .claims(List.of(ClaimVOTestExample.build()));
+    }
+
+    private long count(String query) throws SQLException {
+        try (Connection connection = DelegatingDataSource.unwrapDataSource(dataSource).getConnection();
+                PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setString(1, DID);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getLong(1);
+            }
+        }
+    }
+
+    private static class TestClock extends Clock {
+
+        private volatile Instant instant = Instant.EPOCH;
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package org.fiware.iam.cache;
+
+import io.micronaut.context.annotation.Property;
+import io.micronaut.context.event.ApplicationEventPublisher;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import io.micronaut.transaction.TransactionOperations;
+import lombok.RequiredArgsConstructor;
+import org.fiware.iam.TILMapper;
+import org.fiware.iam.changes.IssuerChangeLog;
+import org.fiware.iam.changes.IssuerChangePublisher;
+import org.fiware.iam.event.IssuerChangedEvent;
+import org.fiware.iam.repository.TrustedIssuerRepository;
+import org.fiware.iam.til.model.CredentialsVOTestExample;
+import org.fiware.iam.til.model.TimeRangeVOTestExample;
+import org.fiware.iam.til.model.TrustedIssuerVOTestExample;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@RequiredArgsConstructor
+@MicronautTest
+@Property(name = "authorization-index.enabled", value = "true")
+// the index is only synced by the test
+@Property(name = "authorization-index.initial-delay", value = "1h")
+public class AuthorizationIndexTest {
+
+    // within the validity of the example time range
+    private static final Instant VALID_AT = Instant.parse("2020-01-01T00:00:00Z");
+    private static final Instant EXPIRED_AT = Instant.parse("2024-01-01T00:00:00Z");
+
+    public final AuthorizationIndex authorizationIndex;
+    public final TrustedIssuerRepository repository;
+    public final TILMapper trustedIssuerMapper;
+    public final IssuerChangeLog issuerChangeLog;
+    public final ApplicationEventPublisher<IssuerChangedEvent> eventPublisher;
+    public final IssuerChangePublisher issuerChangePublisher;
+    public final TransactionOperations<Connection> transactionOperations;
+
+    @Test
+    public void answerFromTheIndex() {
+        repository.deleteAll();
+        createIssuer("did:elsi:built", "TypeA");
+        assertTrue(authorizationIndex.isAuthorized("did:elsi:built", "TypeA", VALID_AT).isEmpty(),
+                "Before the index is built, no answer should be available.");
+
+        authorizationIndex.sync();
+        assertEquals(Optional.of(true), authorizationIndex.isAuthorized("did:elsi:built", "TypeA", VALID_AT),
+                "The issuer should be authorized within the validity.");
+        assertEquals(Optional.of(false), authorizationIndex.isAuthorized("did:elsi:built", "TypeA", EXPIRED_AT),
+                "The issuer should not be authorized after the validity.");
+        assertEquals(Optional.of(false), authorizationIndex.isAuthorized("did:elsi:built", "TypeB", VALID_AT),
+                "The issuer should not be authorized for other types.");
+        assertEquals(Optional.of(false), authorizationIndex.isAuthorized("did:elsi:unknown", "TypeA", VALID_AT),
+                "Unknown issuers should not be authorized.");
+
+        createIssuer("did:elsi:published", "TypeB");
+        eventPublisher.publishEvent(
+                new IssuerChangedEvent("did:elsi:published", IssuerChangedEvent.ChangeType.CREATED));
+        assertEquals(Optional.of(true), authorizationIndex.isAuthorized("did:elsi:published", "TypeB", VALID_AT),
+                "Changes published by this instance should be indexed immediately.");
+
+        createIssuer("did:elsi:elsewhere", "TypeA");
+        issuerChangeLog.record(new IssuerChangedEvent("did:elsi:elsewhere", IssuerChangedEvent.ChangeType.CREATED));
+        assertEquals(Optional.of(false), authorizationIndex.isAuthorized("did:elsi:elsewhere", "TypeA", VALID_AT),
+                "Changes through other instances should not be indexed before the sync.");
+        authorizationIndex.sync();
+        assertEquals(Optional.of(true), authorizationIndex.isAuthorized("did:elsi:elsewhere", "TypeA", VALID_AT),
+                "Changes through other instances should be indexed by the sync.");
+
+        repository.deleteById("did:elsi:built");
+        eventPublisher.publishEvent(new IssuerChangedEvent("did:elsi:built", IssuerChangedEvent.ChangeType.DELETED));
+        assertEquals(Optional.of(false), authorizationIndex.isAuthorized("did:elsi:built", "TypeA", VALID_AT),
+                "Deleted issuers should not be authorized anymore.");
+    }
+
+    @Test
+    public void indexCommittedChangesOnly() throws Exception {
+        authorizationIndex.sync();
+
+        // the changes run in their own thread, outside the transaction of the test
+        CompletableFuture.runAsync(() -> transactionOperations.executeWrite(status -> {
+            createIssuer("did:elsi:rolled-back", "TypeA");
+            issuerChangePublisher.publish(
+                    new IssuerChangedEvent("did:elsi:rolled-back", IssuerChangedEvent.ChangeType.CREATED));
+            assertEquals(Optional.of(false),
+                    authorizationIndex.isAuthorized("did:elsi:rolled-back", "TypeA", VALID_AT),
+                    "Changes should not be indexed before they are committed.");
+            status.setRollbackOnly();
+            return null;
+        })).get();
+        assertEquals(Optional.of(false), authorizationIndex.isAuthorized("did:elsi:rolled-back", "TypeA", VALID_AT),
+                "Changes that were rolled back should not be indexed.");
+
+        CompletableFuture.runAsync(() -> transactionOperations.executeWrite(status -> {
+            createIssuer("did:elsi:committed", "TypeA");
+            issuerChangePublisher.publish(
+                    new IssuerChangedEvent("did:elsi:committed", IssuerChangedEvent.ChangeType.CREATED));
+            return null;
+        })).get();
+        assertEquals(Optional.of(true), authorizationIndex.isAuthorized("did:elsi:committed", "TypeA", VALID_AT),
+                "Committed changes should be indexed immediately.");
+    }
+
+    private void createIssuer(String did, String credentialsType) {
+        repository.save(trustedIssuerMapper.map(TrustedIssuerVOTestExample.build()
+                .did(did)
+                .credentials(List.of(CredentialsVOTestExample.build()
+                        .credentialsType(credentialsType)
+                        .validFor(TimeRangeVOTestExample.build())))));
+    }
+}
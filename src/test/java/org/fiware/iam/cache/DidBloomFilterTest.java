@@ -0,0 +1,52 @@
+package org.fiware.iam.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DidBloomFilterTest {
+
+    private static final String DID_TEMPLATE = "did:web:issuer-%s.org";
+
+    @Test
+    void containAllAddedDids() {
+        DidBloomFilter filter = DidBloomFilter.create(10_000, 0.01, 1024 * 1024);
+        IntStream.range(0, 10_000).mapToObj(i -> String.format(DID_TEMPLATE, i)).forEach(filter::put);
+        IntStream.range(0, 10_000).mapToObj(i -> String.format(DID_TEMPLATE, i)).forEach(did ->
+                assertTrue(filter.mightContain(did), "All added dids have to be reported as contained."));
+    }
+
+    @Test
+    void rejectUnknownDidsWithConfiguredRate() {
+        DidBloomFilter filter = DidBloomFilter.create(10_000, 0.01, 1024 * 1024);
+        IntStream.range(0, 10_000).mapToObj(i -> String.format(DID_TEMPLATE, i)).forEach(filter::put);
+        long falsePositives = IntStream.range(10_000, 110_000)
+                .mapToObj(i -> String.format(DID_TEMPLATE, i))
+                .filter(filter::mightContain)
+                .count();
+        assertTrue(falsePositives < 2_000, "The false positive rate should be close to the configured one.");
+        assertTrue(filter.getFalsePositiveRate() < 0.02, "The estimated rate should be close to the configured one.");
+        assertEquals(10_000, filter.getApproximateSize(), 500, "The number of dids should be estimated.");
+    }
+
+    @Test
+    void limitMemory() {
+        DidBloomFilter filter = DidBloomFilter.create(1_000_000, 0.001, 1024);
+        assertEquals(1024, filter.getMemory(), "The filter should not exceed the configured memory.");
+        filter.put(String.format(DID_TEMPLATE, 0));
+        assertTrue(filter.mightContain(String.format(DID_TEMPLATE, 0)), "A smaller filter still contains its dids.");
+    }
+
+    @Test
+    void rejectInvalidConfiguration() {
+        assertFalse(DidBloomFilter.create(1, 0.01, 1024).mightContain(String.format(DID_TEMPLATE, 0)),
+                "An empty filter should not contain any did.");
+        assertThrows(IllegalArgumentException.class, () -> DidBloomFilter.create(100, 1, 1024),
+                "The false positive rate has to be below 1.");
+    }
+}
@@ -0,0 +1,149 @@
+package org.fiware.iam.cache;
+
+import org.fiware.iam.configuration.IssuerCacheConfig;
+import org.fiware.iam.tir.model.IssuerVO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IssuerCacheTest {
+
+    private static final String DID = "did:web:popular.org";
+    private static final int CONCURRENT_REQUESTS = 100;
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void loadConcurrentMissesOnce(boolean cacheEnabled) throws Exception {
+        IssuerCache issuerCache = new IssuerCache(cacheConfig(cacheEnabled), null);
+        AtomicInteger queries = new AtomicInteger();
+        CountDownLatch arrived = new CountDownLatch(CONCURRENT_REQUESTS);
+
+        List<Future<Optional<CachedIssuer>>> results = new ArrayList<>();
+        try (ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+                results.add(executorService.submit(() -> {
+                    arrived.countDown();
+                    return issuerCache.get(DID, did -> {
+                        queries.incrementAndGet();
+                        awaitAllRequests(arrived);
+                        return Optional.of(cachedIssuer(did));
+                    });
+                }));
+            }
+            for (Future<Optional<CachedIssuer>> result : results) {
+                assertTrue(result.get(10, TimeUnit.SECONDS).isPresent(), "All requests should get the issuer.");
+            }
+        }
+        assertEquals(1, queries.get(), "Concurrent requests for the same issuer should share a single query.");
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void loadConcurrentMissesOfAbsentIssuerOnce(boolean cacheEnabled) throws Exception {
+        IssuerCache issuerCache = new IssuerCache(cacheConfig(cacheEnabled), null);
+        AtomicInteger queries = new AtomicInteger();
+        CountDownLatch arrived = new CountDownLatch(CONCURRENT_REQUESTS);
+
+        List<Future<Optional<CachedIssuer>>> results = new ArrayList<>();
+        try (ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+                results.add(executorService.submit(() -> {
+                    arrived.countDown();
+                    return issuerCache.get(DID, did -> {
+                        queries.incrementAndGet();
+                        awaitAllRequests(arrived);
+                        return Optional.empty();
+                    });
+                }));
+            }
+            for (Future<Optional<CachedIssuer>> result : results) {
+                assertTrue(result.get(10, TimeUnit.SECONDS).isEmpty(), "The issuer should not be found.");
+            }
+        }
+        assertEquals(1, queries.get(), "Concurrent requests for an absent issuer should share a single query.");
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void loadConcurrentReactiveMissesOnce(boolean cacheEnabled) {
+        IssuerCache issuerCache = new IssuerCache(cacheConfig(cacheEnabled), null);
+        AtomicInteger queries = new AtomicInteger();
+
+        List<CachedIssuer> results = Flux.range(0, CONCURRENT_REQUESTS)
+                .flatMap(i -> issuerCache.getReactive(DID, did -> Mono.fromCallable(() -> {
+                            queries.incrementAndGet();
+                            return cachedIssuer(did);
+                        })
+                        .delaySubscription(Duration.ofMillis(200)))
+                        .subscribeOn(Schedulers.parallel()))
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertEquals(CONCURRENT_REQUESTS, results.size(), "All requests should get the issuer.");
+        assertEquals(1, queries.get(), "Concurrent requests for the same issuer should share a single query.");
+    }
+
+    @Test
+    void doNotCacheBatchChangedWhileLoading() {
+        IssuerCache issuerCache = new IssuerCache(cacheConfig(true), null);
+        AtomicInteger queries = new AtomicInteger();
+        Function<Set<String>, Map<String, CachedIssuer>> loader = dids -> {
+            queries.incrementAndGet();
+            return dids.stream().collect(Collectors.toMap(Function.identity(), IssuerCacheTest::cachedIssuer));
+        };
+
+        Map<String, CachedIssuer> loadedIssuers = issuerCache.getAll(List.of(DID), dids -> {
+            // the issuer changes after it was read, but before the load completed
+            Map<String, CachedIssuer> staleIssuers = loader.apply(dids);
+            issuerCache.invalidate(DID);
+            return staleIssuers;
+        });
+        assertEquals(Set.of(DID), loadedIssuers.keySet(), "The loaded issuer should be returned.");
+
+        issuerCache.getAll(List.of(DID), loader);
+        assertEquals(2, queries.get(), "An issuer changed while being loaded should not be cached.");
+        issuerCache.getAll(List.of(DID), loader);
+        assertEquals(2, queries.get(), "An issuer loaded without changes should be cached.");
+    }
+
+    // keeps the load in flight until all requests arrived, plus some time for them to reach the cache
+    private static void awaitAllRequests(CountDownLatch arrived) {
+        try {
+            assertTrue(arrived.await(10, TimeUnit.SECONDS), "All requests should have arrived.");
+            Thread.sleep(200);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static IssuerCacheConfig cacheConfig(boolean enabled) {
+        IssuerCacheConfig cacheConfig = new IssuerCacheConfig();
+        cacheConfig.setEnabled(enabled);
+        return cacheConfig;
+    }
+
+    private static CachedIssuer cachedIssuer(String did) {
+        return new CachedIssuer(new IssuerVO().did(did).attributes(List.of()), "\"tag\"", List.of());
+    }
+}
@@ -0,0 +1,47 @@
+package org.fiware.iam.execution;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedExecutorServiceTest {
+
+    @Test
+    void limitConcurrentTasks() throws InterruptedException {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch finished = new CountDownLatch(100);
+        try (BoundedExecutorService executorService =
+                     new BoundedExecutorService(Executors.newVirtualThreadPerTaskExecutor(), 4)) {
+            for (int i = 0; i < 100; i++) {
+                executorService.execute(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(5);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        running.decrementAndGet();
+                        finished.countDown();
+                    }
+                });
+            }
+            assertTrue(finished.await(10, TimeUnit.SECONDS), "All tasks should have been executed.");
+        }
+        assertEquals(4, maxRunning.get(), "Not more than the maximum concurrency should run at once.");
+    }
+
+    @Test
+    void rejectInvalidConcurrency() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new BoundedExecutorService(Executors.newVirtualThreadPerTaskExecutor(), 0),
+                "At least one task has to be allowed to run.");
+    }
+}
@@ -1,5 +1,6 @@
 package org.fiware.iam.filter;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.micronaut.core.order.Ordered;
 import io.micronaut.http.HttpMethod;
 import io.micronaut.http.HttpRequest;
@@ -8,6 +9,8 @@ import io.micronaut.http.filter.ServerFilterChain;
 import io.micronaut.http.server.HttpServerConfiguration;
 import io.micronaut.http.ssl.ServerSslConfiguration;
 import org.fiware.iam.configuration.ForwardedForConfig;
+import org.fiware.iam.configuration.RegistryMetricsConfig;
+import org.fiware.iam.metrics.RegistryMetrics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -22,8 +25,11 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -35,6 +41,7 @@ class ForwardedForFilterTest {
     private ServerFilterChain chain;
     private MutableHttpRequest<?> request;
     private Map<CharSequence, CharSequence> headers;
+    private RegistryMetrics registryMetrics;
 
     @BeforeEach
     void setUp() {
@@ -45,6 +52,7 @@ class ForwardedForFilterTest {
         chain = mock();
         request = HttpRequest.create(HttpMethod.GET, "http://example.com/test");
         headers = new HashMap<>();
+        registryMetrics = new RegistryMetrics(new RegistryMetricsConfig(), new SimpleMeterRegistry());
 
         when(serverConfig.getPort()).thenReturn(Optional.of(8080));
         when(serverConfig.getHost()).thenReturn(Optional.of("localhost"));
@@ -61,7 +69,7 @@ class ForwardedForFilterTest {
     @Test
     void shouldSetDefaultAttributesWhenHeadersAreMissing() {
 
-        ForwardedForFilter filter = new ForwardedForFilter(config, serverConfig, sslConfig);
+        ForwardedForFilter filter = new ForwardedForFilter(config, serverConfig, sslConfig, registryMetrics);
         ArgumentCaptor<HttpRequest> captor = ArgumentCaptor.forClass(HttpRequest.class);
 
         filter.doFilter(request, chain);
@@ -75,6 +83,55 @@ class ForwardedForFilterTest {
         assertEquals(URI.create("http://localhost:8080"), modified.getAttribute(ForwardedForFilter.REQ_ATTR).get());
     }
 
+    @Test
+    void shouldReuseTheBaseUriForTheSameHeaders() {
+
+        headers.put("X-Forwarded-Host", "example.com");
+        headers.put("X-Forwarded-Proto", "https");
+        headers.put("X-Forwarded-Port", "443");
+        request.headers(headers);
+        MutableHttpRequest<?> otherRequest = HttpRequest.create(HttpMethod.GET, "http://example.com/other");
+        otherRequest.headers(headers);
+        ForwardedForFilter filter = new ForwardedForFilter(config, serverConfig, sslConfig, registryMetrics);
+        ArgumentCaptor<HttpRequest> captor = ArgumentCaptor.forClass(HttpRequest.class);
+
+        filter.doFilter(request, chain);
+        filter.doFilter(otherRequest, chain);
+
+        verify(chain, times(2)).proceed(captor.capture());
+        assertEquals(URI.create("https://example.com"),
+                captor.getAllValues().get(0).getAttribute(ForwardedForFilter.REQ_ATTR).get());
+        assertSame(captor.getAllValues().get(0).getAttribute(ForwardedForFilter.REQ_ATTR).get(),
+                captor.getAllValues().get(1).getAttribute(ForwardedForFilter.REQ_ATTR).get(),
+                "The base uri should be resolved only once per combination of headers.");
+    }
+
+    @Test
+    void shouldTimeTheFilter() {
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ForwardedForFilter filter = new ForwardedForFilter(config, serverConfig, sslConfig,
+                new RegistryMetrics(new RegistryMetricsConfig(), meterRegistry));
+
+        filter.doFilter(request, chain);
+
+        assertEquals(1, meterRegistry.get(RegistryMetrics.FILTER_TIMER).timer().count());
+    }
+
+    @Test
+    void shouldNotTimeTheFilterIfDisabled() {
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RegistryMetricsConfig metricsConfig = new RegistryMetricsConfig();
+        metricsConfig.setFilter(false);
+        ForwardedForFilter filter = new ForwardedForFilter(config, serverConfig, sslConfig,
+                new RegistryMetrics(metricsConfig, meterRegistry));
+
+        filter.doFilter(request, chain);
+
+        assertNull(meterRegistry.find(RegistryMetrics.FILTER_TIMER).timer());
+    }
+
     @ParameterizedTest
     @CsvSource({
             "example.com, 443, https, /api, https://example.com/api",
@@ -90,7 +147,7 @@ class ForwardedForFilterTest {
             headers.put("X-Forwarded-Prefix", prefix);
         }
         request.headers(headers);
-        ForwardedForFilter filter = new ForwardedForFilter(config, serverConfig, sslConfig);
+        ForwardedForFilter filter = new ForwardedForFilter(config, serverConfig, sslConfig, registryMetrics);
         ArgumentCaptor<HttpRequest> captor = ArgumentCaptor.forClass(HttpRequest.class);
 
         filter.doFilter(request, chain);
@@ -102,7 +159,7 @@ class ForwardedForFilterTest {
     void shouldUseHttpsDefaultWhenSslIsEnabled() {
 
         when(sslConfig.isEnabled()).thenReturn(true);
-        ForwardedForFilter filter = new ForwardedForFilter(config, serverConfig, sslConfig);
+        ForwardedForFilter filter = new ForwardedForFilter(config, serverConfig, sslConfig, registryMetrics);
         ArgumentCaptor<HttpRequest> captor = ArgumentCaptor.forClass(HttpRequest.class);
 
         filter.doFilter(request, chain);
@@ -113,14 +170,14 @@ class ForwardedForFilterTest {
     @Test
     void shouldReturnHighestPrecedenceOrder() {
 
-        ForwardedForFilter filter = new ForwardedForFilter(config, serverConfig, sslConfig);
+        ForwardedForFilter filter = new ForwardedForFilter(config, serverConfig, sslConfig, registryMetrics);
         assertEquals(Ordered.HIGHEST_PRECEDENCE, filter.getOrder());
     }
 
     @Test
     void shouldNotFailIfConfigIsNull() {
 
-        ForwardedForFilter filter = new ForwardedForFilter(null, serverConfig, sslConfig);
+        ForwardedForFilter filter = new ForwardedForFilter(null, serverConfig, sslConfig, registryMetrics);
         assertDoesNotThrow(() -> filter.doFilter(request, chain));
     }
 }
\ No newline at end of file
@@ -0,0 +1,77 @@
+package org.fiware.iam.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.fiware.iam.configuration.RegistryMetricsConfig;
+import org.fiware.iam.repository.Claim;
+import org.fiware.iam.repository.ClaimValue;
+import org.fiware.iam.repository.Credential;
+import org.fiware.iam.repository.TrustedIssuer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RegistryMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RegistryMetricsConfig metricsConfig;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        metricsConfig = new RegistryMetricsConfig();
+    }
+
+    @Test
+    void recordGraphSizes() {
+        RegistryMetrics registryMetrics = new RegistryMetrics(metricsConfig, meterRegistry);
+        // two values, a claim without values and a credential without claims
+        TrustedIssuer trustedIssuer = new TrustedIssuer()
+                .setDid("did:web:test.org")
+                .setCredentials(List.of(
+                        new Credential().setClaims(List.of(
+                                new Claim().setClaimValues(List.of(new ClaimValue(), new ClaimValue())),
+                                new Claim().setClaimValues(new ArrayList<>()))),
+                        new Credential().setClaims(new ArrayList<>())));
+
+        registryMetrics.recordGraphs(List.of(trustedIssuer, new TrustedIssuer().setDid("did:web:empty.org")));
+
+        assertEquals(2, meterRegistry.get(RegistryMetrics.CREDENTIALS_SUMMARY).summary().totalAmount(),
+                "The credentials of both issuers should be recorded.");
+        assertEquals(2, meterRegistry.get(RegistryMetrics.CLAIM_VALUES_SUMMARY).summary().totalAmount(),
+                "The claim values of both issuers should be recorded.");
+        assertEquals(5, meterRegistry.get(RegistryMetrics.JOIN_ROWS_SUMMARY).summary().totalAmount(),
+                "Every issuer, credential and claim without children should take one row.");
+    }
+
+    @Test
+    void timeMappings() {
+        RegistryMetrics registryMetrics = new RegistryMetrics(metricsConfig, meterRegistry);
+
+        assertEquals("mapped", registryMetrics.timeMapping(RegistryMetrics.MapperStage.TIL_ISSUER, () -> "mapped"));
+
+        assertEquals(1, meterRegistry.get(RegistryMetrics.MAPPER_TIMER).tag("stage", "til.issuer").timer().count(),
+                "The mapping should have been timed.");
+    }
+
+    @Test
+    void skipDisabledGroups() {
+        metricsConfig.setMappers(false);
+        metricsConfig.setGraphSizes(false);
+        metricsConfig.setRepositories(false);
+        RegistryMetrics registryMetrics = new RegistryMetrics(metricsConfig, meterRegistry);
+
+        registryMetrics.timeMapping(RegistryMetrics.MapperStage.TIR_ISSUER, () -> "mapped");
+        registryMetrics.recordGraphs(List.of(new TrustedIssuer().setDid("did:web:test.org")));
+
+        assertNull(meterRegistry.find(RegistryMetrics.MAPPER_TIMER).timer(), "The mappers should not be timed.");
+        assertNull(meterRegistry.find(RegistryMetrics.CREDENTIALS_SUMMARY).summary(),
+                "The graph sizes should not be recorded.");
+        assertNull(registryMetrics.repositoryTimer("TrustedIssuerRepository", "getByDid"),
+                "The repositories should not be timed.");
+    }
+}
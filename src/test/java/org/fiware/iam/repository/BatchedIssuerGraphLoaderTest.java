@@ -0,0 +1,80 @@
+package org.fiware.iam.repository;
+
+import io.micronaut.context.annotation.Property;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import lombok.RequiredArgsConstructor;
+import org.fiware.iam.TILMapper;
+import org.fiware.iam.til.model.ClaimVOTestExample;
+import org.fiware.iam.til.model.CredentialsVOTestExample;
+import org.fiware.iam.til.model.TimeRangeVOTestExample;
+import org.fiware.iam.til.model.TrustedIssuerVO;
+import org.fiware.iam.til.model.TrustedIssuerVOTestExample;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@RequiredArgsConstructor
+@MicronautTest
+@Property(name = "issuer-loading.strategy", value = "BATCHED")
+public class BatchedIssuerGraphLoaderTest {
+
+    public final IssuerGraphLoader issuerGraphLoader;
+    public final TrustedIssuerRepository repository;
+    public final TILMapper trustedIssuerMapper;
+
+    @BeforeEach
+    public void cleanUp() {
+        repository.deleteAll();
+    }
+
+    @Test
+    public void loadIssuer() {
+        assertInstanceOf(BatchedIssuerGraphLoader.class, issuerGraphLoader, "The configured strategy should be used.");
+        TrustedIssuerVO theIssuer = TrustedIssuerVOTestExample.build()
+                .credentials(List.of(
+                        CredentialsVOTestExample.build().claims(List.of(
+                                ClaimVOTestExample.build().name("roles").allowedValues(List.of("a", 1, true)),
+                                ClaimVOTestExample.build().name("subject").allowedValues(List.of()))),
+                        CredentialsVOTestExample.build().credentialsType("OtherCredential").claims(List.of()),
+                        CredentialsVOTestExample.build().credentialsType("ThirdCredential").claims(List.of(
+                                ClaimVOTestExample.build().allowedValues(List.of("b"))))));
+        repository.save(trustedIssuerMapper.map(theIssuer));
+
+        TrustedIssuer loadedIssuer = issuerGraphLoader.load(theIssuer.getDid()).get();
+        assertEquals(trustedIssuerMapper.map(theIssuer), trustedIssuerMapper.map(loadedIssuer),
+                "The complete issuer should be loaded.");
+        assertEquals(trustedIssuerMapper.map(repository.getByDid(theIssuer.getDid()).get()),
+                trustedIssuerMapper.map(loadedIssuer), "The issuer should be the same as loaded through the join.");
+    }
+
+    @Test
+    public void loadValidIssuer() {
+        TrustedIssuerVO theIssuer = TrustedIssuerVOTestExample.build()
+                .credentials(List.of(
+                        CredentialsVOTestExample.build().credentialsType("Expired")
+                                .validFor(TimeRangeVOTestExample.build()),
+                        CredentialsVOTestExample.build().credentialsType("Open").validFor(null)));
+        repository.save(trustedIssuerMapper.map(theIssuer));
+
+        TrustedIssuer loadedIssuer = issuerGraphLoader.load(theIssuer.getDid(), Instant.parse("2024-01-01T00:00:00Z"))
+                .get();
+        assertEquals(List.of("Open"),
+                loadedIssuer.getCredentials().stream().map(Credential::getCredentialsType).toList(),
+                "Only the valid credentials should be loaded.");
+        assertEquals(2, issuerGraphLoader.load(theIssuer.getDid(), Instant.parse("2020-01-01T00:00:00Z")).get()
+                .getCredentials().size(), "All credentials valid at the time should be loaded.");
+        assertTrue(issuerGraphLoader.load("did:elsi:missing", Instant.parse("2020-01-01T00:00:00Z")).isEmpty(),
+                "Missing issuers should not be found.");
+    }
+
+    @Test
+    public void loadMissingIssuer() {
+        assertTrue(issuerGraphLoader.load("did:elsi:missing").isEmpty(), "Missing issuers should not be found.");
+    }
+}
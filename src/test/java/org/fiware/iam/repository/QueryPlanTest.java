@@ -0,0 +1,150 @@
+package org.fiware.iam.repository;
+
+import io.micronaut.context.ApplicationContext;
+import io.micronaut.core.annotation.AnnotationMetadata;
+import io.micronaut.data.annotation.Query;
+import io.micronaut.data.connection.jdbc.advice.DelegatingDataSource;
+import io.micronaut.data.jdbc.annotation.JdbcRepository;
+import io.micronaut.inject.BeanDefinition;
+import io.micronaut.inject.ExecutableMethod;
+import io.micronaut.inject.qualifiers.Qualifiers;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Explains the queries of all methods of the jdbc repositories against H2 and fails if one of them scans a table
+ * instead of using an index. Only the methods of the allow-list may scan.
+ */
+@MicronautTest(transactional = false)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class QueryPlanTest {
+
+    private static final String TABLE_SCAN = ".tableScan";
+
+    // the baseline methods of the crud repositories read or delete the whole table by definition
+    private static final Set<String> ALLOWED_TABLE_SCANS = Set.of(
+            "findAll()",
+            "findAll(Sort)",
+            "findAll(Pageable)",
+            "count()",
+            "deleteAll()");
+
+    @Inject
+    public ApplicationContext applicationContext;
+
+    @Inject
+    public DataSource dataSource;
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryQueries")
+    public void useIndex(String signature, String query) throws SQLException {
+        String plan = explain(query);
+        if (ALLOWED_TABLE_SCANS.contains(signature.substring(signature.indexOf('#') + 1))) {
+            return;
+        }
+        assertFalse(plan.contains(TABLE_SCAN),
+                String.format("The query of %s should use an index, but the plan is:%n%s", signature, plan));
+    }
+
+    @Test
+    public void explainBaselineQueries() {
+        Set<String> signatures = repositoryQueries()
+                .map(arguments -> (String) arguments.get()[0])
+                .collect(Collectors.toSet());
+        assertTrue(signatures.contains("H2TrustedIssuerRepository#findAll()"),
+                "The baseline queries of the crud repositories should be explained.");
+        assertTrue(signatures.contains("H2TrustedIssuerRepository#count()"),
+                "The baseline queries of the crud repositories should be explained.");
+        assertTrue(signatures.contains("H2CredentialRepository#findIdByTrustedIssuerDidAndValidAt(String, Instant)"),
+                "The native queries should be explained.");
+        ALLOWED_TABLE_SCANS.forEach(allowed -> assertTrue(
+                signatures.stream().anyMatch(signature -> signature.endsWith("#" + allowed)),
+                String.format("The allowed scan %s does not belong to any repository method.", allowed)));
+    }
+
+    // the sql is generated at compile time and stored in the query annotation of the repository method, native
+    // queries are stored with positional parameters as raw query. Methods without a query, like the inserts, are
+    // skipped.
+    private Stream<Arguments> repositoryQueries() {
+        return applicationContext.getBeanDefinitions(Qualifiers.byStereotype(JdbcRepository.class))
+                .stream()
+                .sorted(Comparator.comparing(beanDefinition -> beanDefinition.getBeanType().getSimpleName()))
+                .flatMap(this::repositoryQueries);
+    }
+
+    private Stream<Arguments> repositoryQueries(BeanDefinition<?> repository) {
+        return repository.getExecutableMethods()
+                .stream()
+                .flatMap(method -> getQuery(method.getAnnotationMetadata())
+                        .map(query -> Arguments.of(signature(repository, method), query))
+                        .stream())
+                .sorted(Comparator.comparing(arguments -> (String) arguments.get()[0]));
+    }
+
+    private static Optional<String> getQuery(AnnotationMetadata annotationMetadata) {
+        return annotationMetadata.stringValue(Query.class, "rawQuery")
+                .or(() -> annotationMetadata.stringValue(Query.class))
+                .filter(query -> !query.isBlank());
+    }
+
+    private static String signature(BeanDefinition<?> repository, ExecutableMethod<?, ?> method) {
+        return String.format("%s#%s%s", repository.getBeanType().getSimpleName(), method.getMethodName(),
+                Arrays.stream(method.getArgumentTypes())
+                        .map(Class::getSimpleName)
+                        .collect(Collectors.joining(", ", "(", ")")));
+    }
+
+    private String explain(String query) throws SQLException {
+        try (Connection connection = DelegatingDataSource.unwrapDataSource(dataSource).getConnection();
+                PreparedStatement statement = connection.prepareStatement("EXPLAIN " + query)) {
+            ParameterMetaData parameterMetaData = statement.getParameterMetaData();
+            for (int i = 1; i <= parameterMetaData.getParameterCount(); i++) {
+                bind(statement, i, parameterMetaData.getParameterType(i));
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getString(1);
+            }
+        }
+    }
+
+    // parameters are bound with a value of the type h2 derived from the query, the planner might choose another
+    // index for a value that does not match the column
+    private static void bind(PreparedStatement statement, int index, int sqlType) throws SQLException {
+        switch (sqlType) {
+            case Types.TINYINT, Types.SMALLINT, Types.INTEGER, Types.BIGINT, Types.NUMERIC, Types.DECIMAL ->
+                    statement.setLong(index, 1);
+            case Types.BOOLEAN, Types.BIT -> statement.setBoolean(index, true);
+            case Types.TIMESTAMP, Types.TIMESTAMP_WITH_TIMEZONE ->
+                    statement.setTimestamp(index, Timestamp.from(Instant.now()));
+            case Types.VARCHAR, Types.CHAR, Types.CLOB, Types.LONGVARCHAR ->
+                    statement.setString(index, "did:web:example.org");
+            // h2 could not derive the type, the string is converted to the column type
+            default -> statement.setString(index, "1");
+        }
+    }
+}
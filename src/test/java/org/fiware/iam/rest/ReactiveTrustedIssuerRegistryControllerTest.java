@@ -0,0 +1,43 @@
+package org.fiware.iam.rest;
+
+import io.micronaut.context.ApplicationContext;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import org.fiware.iam.cache.IssuerCache;
+import org.fiware.iam.cache.IssuerCount;
+import org.fiware.iam.repository.TrustedIssuerRepository;
+import org.fiware.iam.til.api.IssuerApiTestClient;
+import org.fiware.iam.tir.api.TirApiTestClient;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the registry tests against the reactive controller. The R2DBC connections open the same in-memory database as
+ * the JDBC datasource, thus the issuers are still created through the blocking list api.
+ */
+@MicronautTest
+@Property(name = "registry-reads.backend", value = "R2DBC")
+@Property(name = "r2dbc.datasources.default.url", value = "r2dbc:h2:mem:///devDb")
+@Property(name = "r2dbc.datasources.default.username", value = "user")
+@Property(name = "r2dbc.datasources.default.password", value = "password")
+public class ReactiveTrustedIssuerRegistryControllerTest extends TrustedIssuerRegistryControllerTest {
+
+	private final ApplicationContext applicationContext;
+
+	public ReactiveTrustedIssuerRegistryControllerTest(TirApiTestClient testClient,
+			IssuerApiTestClient insertionClient, TrustedIssuerRepository repository, IssuerCache issuerCache,
+			IssuerCount issuerCount, ApplicationContext applicationContext) {
+		super(testClient, insertionClient, repository, issuerCache, issuerCount);
+		this.applicationContext = applicationContext;
+	}
+
+	@Test
+	public void useReactiveController() {
+		assertTrue(applicationContext.containsBean(ReactiveTrustedIssuerRegistryController.class),
+				"The reactive controller should serve the registry.");
+		assertFalse(applicationContext.containsBean(TrustedIssuerRegistryController.class),
+				"The blocking controller should not be created.");
+	}
+}
@@ -0,0 +1,125 @@
+package org.fiware.iam.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.http.client.annotation.Client;
+import io.micronaut.runtime.server.EmbeddedServer;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import lombok.RequiredArgsConstructor;
+import org.fiware.iam.metrics.RegistryMetrics;
+import org.fiware.iam.repository.TrustedIssuerRepository;
+import org.fiware.iam.til.api.IssuerApiTestClient;
+import org.fiware.iam.til.model.CredentialsVOTestExample;
+import org.fiware.iam.til.model.TrustedIssuerVOTestExample;
+import org.fiware.iam.tir.api.TirApiTestClient;
+import org.fiware.iam.tir.model.IssuerVO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@RequiredArgsConstructor
+@MicronautTest
+public class RegistryExportControllerTest {
+
+	private final IssuerApiTestClient insertionClient;
+	private final TirApiTestClient registryClient;
+	private final TrustedIssuerRepository repository;
+	private final ObjectMapper objectMapper;
+	private final MeterRegistry meterRegistry;
+	private final EmbeddedServer embeddedServer;
+
+	@Inject
+	@Client("/")
+	public HttpClient httpClient;
+
+	@BeforeEach
+	public void cleanUp() {
+		repository.deleteAll();
+	}
+
+	@Test
+	public void exportIssuers200() throws Exception {
+		for (int i = 10; i < 30; i++) {
+			insertionClient.createTrustedIssuer(TrustedIssuerVOTestExample.build()
+					.did(String.format("did:elsi:%s", i))
+					.credentials(List.of(CredentialsVOTestExample.build(), CredentialsVOTestExample.build())));
+		}
+		insertionClient.createTrustedIssuer(TrustedIssuerVOTestExample.build().did("did:elsi:00").credentials(List.of()));
+
+		long credentialLoads = countCredentialLoads();
+		HttpResponse<String> exportResponse = httpClient.toBlocking()
+				.exchange(HttpRequest.GET("/v4/export/issuers"), String.class);
+		assertEquals(HttpStatus.OK, exportResponse.getStatus(), "The export should succeed.");
+		assertEquals(credentialLoads, countCredentialLoads(),
+				"Credentials with precomputed attributes and issuers without credentials should not be loaded.");
+
+		List<IssuerVO> exportedIssuers = new ArrayList<>();
+		for (String line : exportResponse.body().split("\n")) {
+			exportedIssuers.add(objectMapper.readValue(line, IssuerVO.class));
+		}
+		assertEquals(21, exportedIssuers.size(), "All issuers should be exported.");
+		assertEquals("did:elsi:00", exportedIssuers.getFirst().getDid(), "The issuers should be ordered by did.");
+		assertTrue(exportedIssuers.getFirst().getAttributes().isEmpty(),
+				"Issuers without credentials should be exported without attributes.");
+		for (IssuerVO exportedIssuer : exportedIssuers.subList(1, exportedIssuers.size())) {
+			assertEquals(registryClient.getIssuerV4(exportedIssuer.getDid(), null, null).body(), exportedIssuer,
+					"The exported issuer should be the same as the one provided by the registry.");
+		}
+	}
+
+	@Test
+	public void exportIssuers200Gzip() throws Exception {
+		for (int i = 10; i < 30; i++) {
+			insertionClient.createTrustedIssuer(TrustedIssuerVOTestExample.build()
+					.did(String.format("did:elsi:%s", i))
+					.credentials(List.of(CredentialsVOTestExample.build(), CredentialsVOTestExample.build())));
+		}
+		String plainExport = httpClient.toBlocking().retrieve(HttpRequest.GET("/v4/export/issuers"), String.class);
+
+		// the jdk client does not decompress, thus the encoded response can be checked
+		java.net.http.HttpResponse<InputStream> gzipResponse = java.net.http.HttpClient.newHttpClient().send(
+				java.net.http.HttpRequest.newBuilder(URI.create(embeddedServer.getURL() + "/v4/export/issuers"))
+						.header("Accept-Encoding", "gzip")
+						.build(),
+				java.net.http.HttpResponse.BodyHandlers.ofInputStream());
+		assertEquals(HttpStatus.OK.getCode(), gzipResponse.statusCode(), "The export should succeed.");
+		assertEquals("gzip", gzipResponse.headers().firstValue("Content-Encoding").orElse(null),
+				"The export should be compressed, if the client accepts it.");
+		try (InputStream inputStream = new GZIPInputStream(gzipResponse.body())) {
+			assertEquals(plainExport, new String(inputStream.readAllBytes(), StandardCharsets.UTF_8),
+					"The compressed export should contain the same issuers.");
+		}
+	}
+
+	@Test
+	public void exportIssuers200Empty() throws Exception {
+		HttpResponse<String> exportResponse = httpClient.toBlocking()
+				.exchange(HttpRequest.GET("/v4/export/issuers"), String.class);
+		assertEquals(HttpStatus.OK, exportResponse.getStatus(), "The export should succeed.");
+		assertTrue(exportResponse.getBody().map(String::isBlank).orElse(true), "Nothing should be exported.");
+	}
+
+	private long countCredentialLoads() {
+		return meterRegistry.find(RegistryMetrics.REPOSITORY_TIMER)
+				.tag("method", "findByIdIn")
+				.timers()
+				.stream()
+				.mapToLong(Timer::count)
+				.sum();
+	}
+}
@@ -1,10 +1,16 @@
 package org.fiware.iam.rest;
 
+import io.micronaut.http.HttpHeaders;
 import io.micronaut.http.HttpResponse;
 import io.micronaut.http.HttpStatus;
 import io.micronaut.http.client.exceptions.HttpClientResponseException;
 import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import io.micronaut.transaction.TransactionOperations;
+import io.netty.handler.codec.http.QueryStringDecoder;
 import lombok.RequiredArgsConstructor;
+import org.fiware.iam.cache.IssuerCache;
+import org.fiware.iam.cache.IssuerCount;
+import org.fiware.iam.configuration.CredentialValidityConfig;
 import org.fiware.iam.repository.TrustedIssuerRepository;
 import org.fiware.iam.til.api.IssuerApiTestClient;
 import org.fiware.iam.til.model.ClaimVOTestExample;
@@ -14,6 +20,10 @@ import org.fiware.iam.til.model.TrustedIssuerVO;
 import org.fiware.iam.til.model.TrustedIssuerVOTestExample;
 import org.fiware.iam.tir.api.TirApiTestClient;
 import org.fiware.iam.tir.api.TirApiTestSpec;
+import org.fiware.iam.tir.model.AuthorizationVO;
+import org.fiware.iam.tir.model.IssuerEntryVO;
+import org.fiware.iam.tir.model.IssuerLookupResponseVO;
+import org.fiware.iam.tir.model.IssuerLookupVO;
 import org.fiware.iam.tir.model.IssuerVO;
 import org.fiware.iam.tir.model.IssuersResponseVO;
 import org.junit.jupiter.api.BeforeEach;
@@ -23,11 +33,20 @@ import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import java.net.URI;
+import java.sql.Connection;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
@@ -41,24 +60,33 @@ public class TrustedIssuerRegistryControllerTest implements TirApiTestSpec {
 	private final TirApiTestClient testClient;
 	private final IssuerApiTestClient insertionClient;
 	private final TrustedIssuerRepository repository;
+	private final IssuerCache issuerCache;
+	private final IssuerCount issuerCount;
+	private final TrustedIssuersListController trustedIssuersListController;
+	private final TransactionOperations<Connection> transactionOperations;
+	private final CredentialValidityConfig credentialValidityConfig;
 
 	private TrustedIssuerVO storedIssuer;
 	private String didToRequest;
 	private Integer pageSize = null;
-	private Integer lastPage = null;
+	private String lastPage = null;
+	private List<String> lookupDids = null;
 
 	@BeforeEach
 	public void cleanUp() {
 		repository.deleteAll();
+		issuerCache.invalidateAll();
+		issuerCount.invalidate();
 		pageSize = null;
 		lastPage = null;
+		lookupDids = null;
 		didToRequest = null;
 		storedIssuer = null;
 	}
 
 	@Override
 	public void getIssuerV4200() throws Exception {
-		HttpResponse<IssuerVO> issuerResponse = testClient.getIssuerV4(DID_HAPPYPETS);
+		HttpResponse<IssuerVO> issuerResponse = testClient.getIssuerV4(DID_HAPPYPETS, null, null);
 		assertEquals(HttpStatus.OK, issuerResponse.getStatus(), "The issuer should have been returned.");
 		assertTrue(issuerResponse.getBody().isPresent(), "The issuerVO should have been returned.");
 		assertEquals(storedIssuer.getCredentials().size(), issuerResponse.body().getAttributes().size(),
@@ -74,6 +102,99 @@ public class TrustedIssuerRegistryControllerTest implements TirApiTestSpec {
 		getIssuerV4200();
 	}
 
+	@Test
+	public void getIssuerV4200ValidAt() throws Exception {
+		assertEquals(HttpStatus.CREATED, insertionClient.createTrustedIssuer(TrustedIssuerVOTestExample.build()
+						.credentials(List.of(
+								CredentialsVOTestExample.build().validFor(TimeRangeVOTestExample.build()),
+								CredentialsVOTestExample.build().validFor(TimeRangeVOTestExample.build().to(null)),
+								CredentialsVOTestExample.build().validFor(TimeRangeVOTestExample.build().from(null)))))
+						.getStatus(),
+				"The issuer should have been initially created.");
+
+		assertEquals(3, testClient.getIssuerV4(DID_HAPPYPETS, null, null).body().getAttributes().size(),
+				"Without a time, all credentials should be returned.");
+		assertEquals(3, testClient.getIssuerV4(DID_HAPPYPETS, "2020-01-01T00:00:00Z", null).body().getAttributes()
+				.size(), "All credentials valid at the time should be returned.");
+		assertEquals(1, testClient.getIssuerV4(DID_HAPPYPETS, "2024-01-01T00:00:00Z", null).body().getAttributes()
+				.size(), "Expired credentials should not be returned.");
+		assertEquals(1, testClient.getIssuerV4(DID_HAPPYPETS, "2010-01-01T00:00:00Z", null).body().getAttributes()
+				.size(), "Credentials that are not valid yet should not be returned.");
+		assertEquals(HttpStatus.NOT_FOUND,
+				testClient.getIssuerV4("did:elsi:does-not-exist", "2020-01-01T00:00:00Z", null).getStatus(),
+				"Non existing issuers should result in a 404.");
+	}
+
+	@Test
+	public void getIssuerV4200DefaultToNow() throws Exception {
+		assertEquals(HttpStatus.CREATED, insertionClient.createTrustedIssuer(TrustedIssuerVOTestExample.build()
+						.credentials(List.of(
+								CredentialsVOTestExample.build().validFor(TimeRangeVOTestExample.build()),
+								CredentialsVOTestExample.build().validFor(TimeRangeVOTestExample.build().to(null)),
+								CredentialsVOTestExample.build().validFor(TimeRangeVOTestExample.build().from(null)))))
+						.getStatus(),
+				"The issuer should have been initially created.");
+
+		credentialValidityConfig.setDefaultToNow(true);
+		try {
+			HttpResponse<IssuerVO> issuerResponse = testClient.getIssuerV4(DID_HAPPYPETS, null, null);
+			assertEquals(1, issuerResponse.body().getAttributes().size(),
+					"Without a time, only the credentials valid now should be returned.");
+			assertEquals(3, issuerCache.get(DID_HAPPYPETS, did -> Optional.empty())
+							.map(cachedIssuer -> cachedIssuer.issuer().getAttributes().size())
+							.orElse(0),
+					"The issuer should be cached with all credentials.");
+			assertEquals(HttpStatus.NOT_MODIFIED, testClient.getIssuerV4(DID_HAPPYPETS, null,
+							issuerResponse.header(HttpHeaders.ETAG)).getStatus(),
+					"The entity tag should match the credentials valid now.");
+			assertEquals(3, testClient.getIssuerV4(DID_HAPPYPETS, "2020-01-01T00:00:00Z", null).body().getAttributes()
+					.size(), "A requested time should still be applied.");
+		} finally {
+			credentialValidityConfig.setDefaultToNow(false);
+		}
+	}
+
+	@Test
+	public void getIssuerV4200AfterUpdate() throws Exception {
+		TrustedIssuerVO initialIssuer = TrustedIssuerVOTestExample.build()
+				.credentials(List.of(CredentialsVOTestExample.build()));
+		assertEquals(HttpStatus.CREATED, insertionClient.createTrustedIssuer(initialIssuer).getStatus(),
+				"The issuer should have been initially created.");
+		assertEquals(1, testClient.getIssuerV4(DID_HAPPYPETS, null, null).body().getAttributes().size(),
+				"The initial credentials should be returned.");
+
+		TrustedIssuerVO updatedIssuer = TrustedIssuerVOTestExample.build()
+				.credentials(List.of(CredentialsVOTestExample.build(), CredentialsVOTestExample.build()));
+		assertEquals(HttpStatus.OK, insertionClient.updateIssuer(DID_HAPPYPETS, updatedIssuer).getStatus(),
+				"The issuer should have been updated.");
+		assertEquals(2, testClient.getIssuerV4(DID_HAPPYPETS, null, null).body().getAttributes().size(),
+				"The update should be visible on the next read.");
+
+		assertEquals(HttpStatus.NO_CONTENT, insertionClient.deleteIssuerById(DID_HAPPYPETS).getStatus(),
+				"The issuer should have been deleted.");
+		assertEquals(HttpStatus.NOT_FOUND, testClient.getIssuerV4(DID_HAPPYPETS, null, null).getStatus(),
+				"The deletion should be visible on the next read.");
+	}
+
+	@Test
+	public void getIssuerV4200ReadDuringUpdate() throws Exception {
+		assertEquals(HttpStatus.CREATED, insertionClient.createTrustedIssuer(TrustedIssuerVOTestExample.build()
+						.credentials(List.of(CredentialsVOTestExample.build()))).getStatus(),
+				"The issuer should have been initially created.");
+
+		TrustedIssuerVO updatedIssuer = TrustedIssuerVOTestExample.build()
+				.credentials(List.of(CredentialsVOTestExample.build(), CredentialsVOTestExample.build()));
+		// the update runs in its own thread, outside the transaction of the test
+		int attributesDuringUpdate = CompletableFuture.supplyAsync(() -> transactionOperations.executeWrite(status -> {
+			trustedIssuersListController.updateIssuer(DID_HAPPYPETS, updatedIssuer);
+			return testClient.getIssuerV4(DID_HAPPYPETS, null, null).body().getAttributes().size();
+		})).get();
+
+		assertEquals(1, attributesDuringUpdate, "Before the commit, the initial credentials should be returned.");
+		assertEquals(2, testClient.getIssuerV4(DID_HAPPYPETS, null, null).body().getAttributes().size(),
+				"An issuer cached while the update was not committed should not be returned after the commit.");
+	}
+
 	private static Stream<Arguments> validIssuers() {
 		return Stream.of(
 				Arguments.of(
@@ -108,7 +229,7 @@ public class TrustedIssuerRegistryControllerTest implements TirApiTestSpec {
 	@Override
 	public void getIssuerV4400() throws Exception {
 		try {
-			testClient.getIssuerV4(didToRequest);
+			testClient.getIssuerV4(didToRequest, null, null);
 		} catch (HttpClientResponseException e) {
 			assertEquals(HttpStatus.BAD_REQUEST, e.getStatus(),
 					"If no valid did is provided, a 400 should be returned.");
@@ -120,10 +241,33 @@ public class TrustedIssuerRegistryControllerTest implements TirApiTestSpec {
 	@Test
 	@Override
 	public void getIssuerV4404() throws Exception {
-		assertEquals(HttpStatus.NOT_FOUND, testClient.getIssuerV4("did:elsi:does-not-exist").getStatus(),
+		assertEquals(HttpStatus.NOT_FOUND, testClient.getIssuerV4("did:elsi:does-not-exist", null, null).getStatus(),
 				"Non existing issuers should result in a 404.");
 	}
 
+	@Test
+	@Override
+	public void getIssuerV4304() throws Exception {
+		assertEquals(HttpStatus.CREATED, insertionClient.createTrustedIssuer(TrustedIssuerVOTestExample.build()
+						.credentials(List.of(CredentialsVOTestExample.build()))).getStatus(),
+				"The issuer should have been initially created.");
+		String entityTag = testClient.getIssuerV4(DID_HAPPYPETS, null, null).header(HttpHeaders.ETAG);
+		assertNotNull(entityTag, "The issuer should be tagged.");
+
+		HttpResponse<IssuerVO> issuerResponse = testClient.getIssuerV4(DID_HAPPYPETS, null, entityTag);
+		assertEquals(HttpStatus.NOT_MODIFIED, issuerResponse.getStatus(), "An unchanged issuer should not be returned.");
+		assertEquals(entityTag, issuerResponse.header(HttpHeaders.ETAG), "The current tag should be returned.");
+		assertEquals(HttpStatus.NOT_MODIFIED,
+				testClient.getIssuerV4(DID_HAPPYPETS, null, "\"other\", W/" + entityTag).getStatus(),
+				"Tags should be weakly compared within a list.");
+
+		insertionClient.updateIssuer(DID_HAPPYPETS, TrustedIssuerVOTestExample.build()
+				.credentials(List.of(CredentialsVOTestExample.build(), CredentialsVOTestExample.build())));
+		issuerResponse = testClient.getIssuerV4(DID_HAPPYPETS, null, entityTag);
+		assertEquals(HttpStatus.OK, issuerResponse.getStatus(), "A changed issuer should be returned.");
+		assertNotEquals(entityTag, issuerResponse.header(HttpHeaders.ETAG), "The changed issuer should be retagged.");
+	}
+
 	@Test
 	@Override
 	public void getIssuersV4200() throws Exception {
@@ -134,17 +278,123 @@ public class TrustedIssuerRegistryControllerTest implements TirApiTestSpec {
 			insertionClient.createTrustedIssuer(issuer);
 			issuers.add(issuer);
 		}
-		HttpResponse<IssuersResponseVO> issuersResponse = testClient.getIssuersV4(null, null);
+		HttpResponse<IssuersResponseVO> issuersResponse = testClient.getIssuersV4(null, null, null, null, null);
 		assertEquals(HttpStatus.OK, issuersResponse.getStatus(), "The issuers should have been returned");
 		assertIssuersResponse(20, 10, 10, 19, issuersResponse.body());
 
-		issuersResponse = testClient.getIssuersV4(20, null);
+		issuersResponse = testClient.getIssuersV4(20, null, null, null, null);
 		assertEquals(HttpStatus.OK, issuersResponse.getStatus(), "The issuers should have been returned");
 		assertIssuersResponse(20, 20, 10, 29, issuersResponse.body());
 
-		issuersResponse = testClient.getIssuersV4(10, 1);
+		issuersResponse = testClient.getIssuersV4(10, null, null, null, null);
+		String nextCursor = getCursor(issuersResponse.body().getLinks().getNext());
+		issuersResponse = testClient.getIssuersV4(10, nextCursor, null, null, null);
 		assertEquals(HttpStatus.OK, issuersResponse.getStatus(), "The issuers should have been returned");
 		assertIssuersResponse(20, 10, 20, 29, issuersResponse.body());
+		assertNull(issuersResponse.body().getLinks().getNext(), "The last page should not link a next page.");
+		assertNull(getCursor(issuersResponse.body().getLinks().getPrev()),
+				"The previous page should be the first one.");
+		assertEquals(nextCursor, getCursor(issuersResponse.body().getLinks().getLast()),
+				"The last page should start after the first page.");
+
+		// issuers inserted in front of the cursor do not shift the page
+		insertionClient.createTrustedIssuer(TrustedIssuerVOTestExample.build().did("did:elsi:00"));
+		issuersResponse = testClient.getIssuersV4(10, nextCursor, null, null, null);
+		assertIssuersResponse(21, 10, 20, 29, issuersResponse.body());
+	}
+
+	@Test
+	public void getIssuersV4200Hrefs() throws Exception {
+		insertionClient.createTrustedIssuer(TrustedIssuerVOTestExample.build().did("did:elsi:10"));
+		insertionClient.createTrustedIssuer(TrustedIssuerVOTestExample.build().did("did:web:example.org:issuer-1"));
+		IssuersResponseVO issuersResponse = testClient.getIssuersV4(10, null, null, null, null).body();
+		String self = issuersResponse.getSelf().toString();
+		issuersResponse.getItems().forEach(item -> {
+			String href = item.getHref().toString();
+			assertTrue(href.startsWith(self), "The item should be linked below the page.");
+			assertTrue(href.endsWith("/v4/issuers/" + item.getDid()), "The item should be linked by its did.");
+		});
+	}
+
+	@Test
+	public void getIssuersV4200ByCredentialsType() throws Exception {
+		for (int i = 10; i < 30; i++) {
+			String credentialsType = i % 2 == 0 ? "TypeA" : "TypeB";
+			// issuers holding multiple credentials of the type are listed once
+			insertionClient.createTrustedIssuer(TrustedIssuerVOTestExample.build()
+					.did(String.format("did:elsi:%s", i))
+					.credentials(List.of(
+							CredentialsVOTestExample.build().credentialsType(credentialsType),
+							CredentialsVOTestExample.build().credentialsType(credentialsType))));
+		}
+		HttpResponse<IssuersResponseVO> issuersResponse = testClient.getIssuersV4(5, null, null, "TypeA", null);
+		assertEquals(HttpStatus.OK, issuersResponse.getStatus(), "The issuers should have been returned");
+		assertEquals(List.of("did:elsi:10", "did:elsi:12", "did:elsi:14", "did:elsi:16", "did:elsi:18"),
+				issuersResponse.body().getItems().stream().map(IssuerEntryVO::getDid).toList(),
+				"Only the issuers of the type should be listed.");
+		assertNull(issuersResponse.body().getTotal(), "The total should not be included.");
+		assertNull(issuersResponse.body().getLinks().getLast(), "The last page should not be linked.");
+		assertNull(issuersResponse.body().getLinks().getPrev(), "The first page should not link a previous page.");
+		URI nextPage = issuersResponse.body().getLinks().getNext();
+		assertEquals(List.of("TypeA"), new QueryStringDecoder(nextPage).parameters().get("credentialsType"),
+				"The next page should be filtered by the same type.");
+
+		issuersResponse = testClient.getIssuersV4(5, getCursor(nextPage), null, "TypeA", null);
+		assertEquals(List.of("did:elsi:20", "did:elsi:22", "did:elsi:24", "did:elsi:26", "did:elsi:28"),
+				issuersResponse.body().getItems().stream().map(IssuerEntryVO::getDid).toList(),
+				"The second page should continue after the first one.");
+		assertNull(issuersResponse.body().getLinks().getNext(), "The last page should not link a next page.");
+		assertNull(getCursor(issuersResponse.body().getLinks().getPrev()),
+				"The previous page should be the first one.");
+
+		assertTrue(testClient.getIssuersV4(5, null, null, "TypeC", null).body().getItems().isEmpty(),
+				"No issuers should be listed for an unknown type.");
+	}
+
+	@Test
+	public void getIssuersV4200WithoutTotal() throws Exception {
+		for (int i = 10; i < 30; i++) {
+			insertionClient.createTrustedIssuer(
+					TrustedIssuerVOTestExample.build().did(String.format("did:elsi:%s", i)));
+		}
+		HttpResponse<IssuersResponseVO> issuersResponse = testClient.getIssuersV4(10, null, false, null, null);
+		assertEquals(HttpStatus.OK, issuersResponse.getStatus(), "The issuers should have been returned");
+		assertNull(issuersResponse.body().getTotal(), "The total should not be included.");
+		assertNull(issuersResponse.body().getLinks().getLast(), "The last page should not be linked.");
+		assertEquals(10, issuersResponse.body().getItems().size(), "All requested items should be included.");
+		assertNotNull(issuersResponse.body().getLinks().getNext(), "The next page should be linked.");
+
+		assertEquals(20, testClient.getIssuersV4(10, null, true, null, null).body().getTotal(),
+				"The total should be included on request.");
+		insertionClient.deleteIssuerById("did:elsi:10");
+		assertEquals(19, testClient.getIssuersV4(10, null, true, null, null).body().getTotal(),
+				"Deletions should be reflected by the total.");
+	}
+
+	@Test
+	@Override
+	public void getIssuersV4304() throws Exception {
+		for (int i = 10; i < 30; i++) {
+			insertionClient.createTrustedIssuer(
+					TrustedIssuerVOTestExample.build().did(String.format("did:elsi:%s", i)));
+		}
+		String entityTag = testClient.getIssuersV4(10, null, null, null, null).header(HttpHeaders.ETAG);
+		assertNotNull(entityTag, "The page should be tagged.");
+		assertTrue(entityTag.startsWith("W/"), "The page should be weakly tagged.");
+
+		assertEquals(HttpStatus.NOT_MODIFIED, testClient.getIssuersV4(10, null, null, null, entityTag).getStatus(),
+				"An unchanged page should not be returned.");
+		assertEquals(HttpStatus.OK, testClient.getIssuersV4(20, null, null, null, entityTag).getStatus(),
+				"Other pages should not match the tag.");
+
+		insertionClient.deleteIssuerById("did:elsi:10");
+		assertEquals(HttpStatus.OK, testClient.getIssuersV4(10, null, null, null, entityTag).getStatus(),
+				"Pages should be returned again after the registry changed.");
+	}
+
+	private static String getCursor(URI pageUri) {
+		List<String> cursor = new QueryStringDecoder(pageUri).parameters().get("page[after]");
+		return cursor == null ? null : cursor.getFirst();
 	}
 
 	private void assertIssuersResponse(int total, int pageSize, int startIndex, int endIndex,
@@ -168,16 +418,27 @@ public class TrustedIssuerRegistryControllerTest implements TirApiTestSpec {
 	}
 
     @ParameterizedTest
-    @ValueSource(ints = {-1})
-	public void getIssuersV4400(Integer lastPage) throws Exception {
+    @ValueSource(strings = {"not-a-cursor!", "%%%"})
+	public void getIssuersV4400(String lastPage) throws Exception {
 		this.lastPage = lastPage;
 		getIssuersV4400();
 	}
 
+	@Test
+	public void getIssuersV4400BlankCredentialsType() throws Exception {
+		try {
+			testClient.getIssuersV4(null, null, null, " ", null);
+		} catch (HttpClientResponseException e) {
+			assertEquals(HttpStatus.BAD_REQUEST, e.getStatus(), "A blank type should result in a 400");
+			return;
+		}
+		fail("A blank type should result in a 400");
+	}
+
 	@Override
 	public void getIssuersV4400() throws Exception {
 		try {
-			testClient.getIssuersV4(pageSize, lastPage);
+			testClient.getIssuersV4(pageSize, lastPage, null, null, null);
 		} catch (HttpClientResponseException e) {
 			assertEquals(HttpStatus.BAD_REQUEST, e.getStatus(), "Invalid arguments should result in a 400");
 			return;
@@ -185,4 +446,108 @@ public class TrustedIssuerRegistryControllerTest implements TirApiTestSpec {
 		fail("Invalid arguments should result in a 400");
 	}
 
-}
\ No newline at end of file
+	@Test
+	@Override
+	public void getAuthorizationV4200() throws Exception {
+		assertEquals(HttpStatus.CREATED, insertionClient.createTrustedIssuer(TrustedIssuerVOTestExample.build()
+						.credentials(List.of(CredentialsVOTestExample.build()
+								.credentialsType("TypeA")
+								.validFor(TimeRangeVOTestExample.build())))).getStatus(),
+				"The issuer should have been initially created.");
+
+		HttpResponse<AuthorizationVO> authorizationResponse =
+				testClient.getAuthorizationV4(DID_HAPPYPETS, "TypeA", "2020-01-01T00:00:00Z");
+		assertEquals(HttpStatus.OK, authorizationResponse.getStatus(), "The authorization should have been checked.");
+		assertEquals(new AuthorizationVO().did(DID_HAPPYPETS).credentialsType("TypeA").authorized(true),
+				authorizationResponse.body(), "The issuer should be authorized within the validity.");
+		assertFalse(testClient.getAuthorizationV4(DID_HAPPYPETS, "TypeA", "2024-01-01T00:00:00Z").body()
+				.getAuthorized(), "The issuer should not be authorized after the validity.");
+		assertFalse(testClient.getAuthorizationV4(DID_HAPPYPETS, "TypeA", null).body().getAuthorized(),
+				"The issuer should not be authorized now, since the validity ended.");
+		assertFalse(testClient.getAuthorizationV4(DID_HAPPYPETS, "TypeB", "2020-01-01T00:00:00Z").body()
+				.getAuthorized(), "The issuer should not be authorized for other types.");
+		assertFalse(testClient.getAuthorizationV4(String.format(DID_TEMPLATE, "missing"), "TypeA",
+				"2020-01-01T00:00:00Z").body().getAuthorized(), "Unknown issuers should not be authorized.");
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "not-a-time", "2020-01-01" })
+	public void getAuthorizationV4400(String validAt) throws Exception {
+		try {
+			testClient.getAuthorizationV4(DID_HAPPYPETS, "TypeA", validAt);
+		} catch (HttpClientResponseException e) {
+			assertEquals(HttpStatus.BAD_REQUEST, e.getStatus(), "Invalid times should result in a 400");
+			return;
+		}
+		fail("Invalid times should result in a 400");
+	}
+
+	@Override
+	public void getAuthorizationV4400() throws Exception {
+		try {
+			testClient.getAuthorizationV4("not-a-did", "TypeA", null);
+		} catch (HttpClientResponseException e) {
+			assertEquals(HttpStatus.BAD_REQUEST, e.getStatus(), "Invalid dids should result in a 400");
+			return;
+		}
+		fail("Invalid dids should result in a 400");
+	}
+
+	@Test
+	@Override
+	public void lookupIssuersV4200() throws Exception {
+		for (int i = 0; i < 3; i++) {
+			assertEquals(HttpStatus.CREATED, insertionClient.createTrustedIssuer(TrustedIssuerVOTestExample.build()
+							.did(String.format(DID_TEMPLATE, i))
+							.credentials(List.of(CredentialsVOTestExample.build()))).getStatus(),
+					"The issuer should have been initially created.");
+		}
+		// a cached issuer is returned together with the ones read from the database
+		assertEquals(HttpStatus.OK, testClient.getIssuerV4(String.format(DID_TEMPLATE, 1), null, null).getStatus(),
+				"The issuer should have been returned.");
+
+		List<String> requestedDids = List.of(String.format(DID_TEMPLATE, 2), String.format(DID_TEMPLATE, "missing"),
+				String.format(DID_TEMPLATE, 0), String.format(DID_TEMPLATE, 1), String.format(DID_TEMPLATE, 2));
+		HttpResponse<IssuerLookupResponseVO> lookupResponse = testClient.lookupIssuersV4(
+				new IssuerLookupVO().dids(requestedDids));
+		assertEquals(HttpStatus.OK, lookupResponse.getStatus(), "The lookup should have been answered.");
+
+		IssuerLookupResponseVO responseVO = lookupResponse.body();
+		assertEquals(List.of(String.format(DID_TEMPLATE, 2), String.format(DID_TEMPLATE, 0),
+						String.format(DID_TEMPLATE, 1)),
+				responseVO.getIssuers().stream().map(IssuerVO::getDid).toList(),
+				"The found issuers should be returned once, in the requested order.");
+		responseVO.getIssuers().forEach(issuerVO -> assertEquals(1, issuerVO.getAttributes().size(),
+				"All credentials should be returned as attributes."));
+		assertEquals(List.of(String.format(DID_TEMPLATE, "missing")), responseVO.getMissing(),
+				"The dids without an issuer should be reported as missing.");
+	}
+
+	private static Stream<Arguments> invalidLookups() {
+		return Stream.of(
+				Arguments.of(List.of()),
+				Arguments.of(List.of("my-did")),
+				Arguments.of(List.of(DID_HAPPYPETS, "did.wrong.seperator")),
+				Arguments.of(IntStream.range(0, 101).mapToObj(i -> String.format(DID_TEMPLATE, i)).toList())
+		);
+	}
+
+	@ParameterizedTest
+	@MethodSource("invalidLookups")
+	public void lookupIssuersV4400(List<String> dids) throws Exception {
+		this.lookupDids = dids;
+		lookupIssuersV4400();
+	}
+
+	@Override
+	public void lookupIssuersV4400() throws Exception {
+		try {
+			testClient.lookupIssuersV4(new IssuerLookupVO().dids(lookupDids));
+		} catch (HttpClientResponseException e) {
+			assertEquals(HttpStatus.BAD_REQUEST, e.getStatus(), "Invalid lookups should result in a 400");
+			return;
+		}
+		fail("Invalid lookups should result in a 400");
+	}
+
+}
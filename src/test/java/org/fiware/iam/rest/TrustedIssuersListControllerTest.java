@@ -1,10 +1,20 @@
 package org.fiware.iam.rest;
 
+import io.micronaut.context.annotation.Property;
+import io.micronaut.http.HttpHeaders;
+import io.micronaut.http.HttpRequest;
 import io.micronaut.http.HttpResponse;
 import io.micronaut.http.HttpStatus;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.http.client.annotation.Client;
 import io.micronaut.http.client.exceptions.HttpClientResponseException;
 import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import io.micronaut.transaction.TransactionOperations;
+import jakarta.inject.Inject;
 import lombok.RequiredArgsConstructor;
+import org.fiware.iam.cache.DidFilter;
+import org.fiware.iam.repository.ClaimValue;
+import org.fiware.iam.repository.TrustedIssuer;
 import org.fiware.iam.repository.TrustedIssuerRepository;
 import org.fiware.iam.TILMapper;
 import org.fiware.iam.til.api.IssuerApiTestClient;
@@ -15,21 +25,37 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import reactor.core.publisher.Flux;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 @RequiredArgsConstructor
 @MicronautTest
+@Property(name = "bulk-import.chunk-size", value = "2")
+@Property(name = "bulk-import.max-issuers", value = "10")
+@Property(name = "did-filter.enabled", value = "true")
 public class TrustedIssuersListControllerTest
         implements IssuerApiTestSpec {
 
     public final IssuerApiTestClient testClient;
     public final TrustedIssuerRepository repository;
     public final TILMapper trustedIssuerMapper;
+    public final DidFilter didFilter;
+    public final TransactionOperations<Connection> transactionOperations;
+
+    @Inject
+    @Client("/")
+    public HttpClient httpClient;
 
     private TrustedIssuerVO issuerToCreate;
     private UpdatePair issuerUpdate;
@@ -111,6 +137,201 @@ public class TrustedIssuersListControllerTest
     }
 
     @Override
+    @Test
+    public void createTrustedIssuers200() throws Exception {
+        TrustedIssuerVO existingIssuer = TrustedIssuerVOTestExample.build().did("did:elsi:existing");
+        assertEquals(HttpStatus.CREATED, testClient.createTrustedIssuer(existingIssuer).getStatus(),
+                "The issuer should initially be created.");
+
+        List<TrustedIssuerVO> issuers = List.of(
+                TrustedIssuerVOTestExample.build().did("did:elsi:first"),
+                TrustedIssuerVOTestExample.build().did(null),
+                TrustedIssuerVOTestExample.build().did("did:elsi:first"),
+                existingIssuer,
+                TrustedIssuerVOTestExample.build().did("did:elsi:second")
+                        .credentials(List.of(CredentialsVOTestExample.build())),
+                TrustedIssuerVOTestExample.build().did("did:elsi:invalid")
+                        .credentials(List.of(CredentialsVOTestExample.build().credentialsType(null))),
+                TrustedIssuerVOTestExample.build().did("did:elsi:third"));
+        HttpResponse<BulkImportResultVO> importResponse = testClient.createTrustedIssuers(issuers);
+        assertEquals(HttpStatus.OK, importResponse.getStatus(), "The import should succeed.");
+
+        BulkImportResultVO importResult = importResponse.body();
+        assertEquals(3, importResult.getCreated(), "All valid and new issuers should have been created.");
+        assertEquals(2, importResult.getConflict(), "Duplicates and existing issuers should be reported.");
+        assertEquals(2, importResult.getInvalid(), "Invalid issuers should be reported.");
+        assertEquals(
+                List.of(BulkImportItemResultVO.Status.CREATED, BulkImportItemResultVO.Status.INVALID,
+                        BulkImportItemResultVO.Status.CONFLICT, BulkImportItemResultVO.Status.CONFLICT,
+                        BulkImportItemResultVO.Status.CREATED, BulkImportItemResultVO.Status.INVALID,
+                        BulkImportItemResultVO.Status.CREATED),
+                importResult.getResults().stream().map(BulkImportItemResultVO::getStatus).toList(),
+                "The result of every issuer should be reported in order.");
+        assertEquals(issuers.get(4), testClient.getIssuer("did:elsi:second", null, null).body(),
+                "The imported issuer should be returned.");
+    }
+
+    @Test
+    public void createTrustedIssuers200FromNdjson() throws Exception {
+        String issuers = String.join("\n",
+                "{\"did\":\"did:elsi:first\"}",
+                "not-an-issuer",
+                "",
+                "{\"did\":\"did:elsi:second\",\"credentials\":[{\"credentialsType\":\"CustomerCredential\"}]}");
+        HttpResponse<BulkImportResultVO> importResponse = httpClient.toBlocking().exchange(
+                HttpRequest.POST("/issuer/bulk", issuers)
+                        .contentType(TrustedIssuersBulkController.APPLICATION_NDJSON),
+                BulkImportResultVO.class);
+        assertEquals(HttpStatus.OK, importResponse.getStatus(), "The import should succeed.");
+        assertEquals(2, importResponse.body().getCreated(), "All valid lines should have been imported.");
+        assertEquals(1, importResponse.body().getInvalid(), "Unreadable lines should be reported.");
+        assertTrue(repository.existsById("did:elsi:second"), "The issuer should have been persisted.");
+    }
+
+    @Test
+    public void createTrustedIssuers200WithClaims() throws Exception {
+        List<TrustedIssuerVO> issuers = IntStream.range(0, 3)
+                .mapToObj(i -> TrustedIssuerVOTestExample.build().did(String.format("did:elsi:%s", i))
+                        .credentials(List.of(
+                                CredentialsVOTestExample.build().credentialsType("FirstCredential").claims(List.of(
+                                        ClaimVOTestExample.build().name("first").allowedValues(List.of("a", i)),
+                                        ClaimVOTestExample.build().name("second").allowedValues(List.of(true)))),
+                                CredentialsVOTestExample.build().credentialsType("SecondCredential").claims(List.of(
+                                        ClaimVOTestExample.build().name("third").allowedValues(List.of("b")))))))
+                .toList();
+        HttpResponse<BulkImportResultVO> importResponse = testClient.createTrustedIssuers(issuers);
+        assertEquals(3, importResponse.body().getCreated(), "All issuers should have been created.");
+        for (TrustedIssuerVO issuer : issuers) {
+            assertEquals(issuer, testClient.getIssuer(issuer.getDid(), null, null).body(),
+                    "Claims and values should be stored below their own credentials and claims.");
+        }
+    }
+
+    @Test
+    public void createTrustedIssuers200FromNdjsonTooMany() throws Exception {
+        String issuers = IntStream.range(0, 11)
+                .mapToObj(i -> String.format("{\"did\":\"did:elsi:%s\"}", i))
+                .collect(Collectors.joining("\n"));
+        HttpResponse<BulkImportResultVO> importResponse = httpClient.toBlocking().exchange(
+                HttpRequest.POST("/issuer/bulk", issuers)
+                        .contentType(TrustedIssuersBulkController.APPLICATION_NDJSON),
+                BulkImportResultVO.class);
+        assertEquals(10, importResponse.body().getCreated(), "The issuers up to the limit should have been imported.");
+        assertEquals(BulkImportItemResultVO.Status.INVALID, importResponse.body().getResults().get(10).getStatus(),
+                "Issuers beyond the limit should be reported as invalid.");
+        assertFalse(repository.existsById("did:elsi:10"), "Issuers beyond the limit should not be persisted.");
+    }
+
+    @Test
+    public void readNdjsonLinesAcrossChunks() {
+        List<byte[]> chunks = List.of(
+                "{\"did\":\"did:el".getBytes(StandardCharsets.UTF_8),
+                "si:first\"}\r\n{\"did\":\"did:elsi:ä".getBytes(StandardCharsets.UTF_8),
+                "\"}".getBytes(StandardCharsets.UTF_8));
+        assertEquals(List.of("{\"did\":\"did:elsi:first\"}\r", "{\"did\":\"did:elsi:ä\"}"),
+                TrustedIssuersBulkController.lines(Flux.fromIterable(chunks)).collectList().block(),
+                "Lines should be split at the newlines, independent of the chunks they arrive in.");
+    }
+
+    @Override
+    @Test
+    public void createTrustedIssuers400() throws Exception {
+        List<TrustedIssuerVO> issuers = IntStream.range(0, 11)
+                .mapToObj(i -> TrustedIssuerVOTestExample.build().did(String.format("did:elsi:%s", i)))
+                .toList();
+        try {
+            testClient.createTrustedIssuers(issuers);
+        } catch (HttpClientResponseException e) {
+            assertEquals(HttpStatus.BAD_REQUEST, e.getStatus(), "Too many issuers should not be imported.");
+            assertTrue(repository.findAll().isEmpty(), "No issuer should have been created.");
+            return;
+        }
+        fail("The import should fail for too many issuers.");
+    }
+
+    @Override
+    @Test
+    public void getChanges200() throws Exception {
+        // the change log is not cleaned up between the tests, thus start after the last recorded change
+        long since = latestSequenceNumber();
+        TrustedIssuerVO theIssuer = TrustedIssuerVOTestExample.build();
+        assertEquals(HttpStatus.CREATED, testClient.createTrustedIssuer(theIssuer).getStatus(),
+                "The issuer should initially be created.");
+        testClient.updateIssuer(theIssuer.getDid(), TrustedIssuerVOTestExample.build());
+        testClient.deleteIssuerById(theIssuer.getDid());
+        testClient.createTrustedIssuers(List.of(
+                TrustedIssuerVOTestExample.build().did("did:elsi:first"),
+                TrustedIssuerVOTestExample.build().did("did:elsi:second")));
+
+        HttpResponse<IssuerChangesVO> firstResponse = testClient.getChanges(since, 3);
+        assertEquals(HttpStatus.OK, firstResponse.getStatus(), "The changes should be returned.");
+        IssuerChangesVO firstChanges = firstResponse.body();
+        assertEquals(List.of(IssuerChangeVO.ChangeType.CREATED, IssuerChangeVO.ChangeType.UPDATED,
+                        IssuerChangeVO.ChangeType.DELETED),
+                firstChanges.getChanges().stream().map(IssuerChangeVO::getChangeType).toList(),
+                "The changes should be returned in the order they were made.");
+        assertTrue(firstChanges.getHasMore(), "More changes should be available.");
+
+        IssuerChangesVO nextChanges = testClient.getChanges(firstChanges.getNext(), 3).body();
+        assertEquals(List.of("did:elsi:first", "did:elsi:second"),
+                nextChanges.getChanges().stream().map(IssuerChangeVO::getDid).toList(),
+                "The changes should continue after the last returned one.");
+        assertFalse(nextChanges.getHasMore(), "No more changes should be available.");
+
+        IssuerChangesVO noChanges = testClient.getChanges(nextChanges.getNext(), 3).body();
+        assertTrue(noChanges.getChanges().isEmpty(), "No changes should be returned after the last one.");
+        assertEquals(nextChanges.getNext(), noChanges.getNext(), "The sequence number should be kept.");
+    }
+
+    @Override
+    @Test
+    public void getChanges400() throws Exception {
+        try {
+            testClient.getChanges(-1L, null);
+        } catch (HttpClientResponseException e) {
+            assertEquals(HttpStatus.BAD_REQUEST, e.getStatus(), "Negative sequence numbers should be rejected.");
+            return;
+        }
+        fail("Negative sequence numbers should not be accepted.");
+    }
+
+    private long latestSequenceNumber() {
+        IssuerChangesVO changes = testClient.getChanges(0L, 1000).body();
+        while (changes.getHasMore()) {
+            changes = testClient.getChanges(changes.getNext(), 1000).body();
+        }
+        return changes.getNext();
+    }
+
+    @Override
+    @Test
+    public void getIssuer200ValidAt() throws Exception {
+        TrustedIssuerVO theIssuer = TrustedIssuerVOTestExample.build().credentials(List.of(
+                CredentialsVOTestExample.build().credentialsType("Expired").validFor(TimeRangeVOTestExample.build()),
+                CredentialsVOTestExample.build().credentialsType("Open").validFor(null)));
+        assertEquals(HttpStatus.CREATED, testClient.createTrustedIssuer(theIssuer).getStatus(),
+                "The issuer should have been initially created.");
+
+        assertEquals(List.of("Expired", "Open"), getCredentialsTypes(theIssuer.getDid(), "2020-01-01T00:00:00Z"),
+                "All credentials valid at the time should be returned.");
+        assertEquals(List.of("Open"), getCredentialsTypes(theIssuer.getDid(), "2024-01-01T00:00:00Z"),
+                "Expired credentials should not be returned.");
+        try {
+            testClient.getIssuer(theIssuer.getDid(), "yesterday", null);
+        } catch (HttpClientResponseException e) {
+            assertEquals(HttpStatus.BAD_REQUEST, e.getStatus(), "Invalid times should result in a 400");
+            return;
+        }
+        fail("Invalid times should result in a 400");
+    }
+
+    private List<String> getCredentialsTypes(String did, String validAt) {
+        return testClient.getIssuer(did, validAt, null).body().getCredentials().stream()
+                .map(CredentialsVO::getCredentialsType)
+                .sorted()
+                .toList();
+    }
+
     @Test
     public void deleteIssuerById204() throws Exception {
         TrustedIssuerVO theIssuer = TrustedIssuerVOTestExample.build();
@@ -135,15 +356,63 @@ public class TrustedIssuersListControllerTest
         TrustedIssuerVO theIssuer = TrustedIssuerVOTestExample.build();
         assertEquals(HttpStatus.CREATED, testClient.createTrustedIssuer(theIssuer).getStatus(),
                 "The issuer should initially be created.");
-        HttpResponse<?> getResponse = testClient.getIssuer(theIssuer.getDid());
+        HttpResponse<?> getResponse = testClient.getIssuer(theIssuer.getDid(), null, null);
         assertEquals(HttpStatus.OK, getResponse.getStatus(), "The retrieval request should succeed.");
         assertEquals(theIssuer, getResponse.body(), "The issuer should be the same");
     }
 
+    @Test
+    public void getIssuer200WithTypedClaimValues() throws Exception {
+        TrustedIssuerVO theIssuer = TrustedIssuerVOTestExample.build()
+                .credentials(List.of(CredentialsVOTestExample.build().claims(List.of(
+                        ClaimVOTestExample.build().allowedValues(
+                                List.of("test", 1, 1.5, true, "true", "1", Map.of("key", "value"), List.of("a", 2)))))));
+        assertEquals(HttpStatus.CREATED, testClient.createTrustedIssuer(theIssuer).getStatus(),
+                "The issuer should initially be created.");
+        HttpResponse<?> getResponse = testClient.getIssuer(theIssuer.getDid(), null, null);
+        assertEquals(HttpStatus.OK, getResponse.getStatus(), "The retrieval request should succeed.");
+        assertEquals(theIssuer, getResponse.body(), "All claim values should be returned with their type.");
+    }
+
+    @Test
+    public void getIssuer200CreatedElsewhere() throws Exception {
+        didFilter.sync();
+        TrustedIssuerVO theIssuer = TrustedIssuerVOTestExample.build().did("did:elsi:elsewhere");
+        // stored without recording the change, like an issuer created through another instance before the next sync
+        CompletableFuture.runAsync(() -> transactionOperations.executeWrite(
+                status -> repository.save(trustedIssuerMapper.map(theIssuer)))).get();
+        try {
+            assertEquals(HttpStatus.OK, testClient.getIssuer(theIssuer.getDid(), null, null).getStatus(),
+                    "The issuer should be read from the database, independent of the did filter.");
+        } finally {
+            CompletableFuture.runAsync(() -> transactionOperations.executeWrite(status -> {
+                repository.deleteById(theIssuer.getDid());
+                return null;
+            })).get();
+        }
+    }
+
+    @Test
+    @Override
+    public void getIssuer304() throws Exception {
+        TrustedIssuerVO theIssuer = TrustedIssuerVOTestExample.build()
+                .credentials(List.of(CredentialsVOTestExample.build()));
+        assertEquals(HttpStatus.CREATED, testClient.createTrustedIssuer(theIssuer).getStatus(),
+                "The issuer should initially be created.");
+        String entityTag = testClient.getIssuer(theIssuer.getDid(), null, null).header(HttpHeaders.ETAG);
+        assertNotNull(entityTag, "The issuer should be tagged.");
+        assertEquals(HttpStatus.NOT_MODIFIED, testClient.getIssuer(theIssuer.getDid(), null, entityTag).getStatus(),
+                "An unchanged issuer should not be returned.");
+
+        testClient.updateIssuer(theIssuer.getDid(), TrustedIssuerVOTestExample.build());
+        assertEquals(HttpStatus.OK, testClient.getIssuer(theIssuer.getDid(), null, entityTag).getStatus(),
+                "A changed issuer should be returned.");
+    }
+
     @Test
     @Override
     public void getIssuer404() throws Exception {
-        HttpResponse<?> getResponse = testClient.getIssuer("notExistingDid");
+        HttpResponse<?> getResponse = testClient.getIssuer("notExistingDid", null, null);
         assertEquals(HttpStatus.NOT_FOUND, getResponse.getStatus(), "No issuer should have been found");
     }
 
@@ -161,6 +430,49 @@ public class TrustedIssuersListControllerTest
         assertEquals(updatedIssuerVO, trustedIssuerMapper.map(trustedIssuerMapper.map(issuerUpdate.issuerUpdate)), "The updated issuer should match.");
     }  
 
+    @Test
+    public void updateIssuer200OnlyWritesChanges() throws Exception {
+        TrustedIssuerVO theIssuer = TrustedIssuerVOTestExample.build()
+                .credentials(List.of(
+                        CredentialsVOTestExample.build().claims(List.of(
+                                ClaimVOTestExample.build().allowedValues(List.of("a", "b")))),
+                        CredentialsVOTestExample.build().credentialsType("OtherCredential").claims(List.of(
+                                ClaimVOTestExample.build().allowedValues(List.of("a", "b"))))));
+        assertEquals(HttpStatus.CREATED, testClient.createTrustedIssuer(theIssuer).getStatus(),
+                "The issuer should initially be created.");
+        TrustedIssuer initialIssuer = repository.getByDid(theIssuer.getDid()).get();
+
+        long sequenceNumber = latestSequenceNumber();
+        assertEquals(HttpStatus.OK, testClient.updateIssuer(theIssuer.getDid(), theIssuer).getStatus(),
+                "An unchanged issuer should be accepted.");
+        assertEquals(initialIssuer, repository.getByDid(theIssuer.getDid()).get(),
+                "An unchanged issuer should not be written.");
+        assertEquals(sequenceNumber, latestSequenceNumber(), "An unchanged issuer should not be recorded as changed.");
+
+        TrustedIssuerVO changedIssuer = TrustedIssuerVOTestExample.build()
+                .credentials(List.of(
+                        CredentialsVOTestExample.build().claims(List.of(
+                                ClaimVOTestExample.build().allowedValues(List.of("a", "b")))),
+                        CredentialsVOTestExample.build().credentialsType("OtherCredential").claims(List.of(
+                                ClaimVOTestExample.build().allowedValues(List.of("a", "c"))))));
+        assertEquals(HttpStatus.OK, testClient.updateIssuer(theIssuer.getDid(), changedIssuer).getStatus(),
+                "The issuer should have been updated.");
+        assertEquals(changedIssuer, testClient.getIssuer(theIssuer.getDid(), null, null).body(),
+                "The changed issuer should be returned.");
+        assertEquals(ids(initialIssuer), ids(repository.getByDid(theIssuer.getDid()).get()),
+                "The rows should have been updated in place.");
+    }
+
+    // ids of all credentials, claims and values of the issuer
+    private static List<Integer> ids(TrustedIssuer trustedIssuer) {
+        return trustedIssuer.getCredentials().stream()
+                .flatMap(credential -> Stream.concat(Stream.of(credential.getId()),
+                        credential.getClaims().stream().flatMap(claim -> Stream.concat(Stream.of(claim.getId()),
+                                claim.getClaimValues().stream().map(ClaimValue::getId)))))
+                .sorted()
+                .toList();
+    }
+
     @ParameterizedTest
     @MethodSource("validIssuerUpdates")
     public void updateIssuer200(UpdatePair updatePair) throws Exception {
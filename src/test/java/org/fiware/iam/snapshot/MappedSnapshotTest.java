@@ -0,0 +1,91 @@
+package org.fiware.iam.snapshot;
+
+import org.fiware.iam.cache.AttributeValidity;
+import org.fiware.iam.cache.IssuerWithValidities;
+import org.fiware.iam.tir.model.IssuerAttributeVO;
+import org.fiware.iam.tir.model.IssuerVO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedSnapshotTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void readWrittenSnapshot() throws IOException {
+        IssuerVO issuerWithAttributes = new IssuerVO()
+                .did("did:web:issuer-b")
+                .attributes(List.of(
+                        new IssuerAttributeVO()
+                                .issuerType(IssuerAttributeVO.IssuerType.UNDEFINED)
+                                .body("eyJjcmVkZW50aWFsc1R5cGUiOiJWQyJ9")
+                                .hash("hash-1"),
+                        new IssuerAttributeVO()
+                                .body("ZsO8cg==")
+                                .hash("hash-2")
+                                .tao("did:web:tao")));
+        IssuerWithValidities issuerWithValidities = new IssuerWithValidities(issuerWithAttributes, List.of(
+                new AttributeValidity(Instant.parse("2017-07-21T17:32:28.123456Z"), null),
+                new AttributeValidity(null, Instant.parse("2023-07-21T17:32:28Z"))));
+        IssuerWithValidities issuerWithoutAttributes = withoutAttributes("did:web:issuer-ä");
+        Path path = directory.resolve("registry.snapshot");
+
+        // the issuers are not ordered, the snapshot has to sort them
+        int written = SnapshotWriter.write(path, 42, List.of(issuerWithoutAttributes, issuerWithValidities,
+                withoutAttributes("did:web:issuer-a")).iterator());
+        MappedSnapshot snapshot = MappedSnapshot.open(path);
+
+        assertEquals(3, written, "All issuers should have been written.");
+        assertEquals(3, snapshot.size(), "All issuers should be contained.");
+        assertEquals(42, snapshot.getRegistryVersion(), "The registry version should be stored.");
+        assertEquals(Optional.of(issuerWithValidities), snapshot.getIssuer("did:web:issuer-b"),
+                "The issuer should be returned with all attributes and their validities.");
+        assertEquals(Optional.of(issuerWithoutAttributes), snapshot.getIssuer("did:web:issuer-ä"),
+                "Non-ascii dids should be supported.");
+        assertTrue(snapshot.getIssuer("did:web:issuer-c").isEmpty(), "Unknown issuers should not be found.");
+    }
+
+    @Test
+    void findIssuersWrittenInAnyOrder() throws IOException {
+        List<String> dids = IntStream.range(0, 25).mapToObj(i -> String.format("did:web:%02d", i)).toList();
+        List<IssuerWithValidities> issuers = new ArrayList<>(
+                dids.stream().map(MappedSnapshotTest::withoutAttributes).toList());
+        Collections.shuffle(issuers);
+        Path path = directory.resolve("registry.snapshot");
+        SnapshotWriter.write(path, 1, issuers.iterator());
+        MappedSnapshot snapshot = MappedSnapshot.open(path);
+
+        for (String did : dids) {
+            assertEquals(Optional.of(withoutAttributes(did)), snapshot.getIssuer(did),
+                    "Every issuer should be found, independent of the order it was written in.");
+        }
+        assertTrue(snapshot.getIssuer("did:web:25").isEmpty(), "Dids behind the last issuer should not be found.");
+    }
+
+    @Test
+    void rejectInvalidSnapshot() throws IOException {
+        Path path = directory.resolve("registry.snapshot");
+        Files.write(path, new byte[64]);
+
+        assertThrows(IOException.class, () -> MappedSnapshot.open(path), "Invalid files should not be mapped.");
+    }
+
+    private static IssuerWithValidities withoutAttributes(String did) {
+        return new IssuerWithValidities(new IssuerVO().did(did).attributes(List.of()), List.of());
+    }
+}